@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import de.ralleytn.simple.fiql.FIQLValue;
+
+/**
+ * A record of a dataset generated by {@linkplain ExampleDB} as an object with getters.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public class Customer {
+	
+	private final Map<String, Object> record;
+	private final int id;
+	private final int salutation;
+	private final int country;
+	private final int income;
+	
+	/**
+	 * @param record a record generated by {@link ExampleDB#generate(int, long)}
+	 * @since 2.1.0
+	 */
+	public Customer(Map<String, Object> record) {
+		
+		this.record = record;
+		this.id = (Integer)record.get("ID");
+		this.salutation = (Integer)record.get("Salutation");
+		this.country = (Integer)record.get("Country");
+		this.income = (Integer)record.get("Income");
+	}
+	
+	private final String string(String column) {
+		
+		return (String)this.record.get(column);
+	}
+	
+	@FIQLValue("SystemDocumentID")
+	public String getSystemDocumentID() {
+		
+		return this.string("SystemDocumentID");
+	}
+	
+	@FIQLValue("ID")
+	public int getID() {
+		
+		return this.id;
+	}
+	
+	@FIQLValue("Number")
+	public String getNumber() {
+		
+		return this.string("Number");
+	}
+	
+	@FIQLValue("Company")
+	public String getCompany() {
+		
+		return this.string("Company");
+	}
+	
+	@FIQLValue("Website")
+	public String getWebsite() {
+		
+		return this.string("Website");
+	}
+	
+	@FIQLValue("Salutation")
+	public int getSalutation() {
+		
+		return this.salutation;
+	}
+	
+	@FIQLValue("Title")
+	public String getTitle() {
+		
+		return this.string("Title");
+	}
+	
+	@FIQLValue("FirstName")
+	public String getFirstName() {
+		
+		return this.string("FirstName");
+	}
+	
+	@FIQLValue("LastName")
+	public String getLastName() {
+		
+		return this.string("LastName");
+	}
+	
+	@FIQLValue("Country")
+	public int getCountry() {
+		
+		return this.country;
+	}
+	
+	@FIQLValue("City")
+	public String getCity() {
+		
+		return this.string("City");
+	}
+	
+	@FIQLValue("ZipCode")
+	public String getZipCode() {
+		
+		return this.string("ZipCode");
+	}
+	
+	@FIQLValue("Street")
+	public String getStreet() {
+		
+		return this.string("Street");
+	}
+	
+	@FIQLValue("Email")
+	public String getEmail() {
+		
+		return this.string("Email");
+	}
+	
+	@FIQLValue("Phone")
+	public String getPhone() {
+		
+		return this.string("Phone");
+	}
+	
+	@FIQLValue("Mobile")
+	public String getMobile() {
+		
+		return this.string("Mobile");
+	}
+	
+	@FIQLValue("Fax")
+	public String getFax() {
+		
+		return this.string("Fax");
+	}
+	
+	@FIQLValue("Comment")
+	public String getComment() {
+		
+		return this.string("Comment");
+	}
+	
+	@FIQLValue("Income")
+	public int getIncome() {
+		
+		return this.income;
+	}
+	
+	@FIQLValue("Created")
+	public LocalDateTime getCreated() {
+		
+		return (LocalDateTime)this.record.get("Created");
+	}
+	
+	@FIQLValue("Tags")
+	@SuppressWarnings("unchecked")
+	public List<String> getTags() {
+		
+		return (List<String>)this.record.get("Tags");
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.ralleytn.simple.fiql.FIQL;
+import de.ralleytn.simple.fiql.FIQLException;
+import de.ralleytn.simple.fiql.FIQLQuery;
+
+/**
+ * Measures how long it takes to evaluate a FIQL-Query against every record of a dataset, once for each way a FIQL-Query can be evaluated.
+ * The {@code eval} methods of {@linkplain FIQL} are measured as they are used, including the lookup in the cache of compiled FIQL-Queries.
+ * Run with {@code -prof gc} to see how much is allocated per dataset.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvalBenchmark {
+	
+	private static final long SEED = 42;
+	
+	@Param
+	public Shape shape;
+	
+	@Param({"1000", "100000"})
+	public int size;
+	
+	private String fiql;
+	private List<Map<String, Object>> maps;
+	private List<Customer> customers;
+	private FIQLQuery query;
+	private Predicate<Customer> predicate;
+	
+	@Setup
+	public void setup() throws IOException, FIQLException {
+		
+		this.fiql = this.shape.getFIQL();
+		this.maps = ExampleDB.generate(this.size, EvalBenchmark.SEED);
+		this.customers = new ArrayList<>(this.size);
+		this.query = FIQL.compile(this.fiql);
+		this.predicate = this.query.compile(Customer.class);
+		
+		for(Map<String, Object> record : this.maps) {
+			
+			this.customers.add(new Customer(record));
+		}
+	}
+	
+	@Benchmark
+	public void evalMap(Blackhole blackhole) throws FIQLException {
+		
+		for(Map<String, Object> record : this.maps) {
+			
+			blackhole.consume(FIQL.eval(this.fiql, record));
+		}
+	}
+	
+	@Benchmark
+	public void evalObject(Blackhole blackhole) throws FIQLException {
+		
+		for(Customer customer : this.customers) {
+			
+			blackhole.consume(FIQL.eval(this.fiql, (Object)customer));
+		}
+	}
+	
+	@Benchmark
+	public List<Map<String, Object>> evalIterableOfMaps() throws FIQLException {
+		
+		return FIQL.eval(this.fiql, this.maps);
+	}
+	
+	@Benchmark
+	public List<Customer> evalIterableOfObjects() throws FIQLException {
+		
+		return FIQL.eval(this.fiql, this.customers);
+	}
+	
+	@Benchmark
+	public void testCompiledQuery(Blackhole blackhole) throws FIQLException {
+		
+		for(Customer customer : this.customers) {
+			
+			blackhole.consume(this.query.test(customer));
+		}
+	}
+	
+	@Benchmark
+	public void testCompiledPredicate(Blackhole blackhole) {
+		
+		for(Customer customer : this.customers) {
+			
+			blackhole.consume(this.predicate.test(customer));
+		}
+	}
+}
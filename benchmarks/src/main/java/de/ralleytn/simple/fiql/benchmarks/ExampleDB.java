@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Loads the records of the {@code example.db} of the tests and generates reproducible datasets of any size from them.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class ExampleDB {
+	
+	private static final String EXAMPLE_DB = "de/ralleytn/simple/fiql/tests/example.db";
+	private static final String SEPARATOR = "%NEW_RECORD%";
+	private static final String[] TAGS = {"vip", "gold", "silver", "newsletter", "b2b", "inactive"};
+	private static final LocalDateTime START = LocalDateTime.of(2015, 1, 1, 0, 0);
+	private static final int MINUTES = 5 * 365 * 24 * 60;
+	
+	private ExampleDB() {}
+	
+	/**
+	 * Reads the records in the same way as the tests do.
+	 * The first block of lines are the column names, every other block is a record with one line per column.
+	 * @return the records with the column names as keys and strings as values
+	 * @throws IOException if {@code example.db} could not be read
+	 * @since 2.1.0
+	 */
+	public static final List<Map<String, Object>> load() throws IOException {
+		
+		List<Map<String, Object>> records = new ArrayList<>();
+		
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(ExampleDB.class.getClassLoader().getResourceAsStream(ExampleDB.EXAMPLE_DB), StandardCharsets.UTF_8))) {
+			
+			String line = null;
+			boolean readDefinition = true;
+			List<String> definition = new ArrayList<>();
+			Map<String, Object> record = new HashMap<>();
+			int index = 0;
+			
+			while((line = reader.readLine()) != null) {
+				
+				if(line.equals(ExampleDB.SEPARATOR)) {
+					
+					if(readDefinition) {
+						
+						readDefinition = false;
+					
+					} else {
+						
+						index = 0;
+						records.add(record);
+						record = new HashMap<>();
+					}
+				
+				} else if(readDefinition) {
+					
+					definition.add(line);
+				
+				} else {
+					
+					record.put(definition.get(index++), line);
+				}
+			}
+		}
+		
+		return records;
+	}
+	
+	/**
+	 * Generates a dataset by repeating the records of {@code example.db}.
+	 * {@code ID}, {@code Salutation} and {@code Country} are converted to {@code int}, {@code ID} is unique.
+	 * Every record also gets the random columns {@code Income} (an {@code int}), {@code Created} (a {@linkplain LocalDateTime})
+	 * and {@code Tags} (a {@linkplain List} of strings).
+	 * The same size and seed always result in the same dataset.
+	 * @param size the number of records
+	 * @param seed the seed of the random columns
+	 * @return the records
+	 * @throws IOException if {@code example.db} could not be read
+	 * @since 2.1.0
+	 */
+	public static final List<Map<String, Object>> generate(int size, long seed) throws IOException {
+		
+		List<Map<String, Object>> records = ExampleDB.load();
+		List<Map<String, Object>> dataset = new ArrayList<>(size);
+		Random random = new Random(seed);
+		
+		for(int index = 0; index < size; index++) {
+			
+			Map<String, Object> record = new HashMap<>(records.get(index % records.size()));
+			record.put("ID", index + 1);
+			record.put("Salutation", Integer.parseInt((String)record.get("Salutation")));
+			record.put("Country", Integer.parseInt((String)record.get("Country")));
+			record.put("Income", random.nextInt(200000));
+			record.put("Created", ExampleDB.START.plusMinutes(random.nextInt(ExampleDB.MINUTES)));
+			record.put("Tags", ExampleDB.tags(random));
+			dataset.add(record);
+		}
+		
+		return dataset;
+	}
+	
+	private static final List<String> tags(Random random) {
+		
+		String[] tags = new String[random.nextInt(4)];
+		
+		for(int index = 0; index < tags.length; index++) {
+			
+			tags[index] = ExampleDB.TAGS[random.nextInt(ExampleDB.TAGS.length)];
+		}
+		
+		return Arrays.asList(tags);
+	}
+}
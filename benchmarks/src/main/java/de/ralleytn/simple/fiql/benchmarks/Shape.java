@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql.benchmarks;
+
+/**
+ * The FIQL-Queries of the benchmarks, one for each shape that the parser and the evaluation are measured with.
+ * They compare the columns of the datasets generated by {@linkplain ExampleDB}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public enum Shape {
+	
+	SELECTORS_1("Country==44"),
+	SELECTORS_4("Country==44;Salutation==2;City==Newport;Income>50000"),
+	SELECTORS_16("ID>0;Number!=x;Company!=x;Website!=x;Salutation<=2;Title!=x;FirstName!=x;LastName!=x;Country>=1;City!=x;ZipCode!=x;Street!=x;Email!=x;Phone!=x;Mobile!=x;Income>=0"),
+	NESTED_8("((((((((Country==1,City==Quahog);Salutation>=0),Income<1000);ID>0),Title==Dr.);Income>=0),Country==44);ID>0),City==Newport"),
+	WILDCARD("Email==*@drunken-clam.com,LastName==G*m?n"),
+	CONTAINS("Comment==[back],Company=#=[PHARMACY]"),
+	DATE_RANGE("Created==D2016-01-01~D2016-12-31"),
+	ALTERNATIVES("City==Springfield|Hartford|Boston|Albany|Portland|Quahog|Providence|Newport"),
+	ALTERNATIVES_IGNORE_CASE("City=#=SPRINGFIELD|HARTFORD|BOSTON|ALBANY|PORTLAND|QUAHOG|PROVIDENCE|NEWPORT"),
+	LIST("Tags==vip,Tags==[old]");
+	
+	private final String fiql;
+	
+	private Shape(String fiql) {
+		
+		this.fiql = fiql;
+	}
+	
+	/**
+	 * @return the FIQL-Query
+	 * @since 2.1.0
+	 */
+	public String getFIQL() {
+		
+		return this.fiql;
+	}
+}
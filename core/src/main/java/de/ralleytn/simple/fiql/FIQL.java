@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contains all methods, that are important for SimpleFIQL.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 1.0.0
+ */
+public final class FIQL {
+	
+	/**
+	 * The maximum number of parentheses a FIQL-Query may have open at once.
+	 * Deeper FIQL-Queries are rejected with a {@linkplain FIQLException}, because parsing and evaluating them could exceed the stack.
+	 * @since 2.1.0
+	 */
+	public static final int MAX_DEPTH = 1000;
+	
+	private static final FIQLQueryCache CACHE = new FIQLQueryCache(FIQLQueryCache.DEFAULT_CAPACITY);
+	
+	/**
+	 * Compiles a FIQL-Query.
+	 * The returned {@linkplain FIQLQuery} can be evaluated against any number of values without parsing the FIQL-Query again.
+	 * @param fiql FIQL-Query
+	 * @return the compiled FIQL-Query
+	 * @throws FIQLException if something is wrong with the FIQL-Query, including parentheses nested deeper than {@linkplain #MAX_DEPTH}
+	 * @since 2.1.0
+	 */
+	public static final FIQLQuery compile(String fiql) throws FIQLException {
+		
+		return FIQLParser.parse(fiql);
+	}
+	
+	/**
+	 * Returns the cache that is used by the {@code eval} methods, so that a FIQL-Query that is evaluated again and again is compiled only once.
+	 * It can be used to change the capacity of the cache and to read its counters.
+	 * @return the cache of compiled FIQL-Queries
+	 * @since 2.1.0
+	 */
+	public static final FIQLQueryCache getCache() {
+		
+		return FIQL.CACHE;
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against an {@linkplain Iterable}.
+	 * @param fiql FIQL-Query
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param <T> the type
+	 * @return all filtered elements
+	 * @throws FIQLException if something is wrong with the FIQL-Query
+	 * @since 1.0.0
+	 */
+	public static final <T>List<T> eval(String fiql, Iterable<T> values) throws FIQLException {
+		
+		return FIQL.CACHE.get(fiql).filter(values);
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against an {@linkplain Object}.
+	 * @param fiql FIQL-Query
+	 * @param value {@linkplain Object} to evaluate against
+	 * @return {@code true}, if the {@linkplain Object} is positive, else {@code false}
+	 * @throws FIQLException if something is wrong with the FIQL-Query
+	 * @since 1.0.0
+	 */
+	public static final boolean eval(String fiql, Object value) throws FIQLException {
+		
+		return FIQL.CACHE.get(fiql).test(value);
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against a {@linkplain Map}.
+	 * @param fiql FIQL-Query
+	 * @param value {@linkplain Map} to evaluate against
+	 * @return {@code true}, if the {@linkplain Map} is positive, else {@code false}
+	 * @throws FIQLException if something is wrong with the FIQL-Query
+	 * @since 1.0.0
+	 */
+	public static final boolean eval(String fiql, Map<?, ?> value) throws FIQLException {
+		
+		return FIQL.CACHE.get(fiql).test(value);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Reads the value of a getter that is marked with {@linkplain FIQLValue}, either with a {@linkplain MethodHandle} or with a generated
+ * {@linkplain FIQLAccessorProvider}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLAccessor {
+	
+	private static final MethodType TYPE = MethodType.methodType(Object.class, Object.class);
+	
+	final String selector;
+	final Method method;
+	private final MethodHandle handle;
+	private final IllegalAccessException exception;
+	private final FIQLAccessorProvider provider;
+	private final int index;
+	
+	/**
+	 * @param selector the selector
+	 * @param method the getter
+	 * @since 2.1.0
+	 */
+	FIQLAccessor(String selector, Method method) {
+		
+		MethodHandle handle = null;
+		IllegalAccessException exception = null;
+		
+		try {
+			
+			handle = FIQLAccessor.unreflect(method).asType(FIQLAccessor.TYPE);
+		
+		} catch(IllegalAccessException accessException) {
+			
+			// The exception is thrown when the getter is called, just like it would have been with reflection.
+			exception = accessException;
+		}
+		
+		this.selector = selector;
+		this.method = method;
+		this.handle = handle;
+		this.exception = exception;
+		this.provider = null;
+		this.index = -1;
+	}
+	
+	/**
+	 * @param selector the selector
+	 * @param provider the generated {@linkplain FIQLAccessorProvider} that calls the getter
+	 * @param index the index of the selector in {@linkplain FIQLAccessorProvider#getSelectors()}
+	 * @since 2.1.0
+	 */
+	FIQLAccessor(String selector, FIQLAccessorProvider provider, int index) {
+		
+		this.selector = selector;
+		this.method = null;
+		this.handle = null;
+		this.exception = null;
+		this.provider = provider;
+		this.index = index;
+	}
+	
+	/**
+	 * Unreflects a getter with the access of this module.
+	 * Unlike the {@linkplain MethodHandles#publicLookup() public lookup}, that includes getters in packages that are only exported or
+	 * opened to this module.
+	 * @param method the getter
+	 * @return the {@linkplain MethodHandle}
+	 * @throws IllegalAccessException if this module has no access to the getter
+	 * @since 2.1.0
+	 */
+	static final MethodHandle unreflect(Method method) throws IllegalAccessException {
+		
+		Class<?> type = method.getDeclaringClass();
+		FIQLAccessor.class.getModule().addReads(type.getModule());
+		
+		try {
+			
+			return MethodHandles.lookup().unreflect(method);
+		
+		} catch(IllegalAccessException exception) {
+			
+			// The getter may still be accessible if its package is opened to this module.
+			return MethodHandles.privateLookupIn(type, MethodHandles.lookup()).unreflect(method);
+		}
+	}
+	
+	/**
+	 * @return {@code true} if the getter can be called
+	 * @since 2.1.0
+	 */
+	boolean isAccessible() {
+		
+		return this.handle != null || this.provider != null;
+	}
+	
+	/**
+	 * Calls the getter.
+	 * @param target the object the getter is called on
+	 * @return the value
+	 * @throws FIQLException if the getter could not be called or threw an exception
+	 * @since 2.1.0
+	 */
+	Object get(Object target) throws FIQLException {
+		
+		if(this.provider != null) {
+			
+			try {
+				
+				return this.provider.get(target, this.index);
+			
+			} catch(Exception exception) {
+				
+				throw new FIQLException(exception);
+			}
+		
+		} else if(this.handle == null) {
+			
+			throw new FIQLException(this.exception);
+		}
+		
+		try {
+			
+			return (Object)this.handle.invokeExact(target);
+		
+		} catch(Error error) {
+			
+			throw error;
+		
+		} catch(Exception exception) {
+			
+			throw new FIQLException(exception);
+		
+		} catch(Throwable throwable) {
+			
+			throw new FIQLException(new Exception(throwable));
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * Reads the values of the getters of a class that are marked with {@linkplain FIQLValue}, without reflection.
+ * Implementations are generated at compile time by the annotation processor in the {@code SimpleFIQL-processor} artifact and found
+ * with the {@linkplain java.util.ServiceLoader}. If there is a provider for a class, its getters are not looked up with reflection.
+ * <p>
+ * On the class path, the annotation processor registers the providers in {@code META-INF/services} itself.
+ * In a named module, they have to be declared with {@code provides de.ralleytn.simple.fiql.FIQLAccessorProvider with ...}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public interface FIQLAccessorProvider {
+	
+	/**
+	 * @return the class whose getters are read
+	 * @since 2.1.0
+	 */
+	public Class<?> getType();
+	
+	/**
+	 * @return the selectors of all getters marked with {@linkplain FIQLValue}, including the inherited ones
+	 * @since 2.1.0
+	 */
+	public String[] getSelectors();
+	
+	/**
+	 * Calls a getter.
+	 * @param target the object the getter is called on, which is an instance of {@link #getType()}
+	 * @param selector the index of the selector in {@link #getSelectors()}
+	 * @return the value
+	 * @throws Exception if the getter threw an exception
+	 * @since 2.1.0
+	 */
+	public Object get(Object target, int selector) throws Exception;
+}
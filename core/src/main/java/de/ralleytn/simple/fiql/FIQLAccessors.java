@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * All {@linkplain FIQLAccessor}s of a class.
+ * They are looked up only once per class and then cached for as long as the class exists.
+ * Classes with a generated {@linkplain FIQLAccessorProvider} are not looked up with reflection at all.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLAccessors {
+	
+	private static final ClassValue<FIQLAccessors> CACHE = new ClassValue<FIQLAccessors>() {
+		
+		@Override
+		protected FIQLAccessors computeValue(Class<?> type) {
+			
+			return new FIQLAccessors(type);
+		}
+	};
+	
+	private final Map<String, FIQLAccessor> accessors;
+	
+	private FIQLAccessors(Class<?> type) {
+		
+		Map<String, FIQLAccessor> accessors = new HashMap<>();
+		FIQLAccessorProvider provider = Providers.PROVIDERS.get(type);
+		
+		if(provider != null) {
+			
+			String[] selectors = provider.getSelectors();
+			
+			for(int index = 0; index < selectors.length; index++) {
+				
+				accessors.put(selectors[index], new FIQLAccessor(selectors[index], provider, index));
+			}
+			
+			this.accessors = Collections.unmodifiableMap(accessors);
+			return;
+		}
+		
+		for(Method method : type.getMethods()) {
+			
+			FIQLValue annotation = method.getAnnotation(FIQLValue.class);
+			
+			if(annotation != null) {
+				
+				accessors.put(annotation.value(), new FIQLAccessor(annotation.value(), method));
+			}
+		}
+		
+		this.accessors = Collections.unmodifiableMap(accessors);
+	}
+	
+	/**
+	 * @param type the class
+	 * @return the cached {@linkplain FIQLAccessors} of the class
+	 * @since 2.1.0
+	 */
+	static final FIQLAccessors of(Class<?> type) {
+		
+		return FIQLAccessors.CACHE.get(type);
+	}
+	
+	/**
+	 * Reads the value of a single selector.
+	 * @param target a {@linkplain Map} or an {@linkplain Object} with getters marked with {@linkplain FIQLValue}
+	 * @param selector the selector
+	 * @return the value or {@code null} if there is no value for the selector
+	 * @throws FIQLException if the getter could not be called or threw an exception
+	 * @since 2.1.0
+	 */
+	static final Object read(Object target, String selector) throws FIQLException {
+		
+		if(target instanceof Map) {
+			
+			return ((Map<?, ?>)target).get(selector);
+		
+		} else if(target == null) {
+			
+			return null;
+		}
+		
+		FIQLAccessor accessor = FIQLAccessors.of(target.getClass()).get(selector);
+		return accessor != null ? accessor.get(target) : null;
+	}
+	
+	/**
+	 * @param selector the selector
+	 * @return the {@linkplain FIQLAccessor} for the selector or {@code null} if there is none
+	 * @since 2.1.0
+	 */
+	FIQLAccessor get(String selector) {
+		
+		return this.accessors.get(selector);
+	}
+	
+	/**
+	 * @return all {@linkplain FIQLAccessor}s mapped to their selectors
+	 * @since 2.1.0
+	 */
+	Map<String, FIQLAccessor> getAll() {
+		
+		return this.accessors;
+	}
+	
+	/**
+	 * Loads the {@linkplain FIQLAccessorProvider}s the first time a class is looked up.
+	 * @since 2.1.0
+	 */
+	private static final class Providers {
+		
+		private static final Map<Class<?>, FIQLAccessorProvider> PROVIDERS = Providers.load();
+		
+		private static final Map<Class<?>, FIQLAccessorProvider> load() {
+			
+			Map<Class<?>, FIQLAccessorProvider> providers = new HashMap<>();
+			Iterator<FIQLAccessorProvider> iterator = ServiceLoader.load(FIQLAccessorProvider.class).iterator();
+			
+			try {
+				
+				while(iterator.hasNext()) {
+					
+					try {
+						
+						FIQLAccessorProvider provider = iterator.next();
+						providers.putIfAbsent(provider.getType(), provider);
+					
+					} catch(ServiceConfigurationError error) {
+						
+						// A provider that cannot be loaded is skipped, its class is looked up with reflection instead.
+					}
+				}
+			
+			} catch(ServiceConfigurationError error) {
+				
+				// The remaining providers cannot be found, their classes are looked up with reflection instead.
+			}
+			
+			return providers;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes how {@link FIQLQuery#aggregate(Iterable, FIQLAggregation)} groups the filtered elements and which of their values it aggregates.
+ * The elements are grouped by the values of the group selectors, so elements with equal values for all of them are in the same
+ * {@linkplain FIQLGroup}. For every measured selector each {@linkplain FIQLGroup} has the count, the sum, the minimum, the maximum and the
+ * average of its numbers.
+ * <p>
+ * Example: {@code FIQLAggregation.groupBy("country", "city").measure("income")}
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLAggregation {
+	
+	final String[] groupSelectors;
+	final String[] measureSelectors;
+	
+	private FIQLAggregation(String[] groupSelectors, String[] measureSelectors) {
+		
+		this.groupSelectors = groupSelectors;
+		this.measureSelectors = measureSelectors;
+	}
+	
+	/**
+	 * @param selectors the selectors whose values the elements are grouped by, none to aggregate all filtered elements in a single group
+	 * @return an aggregation without measured selectors, which only counts the elements of each group
+	 * @since 2.1.0
+	 */
+	public static final FIQLAggregation groupBy(String... selectors) {
+		
+		return new FIQLAggregation(selectors.clone(), new String[0]);
+	}
+	
+	/**
+	 * @param selectors the selectors whose numbers are aggregated
+	 * @return a copy of this aggregation that also aggregates the numbers of the given selectors
+	 * @since 2.1.0
+	 */
+	public FIQLAggregation measure(String... selectors) {
+		
+		String[] measureSelectors = Arrays.copyOf(this.measureSelectors, this.measureSelectors.length + selectors.length);
+		System.arraycopy(selectors, 0, measureSelectors, this.measureSelectors.length, selectors.length);
+		return new FIQLAggregation(this.groupSelectors, measureSelectors);
+	}
+	
+	/**
+	 * @return the selectors whose values the elements are grouped by
+	 * @since 2.1.0
+	 */
+	public List<String> getGroupSelectors() {
+		
+		return Collections.unmodifiableList(Arrays.asList(this.groupSelectors));
+	}
+	
+	/**
+	 * @return the selectors whose numbers are aggregated
+	 * @since 2.1.0
+	 */
+	public List<String> getMeasureSelectors() {
+		
+		return Collections.unmodifiableList(Arrays.asList(this.measureSelectors));
+	}
+	
+	/**
+	 * @param selector a measured selector
+	 * @return the index of the selector in {@link #getMeasureSelectors()}
+	 * @throws IllegalArgumentException if the selector is not measured
+	 * @since 2.1.0
+	 */
+	int indexOf(String selector) {
+		
+		for(int index = 0; index < this.measureSelectors.length; index++) {
+			
+			if(this.measureSelectors[index].equals(selector)) {
+				
+				return index;
+			}
+		}
+		
+		throw new IllegalArgumentException("The selector '" + selector + "' is not measured!");
+	}
+	
+	@Override
+	public String toString() {
+		
+		return "group by " + String.join(",", this.groupSelectors) + " measure " + String.join(",", this.measureSelectors);
+	}
+}
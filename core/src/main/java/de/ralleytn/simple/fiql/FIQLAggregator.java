@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups elements by the values of the group selectors of a {@linkplain FIQLAggregation} and aggregates them in {@linkplain FIQLGroup}s.
+ * The values of the group selectors are read into a reused key, so only a new group allocates anything.
+ * The groups are in the order their first elements were added in.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLAggregator {
+	
+	private final FIQLAggregation aggregation;
+	private final Map<Key, FIQLGroup> groups;
+	private final Key key;
+	private final Object[] measures;
+	
+	/**
+	 * @param aggregation the aggregation
+	 * @since 2.1.0
+	 */
+	FIQLAggregator(FIQLAggregation aggregation) {
+		
+		this.aggregation = aggregation;
+		this.groups = new LinkedHashMap<>();
+		this.key = new Key(new Object[aggregation.groupSelectors.length]);
+		this.measures = new Object[aggregation.measureSelectors.length];
+	}
+	
+	/**
+	 * Adds an element to its group.
+	 * @param value a {@linkplain Map} or an {@linkplain Object} with getters marked with {@linkplain FIQLValue}
+	 * @throws FIQLException if a getter could not be called or threw an exception
+	 * @since 2.1.0
+	 */
+	void add(Object value) throws FIQLException {
+		
+		for(int index = 0; index < this.key.values.length; index++) {
+			
+			this.key.values[index] = FIQLAccessors.read(value, this.aggregation.groupSelectors[index]);
+		}
+		
+		for(int index = 0; index < this.measures.length; index++) {
+			
+			this.measures[index] = FIQLAccessors.read(value, this.aggregation.measureSelectors[index]);
+		}
+		
+		this.key.hash = Arrays.hashCode(this.key.values);
+		FIQLGroup group = this.groups.get(this.key);
+		
+		if(group == null) {
+			
+			Key key = new Key(this.key.values.clone());
+			key.hash = this.key.hash;
+			group = new FIQLGroup(this.aggregation, key.values);
+			this.groups.put(key, group);
+		}
+		
+		group.add(this.measures);
+	}
+	
+	/**
+	 * Adds the groups of another instance, for example one that aggregated a different chunk.
+	 * The other instance must not be used anymore afterwards.
+	 * @param other the other instance
+	 * @since 2.1.0
+	 */
+	void merge(FIQLAggregator other) {
+		
+		for(Map.Entry<Key, FIQLGroup> entry : other.groups.entrySet()) {
+			
+			FIQLGroup group = this.groups.putIfAbsent(entry.getKey(), entry.getValue());
+			
+			if(group != null) {
+				
+				group.merge(entry.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * @return the groups
+	 * @since 2.1.0
+	 */
+	List<FIQLGroup> toList() {
+		
+		return new ArrayList<>(this.groups.values());
+	}
+	
+	private static final class Key {
+		
+		private final Object[] values;
+		private int hash;
+		
+		private Key(Object[] values) {
+			
+			this.values = values;
+		}
+		
+		@Override
+		public int hashCode() {
+			
+			return this.hash;
+		}
+		
+		@Override
+		public boolean equals(Object object) {
+			
+			return object instanceof Key && Arrays.equals(this.values, ((Key)object).values);
+		}
+	}
+}
@@ -0,0 +1,580 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, compressed set of row numbers.
+ * The rows are split into blocks of 65536 by their upper 16 bits. Each block is stored in the smaller of two containers:
+ * <ul>
+ * <li>a sorted {@code char[]} of the lower 16 bits, if the block contains at most 4096 rows</li>
+ * <li>a {@code long[]} with one bit per possible row in the block otherwise</li>
+ * </ul>
+ * Intersections and unions are computed block by block, for the bit containers 64 rows at once.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLBitmap {
+	
+	private static final int ARRAY_LIMIT = 4096;
+	private static final int WORDS = 1024;
+	
+	/**
+	 * No rows.
+	 * @since 2.1.0
+	 */
+	static final FIQLBitmap EMPTY = new FIQLBitmap(new char[0], new Object[0], 0);
+	
+	private final char[] keys;
+	private final Object[] containers;
+	private final int cardinality;
+	
+	private FIQLBitmap(char[] keys, Object[] containers, int length) {
+		
+		int cardinality = 0;
+		
+		for(int index = 0; index < length; index++) {
+			
+			cardinality += FIQLBitmap.cardinality(containers[index]);
+		}
+		
+		this.keys = length == keys.length ? keys : Arrays.copyOf(keys, length);
+		this.containers = length == containers.length ? containers : Arrays.copyOf(containers, length);
+		this.cardinality = cardinality;
+	}
+	
+	/**
+	 * @param rows sorted rows without duplicates, none of them negative
+	 * @param length the number of rows in the array
+	 * @return the rows as bitmap
+	 * @since 2.1.0
+	 */
+	static final FIQLBitmap of(int[] rows, int length) {
+		
+		char[] keys = new char[Math.min(length, 1 << 15)];
+		Object[] containers = new Object[keys.length];
+		int blocks = 0;
+		int start = 0;
+		
+		while(start < length) {
+			
+			int key = rows[start] >>> 16;
+			int end = start;
+			
+			while(end < length && rows[end] >>> 16 == key) {
+				
+				end++;
+			}
+			
+			if(end - start <= FIQLBitmap.ARRAY_LIMIT) {
+				
+				char[] array = new char[end - start];
+				
+				for(int index = start; index < end; index++) {
+					
+					array[index - start] = (char)rows[index];
+				}
+				
+				containers[blocks] = array;
+			
+			} else {
+				
+				long[] words = new long[FIQLBitmap.WORDS];
+				
+				for(int index = start; index < end; index++) {
+					
+					words[(char)rows[index] >>> 6] |= 1L << rows[index];
+				}
+				
+				containers[blocks] = words;
+			}
+			
+			keys[blocks++] = (char)key;
+			start = end;
+		}
+		
+		return new FIQLBitmap(keys, containers, blocks);
+	}
+	
+	/**
+	 * @param from the first row
+	 * @param to the row after the last row
+	 * @return all rows from {@code from} to {@code to - 1}
+	 * @since 2.1.0
+	 */
+	static final FIQLBitmap range(int from, int to) {
+		
+		if(from >= to) {
+			
+			return FIQLBitmap.EMPTY;
+		}
+		
+		int first = from >>> 16;
+		int last = (to - 1) >>> 16;
+		char[] keys = new char[last - first + 1];
+		Object[] containers = new Object[keys.length];
+		
+		for(int key = first; key <= last; key++) {
+			
+			int start = key == first ? from & 0xFFFF : 0;
+			int end = key == last ? ((to - 1) & 0xFFFF) + 1 : 1 << 16;
+			long[] words = new long[FIQLBitmap.WORDS];
+			
+			for(int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+				
+				long bits = -1L;
+				
+				if(word == start >>> 6) {
+					
+					bits &= -1L << start;
+				}
+				
+				if(word == (end - 1) >>> 6) {
+					
+					bits &= -1L >>> (63 - ((end - 1) & 63));
+				}
+				
+				words[word] = bits;
+			}
+			
+			keys[key - first] = (char)key;
+			containers[key - first] = FIQLBitmap.compact(words);
+		}
+		
+		return new FIQLBitmap(keys, containers, keys.length);
+	}
+	
+	/**
+	 * @param other another bitmap
+	 * @return the rows that are in both bitmaps
+	 * @since 2.1.0
+	 */
+	FIQLBitmap and(FIQLBitmap other) {
+		
+		char[] keys = new char[Math.min(this.keys.length, other.keys.length)];
+		Object[] containers = new Object[keys.length];
+		int blocks = 0;
+		int left = 0;
+		int right = 0;
+		
+		while(left < this.keys.length && right < other.keys.length) {
+			
+			       if(this.keys[left] < other.keys[right]) {left++;
+			} else if(this.keys[left] > other.keys[right]) {right++;
+			} else {
+				
+				Object container = FIQLBitmap.and(this.containers[left], other.containers[right]);
+				
+				if(container != null) {
+					
+					keys[blocks] = this.keys[left];
+					containers[blocks++] = container;
+				}
+				
+				left++;
+				right++;
+			}
+		}
+		
+		return new FIQLBitmap(keys, containers, blocks);
+	}
+	
+	/**
+	 * @param other another bitmap
+	 * @return the rows that are in at least one of the bitmaps
+	 * @since 2.1.0
+	 */
+	FIQLBitmap or(FIQLBitmap other) {
+		
+		char[] keys = new char[this.keys.length + other.keys.length];
+		Object[] containers = new Object[keys.length];
+		int blocks = 0;
+		int left = 0;
+		int right = 0;
+		
+		while(left < this.keys.length || right < other.keys.length) {
+			
+			if(right >= other.keys.length || (left < this.keys.length && this.keys[left] < other.keys[right])) {
+				
+				keys[blocks] = this.keys[left];
+				containers[blocks++] = this.containers[left++];
+			
+			} else if(left >= this.keys.length || this.keys[left] > other.keys[right]) {
+				
+				keys[blocks] = other.keys[right];
+				containers[blocks++] = other.containers[right++];
+			
+			} else {
+				
+				keys[blocks] = this.keys[left];
+				containers[blocks++] = FIQLBitmap.or(this.containers[left++], other.containers[right++]);
+			}
+		}
+		
+		return new FIQLBitmap(keys, containers, blocks);
+	}
+	
+	/**
+	 * @param other another bitmap
+	 * @return the rows that are in this bitmap, but not in the other one
+	 * @since 2.1.0
+	 */
+	FIQLBitmap andNot(FIQLBitmap other) {
+		
+		char[] keys = new char[this.keys.length];
+		Object[] containers = new Object[keys.length];
+		int blocks = 0;
+		int right = 0;
+		
+		for(int left = 0; left < this.keys.length; left++) {
+			
+			while(right < other.keys.length && other.keys[right] < this.keys[left]) {
+				
+				right++;
+			}
+			
+			Object container = this.containers[left];
+			
+			if(right < other.keys.length && other.keys[right] == this.keys[left]) {
+				
+				container = FIQLBitmap.andNot(container, other.containers[right]);
+			}
+			
+			if(container != null) {
+				
+				keys[blocks] = this.keys[left];
+				containers[blocks++] = container;
+			}
+		}
+		
+		return new FIQLBitmap(keys, containers, blocks);
+	}
+	
+	/**
+	 * @param row the row
+	 * @return {@code true} if the row is in this bitmap
+	 * @since 2.1.0
+	 */
+	boolean contains(int row) {
+		
+		int block = Arrays.binarySearch(this.keys, (char)(row >>> 16));
+		
+		if(block < 0) {
+			
+			return false;
+		}
+		
+		Object container = this.containers[block];
+		return container instanceof char[] ? Arrays.binarySearch((char[])container, (char)row) >= 0 : (((long[])container)[(char)row >>> 6] & (1L << row)) != 0;
+	}
+	
+	/**
+	 * @return the number of rows
+	 * @since 2.1.0
+	 */
+	int cardinality() {
+		
+		return this.cardinality;
+	}
+	
+	/**
+	 * @return {@code true} if there are no rows
+	 * @since 2.1.0
+	 */
+	boolean isEmpty() {
+		
+		return this.cardinality == 0;
+	}
+	
+	/**
+	 * @return the sorted rows
+	 * @since 2.1.0
+	 */
+	int[] toArray() {
+		
+		int[] rows = new int[this.cardinality];
+		int length = 0;
+		
+		for(int block = 0; block < this.keys.length; block++) {
+			
+			int high = this.keys[block] << 16;
+			Object container = this.containers[block];
+			
+			if(container instanceof char[]) {
+				
+				for(char low : (char[])container) {
+					
+					rows[length++] = high | low;
+				}
+			
+			} else {
+				
+				long[] words = (long[])container;
+				
+				for(int word = 0; word < words.length; word++) {
+					
+					long bits = words[word];
+					
+					while(bits != 0) {
+						
+						rows[length++] = high | (word << 6) | Long.numberOfTrailingZeros(bits);
+						bits &= bits - 1;
+					}
+				}
+			}
+		}
+		
+		return rows;
+	}
+	
+	private static final int cardinality(Object container) {
+		
+		if(container instanceof char[]) {
+			
+			return ((char[])container).length;
+		}
+		
+		int cardinality = 0;
+		
+		for(long word : (long[])container) {
+			
+			cardinality += Long.bitCount(word);
+		}
+		
+		return cardinality;
+	}
+	
+	// Turns a bit container into the smallest container, or null if it is empty
+	private static final Object compact(long[] words) {
+		
+		int cardinality = FIQLBitmap.cardinality(words);
+		
+		if(cardinality == 0) {
+			
+			return null;
+		
+		} else if(cardinality > FIQLBitmap.ARRAY_LIMIT) {
+			
+			return words;
+		}
+		
+		char[] array = new char[cardinality];
+		int length = 0;
+		
+		for(int word = 0; word < words.length; word++) {
+			
+			long bits = words[word];
+			
+			while(bits != 0) {
+				
+				array[length++] = (char)((word << 6) | Long.numberOfTrailingZeros(bits));
+				bits &= bits - 1;
+			}
+		}
+		
+		return array;
+	}
+	
+	private static final boolean contains(long[] words, char low) {
+		
+		return (words[low >>> 6] & (1L << low)) != 0;
+	}
+	
+	private static final Object and(Object first, Object second) {
+		
+		if(first instanceof long[] && second instanceof long[]) {
+			
+			long[] words = new long[FIQLBitmap.WORDS];
+			
+			for(int word = 0; word < words.length; word++) {
+				
+				words[word] = ((long[])first)[word] & ((long[])second)[word];
+			}
+			
+			return FIQLBitmap.compact(words);
+		
+		} else if(first instanceof long[]) {
+			
+			return FIQLBitmap.and(second, first);
+		}
+		
+		char[] array = (char[])first;
+		char[] result = new char[array.length];
+		int length = 0;
+		
+		if(second instanceof long[]) {
+			
+			for(char low : array) {
+				
+				if(FIQLBitmap.contains((long[])second, low)) {
+					
+					result[length++] = low;
+				}
+			}
+		
+		} else {
+			
+			char[] other = (char[])second;
+			int right = 0;
+			
+			for(char low : array) {
+				
+				while(right < other.length && other[right] < low) {
+					
+					right++;
+				}
+				
+				if(right < other.length && other[right] == low) {
+					
+					result[length++] = low;
+				}
+			}
+		}
+		
+		return length == 0 ? null : Arrays.copyOf(result, length);
+	}
+	
+	private static final Object or(Object first, Object second) {
+		
+		if(first instanceof char[] && second instanceof char[]) {
+			
+			char[] left = (char[])first;
+			char[] right = (char[])second;
+			char[] result = new char[left.length + right.length];
+			int length = 0;
+			int leftIndex = 0;
+			int rightIndex = 0;
+			
+			while(leftIndex < left.length || rightIndex < right.length) {
+				
+				       if(rightIndex >= right.length || (leftIndex < left.length && left[leftIndex] < right[rightIndex])) {result[length++] = left[leftIndex++];
+				} else if(leftIndex >= left.length || left[leftIndex] > right[rightIndex])                               {result[length++] = right[rightIndex++];
+				} else {
+					
+					result[length++] = left[leftIndex++];
+					rightIndex++;
+				}
+			}
+			
+			if(length <= FIQLBitmap.ARRAY_LIMIT) {
+				
+				return Arrays.copyOf(result, length);
+			}
+			
+			long[] words = new long[FIQLBitmap.WORDS];
+			
+			for(int index = 0; index < length; index++) {
+				
+				words[result[index] >>> 6] |= 1L << result[index];
+			}
+			
+			return words;
+		
+		} else if(first instanceof char[]) {
+			
+			return FIQLBitmap.or(second, first);
+		}
+		
+		long[] words = ((long[])first).clone();
+		
+		if(second instanceof char[]) {
+			
+			for(char low : (char[])second) {
+				
+				words[low >>> 6] |= 1L << low;
+			}
+		
+		} else {
+			
+			for(int word = 0; word < words.length; word++) {
+				
+				words[word] |= ((long[])second)[word];
+			}
+		}
+		
+		return words;
+	}
+	
+	private static final Object andNot(Object first, Object second) {
+		
+		if(first instanceof long[]) {
+			
+			long[] words = ((long[])first).clone();
+			
+			if(second instanceof char[]) {
+				
+				for(char low : (char[])second) {
+					
+					words[low >>> 6] &= ~(1L << low);
+				}
+			
+			} else {
+				
+				for(int word = 0; word < words.length; word++) {
+					
+					words[word] &= ~((long[])second)[word];
+				}
+			}
+			
+			return FIQLBitmap.compact(words);
+		}
+		
+		char[] array = (char[])first;
+		char[] result = new char[array.length];
+		int length = 0;
+		
+		if(second instanceof long[]) {
+			
+			for(char low : array) {
+				
+				if(!FIQLBitmap.contains((long[])second, low)) {
+					
+					result[length++] = low;
+				}
+			}
+		
+		} else {
+			
+			char[] other = (char[])second;
+			int right = 0;
+			
+			for(char low : array) {
+				
+				while(right < other.length && other[right] < low) {
+					
+					right++;
+				}
+				
+				if(right >= other.length || other[right] != low) {
+					
+					result[length++] = low;
+				}
+			}
+		}
+		
+		return length == 0 ? null : Arrays.copyOf(result, length);
+	}
+}
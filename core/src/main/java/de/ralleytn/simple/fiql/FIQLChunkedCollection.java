@@ -0,0 +1,290 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A collection that is split into chunks of a fixed size and skips whole chunks that cannot match a FIQL-Query.
+ * For each selector with a zone map ({@link #createZoneMap(String)}), every chunk remembers its smallest and greatest number and date
+ * and a bloom filter of its strings. A chunk is skipped if one of these zone maps proves that a comparison of the FIQL-Query cannot be
+ * {@code true} for any element in the chunk, and that this makes the whole FIQL-Query {@code false}.
+ * Elements in skipped chunks are not evaluated at all.
+ * This works best if the elements are added roughly sorted by the values of the selector, like events by their time.
+ * <p>
+ * The elements can be {@linkplain Map}s or {@linkplain Object}s with getters marked with {@linkplain FIQLValue}.
+ * Their values must not change while they are in the collection.
+ * Elements can be added, but not removed. This class is not thread safe, but it can be filtered by multiple threads at the same time
+ * as long as no elements are added.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @param <T> the type of the elements
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLChunkedCollection<T> implements Iterable<T> {
+	
+	/**
+	 * The number of elements per chunk, unless another one is given.
+	 * @since 2.1.0
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+	
+	private final int chunkSize;
+	private final List<T> values = new ArrayList<>();
+	private final Map<String, List<FIQLZone>> zones = new HashMap<>();
+	
+	/**
+	 * Creates an empty collection with chunks of {@value #DEFAULT_CHUNK_SIZE} elements.
+	 * @since 2.1.0
+	 */
+	public FIQLChunkedCollection() {
+		
+		this(FIQLChunkedCollection.DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Creates an empty collection.
+	 * @param chunkSize the number of elements per chunk
+	 * @throws IllegalArgumentException if the chunk size is smaller than 1
+	 * @since 2.1.0
+	 */
+	public FIQLChunkedCollection(int chunkSize) {
+		
+		if(chunkSize < 1) {
+			
+			throw new IllegalArgumentException("The chunk size must be at least 1!");
+		}
+		
+		this.chunkSize = chunkSize;
+	}
+	
+	/**
+	 * Creates the zone maps of a selector.
+	 * Does nothing if the selector already has zone maps.
+	 * @param selector the selector
+	 * @throws FIQLException if the value of an element could not be read
+	 * @since 2.1.0
+	 */
+	public void createZoneMap(String selector) throws FIQLException {
+		
+		if(this.zones.containsKey(selector)) {
+			
+			return;
+		}
+		
+		List<FIQLZone> zones = new ArrayList<>();
+		
+		for(int row = 0; row < this.values.size(); row++) {
+			
+			if(row % this.chunkSize == 0) {
+				
+				zones.add(new FIQLZone(this.chunkSize));
+			}
+			
+			zones.get(zones.size() - 1).add(FIQLAccessors.read(this.values.get(row), selector));
+		}
+		
+		this.zones.put(selector, zones);
+	}
+	
+	/**
+	 * Adds an element and updates the zone maps.
+	 * @param value the element
+	 * @throws FIQLException if a value of the element could not be read
+	 * @since 2.1.0
+	 */
+	public void add(T value) throws FIQLException {
+		
+		int row = this.values.size();
+		
+		for(Map.Entry<String, List<FIQLZone>> entry : this.zones.entrySet()) {
+			
+			List<FIQLZone> zones = entry.getValue();
+			
+			if(row % this.chunkSize == 0) {
+				
+				zones.add(new FIQLZone(this.chunkSize));
+			}
+			
+			zones.get(zones.size() - 1).add(FIQLAccessors.read(value, entry.getKey()));
+		}
+		
+		this.values.add(value);
+	}
+	
+	/**
+	 * Adds elements and updates the zone maps.
+	 * @param values the elements
+	 * @throws FIQLException if a value of one of the elements could not be read
+	 * @since 2.1.0
+	 */
+	public void addAll(Iterable<? extends T> values) throws FIQLException {
+		
+		for(T value : values) {
+			
+			this.add(value);
+		}
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against this collection.
+	 * The FIQL-Query is taken from {@link FIQL#getCache()}.
+	 * @param fiql FIQL-Query
+	 * @return all filtered elements in the order they were added
+	 * @throws FIQLException if something is wrong with the FIQL-Query or it could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public List<T> filter(String fiql) throws FIQLException {
+		
+		return this.filter(FIQL.getCache().get(fiql));
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against this collection, skipping the chunks that cannot match.
+	 * @param query the FIQL-Query
+	 * @return all filtered elements in the order they were added
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public List<T> filter(FIQLQuery query) throws FIQLException {
+		
+		List<T> filtered = new ArrayList<>();
+		
+		for(int chunk = 0; chunk < this.getChunkCount(); chunk++) {
+			
+			if(this.mayMatch(query.getRoot(), chunk)) {
+				
+				for(T value : this.getChunk(chunk)) {
+					
+					if(query.test(value)) {
+						
+						filtered.add(value);
+					}
+				}
+			}
+		}
+		
+		return filtered;
+	}
+	
+	/**
+	 * @param node a node of a FIQL-Query
+	 * @param chunk the chunk
+	 * @return {@code false} if the zone maps prove that the node is {@code false} for all elements in the chunk
+	 * @since 2.1.0
+	 */
+	boolean mayMatch(FIQLNode node, int chunk) {
+		
+		if(node instanceof FIQLAnd) {
+			
+			for(FIQLNode child : ((FIQLAnd)node).children) {
+				
+				if(!this.mayMatch(child, chunk)) {
+					
+					return false;
+				}
+			}
+			
+			return true;
+		
+		} else if(node instanceof FIQLOr) {
+			
+			for(FIQLNode child : ((FIQLOr)node).children) {
+				
+				if(this.mayMatch(child, chunk)) {
+					
+					return true;
+				}
+			}
+			
+			return false;
+		
+		} else if(node instanceof FIQLComparison) {
+			
+			List<FIQLZone> zones = this.zones.get(((FIQLComparison)node).selector);
+			return zones == null || zones.get(chunk).mayMatch((FIQLComparison)node);
+		}
+		
+		return ((FIQLConstant)node).value;
+	}
+	
+	/**
+	 * @param chunk the chunk
+	 * @return the elements of the chunk
+	 * @since 2.1.0
+	 */
+	List<T> getChunk(int chunk) {
+		
+		return this.values.subList(chunk * this.chunkSize, Math.min((chunk + 1) * this.chunkSize, this.values.size()));
+	}
+	
+	/**
+	 * @return the number of chunks
+	 * @since 2.1.0
+	 */
+	public int getChunkCount() {
+		
+		return (this.values.size() + this.chunkSize - 1) / this.chunkSize;
+	}
+	
+	/**
+	 * @return the number of elements per chunk
+	 * @since 2.1.0
+	 */
+	public int getChunkSize() {
+		
+		return this.chunkSize;
+	}
+	
+	/**
+	 * @param row the row
+	 * @return the element in the given row
+	 * @throws IndexOutOfBoundsException if the row does not exist
+	 * @since 2.1.0
+	 */
+	public T get(int row) {
+		
+		return this.values.get(row);
+	}
+	
+	/**
+	 * @return the number of elements
+	 * @since 2.1.0
+	 */
+	public int size() {
+		
+		return this.values.size();
+	}
+	
+	@Override
+	public Iterator<T> iterator() {
+		
+		return Collections.unmodifiableList(this.values).iterator();
+	}
+}
@@ -0,0 +1,687 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A column of a {@linkplain FIQLTable}.
+ * The values are stored in primitive arrays and a comparison is evaluated for 64 rows at a time, producing a word of a selection bitmap.
+ * Rows are selected by setting their bits in {@code long} words, row {@code r} being bit {@code r % 64} of word {@code r / 64}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+abstract class FIQLColumn {
+	
+	private static final long[] EMPTY = {1L, 0L};
+	
+	final String selector;
+	int size;
+	long[] nulls = new long[0];
+	
+	/**
+	 * @param selector the selector
+	 * @since 2.1.0
+	 */
+	FIQLColumn(String selector) {
+		
+		this.selector = selector;
+	}
+	
+	/**
+	 * Appends a value.
+	 * @param value the value, which has to be {@linkplain #check(Object) checked} before
+	 * @since 2.1.0
+	 */
+	final void add(Object value) {
+		
+		int row = this.size;
+		
+		if(row == this.capacity()) {
+			
+			this.grow(Math.max(64, row * 2));
+			this.nulls = Arrays.copyOf(this.nulls, (this.capacity() + 63) >>> 6);
+		}
+		
+		if(value == null) {
+			
+			this.nulls[row >>> 6] |= 1L << row;
+		
+		} else {
+			
+			this.set(row, value);
+		}
+		
+		this.size++;
+	}
+	
+	/**
+	 * @param row the row
+	 * @return the value in the given row, which may be {@code null}
+	 * @since 2.1.0
+	 */
+	final Object get(int row) {
+		
+		return (this.nulls[row >>> 6] & 1L << row) != 0 ? null : this.getValue(row);
+	}
+	
+	/**
+	 * Evaluates a comparison for the selected rows.
+	 * Falls back to evaluating the rows one by one if the literal cannot be compared with the values of this column, so that the
+	 * same exception is thrown as by {@linkplain FIQLQuery#test(Object)}.
+	 * @param comparison the comparison
+	 * @param selection the selected rows
+	 * @return the selected rows for which the comparison is {@code true}
+	 * @throws FIQLException if the comparison could not be evaluated against one of the selected values
+	 * @since 2.1.0
+	 */
+	final long[] evaluate(FIQLComparison comparison, long[] selection) throws FIQLException {
+		
+		long[] result = this.evaluateBatch(comparison, selection);
+		
+		if(result != null) {
+			
+			return result;
+		}
+		
+		result = new long[selection.length];
+		
+		for(int word = 0; word < selection.length; word++) {
+			
+			for(long bits = selection[word]; bits != 0; bits &= bits - 1) {
+				
+				int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+				
+				if(comparison.testValue(this.get(row))) {
+					
+					result[word] |= 1L << row;
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @param value the value
+	 * @throws FIQLException if the value cannot be stored in this column
+	 * @since 2.1.0
+	 */
+	abstract void check(Object value) throws FIQLException;
+	
+	/**
+	 * @param row the row
+	 * @param value the value, which is not {@code null}
+	 * @since 2.1.0
+	 */
+	abstract void set(int row, Object value);
+	
+	/**
+	 * @param row the row, which is not {@code null}
+	 * @return the value in the given row
+	 * @since 2.1.0
+	 */
+	abstract Object getValue(int row);
+	
+	/**
+	 * @return the number of rows that fit into the arrays
+	 * @since 2.1.0
+	 */
+	abstract int capacity();
+	
+	/**
+	 * @param capacity the new number of rows that fit into the arrays
+	 * @since 2.1.0
+	 */
+	abstract void grow(int capacity);
+	
+	/**
+	 * @param comparison the comparison
+	 * @param selection the selected rows
+	 * @return the selected rows for which the comparison is {@code true} or {@code null} if they have to be evaluated one by one
+	 * @throws FIQLException if the comparison could not be evaluated
+	 * @since 2.1.0
+	 */
+	abstract long[] evaluateBatch(FIQLComparison comparison, long[] selection) throws FIQLException;
+	
+	/**
+	 * @param comparison the comparison
+	 * @return the result of the comparison for {@code null}
+	 * @throws FIQLException if the comparison could not be evaluated
+	 * @since 2.1.0
+	 */
+	static final boolean testNull(FIQLComparison comparison) throws FIQLException {
+		
+		return comparison.testValue(null);
+	}
+	
+	/**
+	 * Orders the keys of a column relative to a literal.
+	 * The order has to be monotone, so that all keys for which it is {@code -1} come before the keys for which it is {@code 0},
+	 * which come before those for which it is {@code 1}.
+	 * @since 2.1.0
+	 */
+	@FunctionalInterface
+	static interface Order {
+		
+		/**
+		 * @param key the key
+		 * @return {@code -1}, {@code 0} or {@code 1} if the key is smaller than, equal to or greater than the literal, or
+		 * {@link FIQLNumber#UNORDERED}
+		 * @since 2.1.0
+		 */
+		public int compare(long key);
+	}
+	
+	/**
+	 * Computes the interval of keys for which the non negated comparison is {@code true}.
+	 * The bounds are found with a binary search, so that they agree with the scalar comparison even where numbers are rounded.
+	 * @param operator the operator
+	 * @param from the order relative to the literal, or the start of the range
+	 * @param to the order relative to the literal, or the end of the range
+	 * @param min the smallest key
+	 * @param max the greatest key
+	 * @return the first and the last key of the interval, the first being greater than the last if the interval is empty
+	 * @since 2.1.0
+	 */
+	static final long[] interval(FIQLOperator operator, Order from, Order to, long min, long max) {
+		
+		if(from.compare(min) == FIQLNumber.UNORDERED || to.compare(min) == FIQLNumber.UNORDERED) {
+			
+			return FIQLColumn.EMPTY;
+		}
+		
+		long first = min;
+		long last = max;
+		
+		if(operator.isEquality() || operator == FIQLOperator.GREATER_THAN_OR_EQUAL_TO || operator == FIQLOperator.GREATER_THAN) {
+			
+			int threshold = operator == FIQLOperator.GREATER_THAN ? 1 : 0;
+			
+			if(from.compare(max) < threshold) {
+				
+				return FIQLColumn.EMPTY;
+			}
+			
+			first = FIQLColumn.first(from, threshold, min, max);
+		}
+		
+		if(operator.isEquality() || operator == FIQLOperator.SMALLER_THAN_OR_EQUAL_TO || operator == FIQLOperator.SMALLER_THAN) {
+			
+			int threshold = operator == FIQLOperator.SMALLER_THAN ? 0 : 1;
+			
+			if(to.compare(max) >= threshold) {
+				
+				long above = FIQLColumn.first(to, threshold, min, max);
+				
+				if(above == min) {
+					
+					return FIQLColumn.EMPTY;
+				}
+				
+				last = above - 1;
+			}
+		}
+		
+		return new long[] {first, last};
+	}
+	
+	/**
+	 * @param comparison the comparison
+	 * @return the number the values are compared with, twice, or the start and the end of the range, or {@code null} if the literal
+	 * is not a number or a range of numbers
+	 * @since 2.1.0
+	 */
+	static final FIQLNumber[] bounds(FIQLComparison comparison) {
+		
+		FIQLLiteral literal = comparison.literal;
+		FIQLNumber from = literal.number;
+		FIQLNumber to = literal.number;
+		
+		if(comparison.operator.isEquality() && literal.range != null) {
+			
+			if(!literal.isRange()) {
+				
+				return null;
+			}
+			
+			from = literal.numberFrom;
+			to = literal.numberTo;
+		}
+		
+		return from.isValid() && to.isValid() ? new FIQLNumber[] {from, to} : null;
+	}
+	
+	// The order at the greatest key has to be at least the threshold.
+	private static final long first(Order order, int threshold, long min, long max) {
+		
+		long low = min;
+		long high = max;
+		
+		while(low < high) {
+			
+			// Unsigned, because the difference of two longs may not fit into a long.
+			long middle = low + ((high - low) >>> 1);
+			
+			if(order.compare(middle) >= threshold) {
+				
+				high = middle;
+			
+			} else {
+				
+				low = middle + 1;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Combines the bits of a word with the null values and the selection.
+	 * @param bits the bits of the non {@code null} values for which the non negated comparison is {@code true}
+	 * @param word the index of the word
+	 * @param selected the selected rows of the word
+	 * @param negated {@code true} if the comparison is negated
+	 * @param nullResult the result of the comparison for {@code null}
+	 * @return the selected rows of the word for which the comparison is {@code true}
+	 * @since 2.1.0
+	 */
+	final long combine(long bits, int word, long selected, boolean negated, boolean nullResult) {
+		
+		long nulls = this.nulls[word];
+		return ((negated ? ~bits : bits) & ~nulls | (nullResult ? nulls : 0L)) & selected;
+	}
+	
+	/**
+	 * A column of {@code long} values, which are either integers or dates in milliseconds since 1970-01-01T00:00:00Z.
+	 * @since 2.1.0
+	 */
+	static final class Longs extends FIQLColumn {
+		
+		private final boolean dates;
+		private long[] values = new long[0];
+		
+		/**
+		 * @param selector the selector
+		 * @param dates {@code true} if the values are dates
+		 * @since 2.1.0
+		 */
+		Longs(String selector, boolean dates) {
+			
+			super(selector);
+			this.dates = dates;
+		}
+		
+		@Override
+		void check(Object value) throws FIQLException {
+			
+			if(value != null && (this.dates ? !FIQLLiteral.isTime(value) : !(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte))) {
+				
+				throw new FIQLException("The value '" + value + "' of the selector '" + this.selector + "' is not " + (this.dates ? "a date!" : "an integer!"));
+			}
+		}
+		
+		@Override
+		void set(int row, Object value) {
+			
+			this.values[row] = this.dates ? FIQLLiteral.toTime(value) : ((Number)value).longValue();
+		}
+		
+		@Override
+		Object getValue(int row) {
+			
+			return this.dates ? (Object)Instant.ofEpochMilli(this.values[row]) : (Object)this.values[row];
+		}
+		
+		@Override
+		int capacity() {
+			
+			return this.values.length;
+		}
+		
+		@Override
+		void grow(int capacity) {
+			
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+		
+		@Override
+		long[] evaluateBatch(FIQLComparison comparison, long[] selection) throws FIQLException {
+			
+			long[] interval = this.dates ? this.timeInterval(comparison) : Longs.numberInterval(comparison);
+			
+			if(interval == null) {
+				
+				return null;
+			}
+			
+			long first = interval[0];
+			long last = interval[1];
+			boolean negated = comparison.operator.isNegated();
+			boolean nullResult = FIQLColumn.testNull(comparison);
+			long[] values = this.values;
+			long[] result = new long[selection.length];
+			
+			for(int word = 0; word < selection.length; word++) {
+				
+				long selected = selection[word];
+				
+				if(selected != 0) {
+					
+					int offset = word << 6;
+					int end = Math.min(64, this.size - offset);
+					long bits = 0;
+					
+					for(int bit = 0; bit < end; bit++) {
+						
+						long value = values[offset + bit];
+						bits |= (first <= value & value <= last ? 1L : 0L) << bit;
+					}
+					
+					result[word] = this.combine(bits, word, selected, negated, nullResult);
+				}
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * @param comparison the comparison
+		 * @return the first and the last integer for which the non negated comparison is {@code true}, the first being greater
+		 * than the last if there is none, or {@code null} if the literal cannot be compared with integers
+		 * @since 2.1.0
+		 */
+		static final long[] numberInterval(FIQLComparison comparison) {
+			
+			FIQLNumber[] bounds = FIQLColumn.bounds(comparison);
+			
+			if(bounds == null) {
+				
+				return null;
+			}
+			
+			return FIQLColumn.interval(comparison.operator, key -> bounds[0].compareValid(key), key -> bounds[1].compareValid(key), Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+		
+		private final long[] timeInterval(FIQLComparison comparison) {
+			
+			FIQLLiteral literal = comparison.literal;
+			long from = literal.time;
+			long to = literal.time;
+			
+			if(comparison.operator.isEquality() && literal.range != null) {
+				
+				if(!literal.hasTimeRange()) {
+					
+					return null;
+				}
+				
+				from = literal.timeFrom;
+				to = literal.timeTo;
+			
+			} else if(!literal.hasTime()) {
+				
+				return null;
+			}
+			
+			long start = from;
+			long end = to;
+			return FIQLColumn.interval(comparison.operator, key -> Long.compare(key, start), key -> Long.compare(key, end), Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+	}
+	
+	/**
+	 * A column of {@code double} values.
+	 * @since 2.1.0
+	 */
+	static final class Doubles extends FIQLColumn {
+		
+		private static final long MIN_KEY = Doubles.toKey(Double.NEGATIVE_INFINITY);
+		private static final long MAX_KEY = Doubles.toKey(Double.POSITIVE_INFINITY);
+		
+		private double[] values = new double[0];
+		
+		/**
+		 * @param selector the selector
+		 * @since 2.1.0
+		 */
+		Doubles(String selector) {
+			
+			super(selector);
+		}
+		
+		// Maps the doubles to longs with the same order, so that the binary search can walk through every single double.
+		private static final long toKey(double value) {
+			
+			long bits = Double.doubleToRawLongBits(value);
+			return bits ^ (bits >> 63) & Long.MAX_VALUE;
+		}
+		
+		private static final double toDouble(long key) {
+			
+			return Double.longBitsToDouble(key ^ (key >> 63) & Long.MAX_VALUE);
+		}
+		
+		@Override
+		void check(Object value) throws FIQLException {
+			
+			if(value != null && !(value instanceof Number)) {
+				
+				throw new FIQLException("The value '" + value + "' of the selector '" + this.selector + "' is not a number!");
+			}
+		}
+		
+		@Override
+		void set(int row, Object value) {
+			
+			this.values[row] = ((Number)value).doubleValue();
+		}
+		
+		@Override
+		Object getValue(int row) {
+			
+			return this.values[row];
+		}
+		
+		@Override
+		int capacity() {
+			
+			return this.values.length;
+		}
+		
+		@Override
+		void grow(int capacity) {
+			
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+		
+		/**
+		 * @param comparison the comparison
+		 * @return the first and the last number for which the non negated comparison is {@code true}, the first being {@code NaN}
+		 * if there is none, or {@code null} if the literal cannot be compared with numbers
+		 * @since 2.1.0
+		 */
+		static final double[] numberInterval(FIQLComparison comparison) {
+			
+			FIQLNumber[] bounds = FIQLColumn.bounds(comparison);
+			
+			if(bounds == null) {
+				
+				return null;
+			}
+			
+			long[] interval = FIQLColumn.interval(comparison.operator, key -> bounds[0].compareValid(Doubles.toDouble(key)), key -> bounds[1].compareValid(Doubles.toDouble(key)), Doubles.MIN_KEY, Doubles.MAX_KEY);
+			
+			// NaN is never inside of the interval, just like it is neither smaller, equal nor greater than any number.
+			return new double[] {interval[0] <= interval[1] ? Doubles.toDouble(interval[0]) : Double.NaN, Doubles.toDouble(interval[1])};
+		}
+		
+		@Override
+		long[] evaluateBatch(FIQLComparison comparison, long[] selection) throws FIQLException {
+			
+			double[] interval = Doubles.numberInterval(comparison);
+			
+			if(interval == null) {
+				
+				return null;
+			}
+			
+			double first = interval[0];
+			double last = interval[1];
+			boolean negated = comparison.operator.isNegated();
+			boolean nullResult = FIQLColumn.testNull(comparison);
+			double[] values = this.values;
+			long[] result = new long[selection.length];
+			
+			for(int word = 0; word < selection.length; word++) {
+				
+				long selected = selection[word];
+				
+				if(selected != 0) {
+					
+					int offset = word << 6;
+					int end = Math.min(64, this.size - offset);
+					long bits = 0;
+					
+					for(int bit = 0; bit < end; bit++) {
+						
+						double value = values[offset + bit];
+						bits |= (first <= value & value <= last ? 1L : 0L) << bit;
+					}
+					
+					result[word] = this.combine(bits, word, selected, negated, nullResult);
+				}
+			}
+			
+			return result;
+		}
+	}
+	
+	/**
+	 * A column of strings, which are stored as codes of a dictionary.
+	 * A comparison is evaluated once for every distinct string and then looked up by the code of each row.
+	 * @since 2.1.0
+	 */
+	static final class Strings extends FIQLColumn {
+		
+		// The code 0 stands for null, which is also the value of the rows that were never set.
+		private final List<String> dictionary = new ArrayList<>();
+		private final Map<String, Integer> codes = new HashMap<>();
+		private int[] values = new int[0];
+		
+		/**
+		 * @param selector the selector
+		 * @since 2.1.0
+		 */
+		Strings(String selector) {
+			
+			super(selector);
+			this.dictionary.add(null);
+		}
+		
+		@Override
+		void check(Object value) throws FIQLException {
+			
+			if(value instanceof Number || value instanceof Iterable || FIQLLiteral.isTime(value)) {
+				
+				throw new FIQLException("The value '" + value + "' of the selector '" + this.selector + "' is not a string!");
+			}
+		}
+		
+		@Override
+		void set(int row, Object value) {
+			
+			String string = value.toString();
+			Integer code = this.codes.get(string);
+			
+			if(code == null) {
+				
+				code = this.dictionary.size();
+				this.dictionary.add(string);
+				this.codes.put(string, code);
+			}
+			
+			this.values[row] = code;
+		}
+		
+		@Override
+		Object getValue(int row) {
+			
+			return this.dictionary.get(this.values[row]);
+		}
+		
+		@Override
+		int capacity() {
+			
+			return this.values.length;
+		}
+		
+		@Override
+		void grow(int capacity) {
+			
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+		
+		@Override
+		long[] evaluateBatch(FIQLComparison comparison, long[] selection) throws FIQLException {
+			
+			boolean[] matches = new boolean[this.dictionary.size()];
+			
+			for(int code = 0; code < matches.length; code++) {
+				
+				matches[code] = comparison.testValue(this.dictionary.get(code));
+			}
+			
+			int[] values = this.values;
+			long[] result = new long[selection.length];
+			
+			for(int word = 0; word < selection.length; word++) {
+				
+				long selected = selection[word];
+				
+				if(selected != 0) {
+					
+					int offset = word << 6;
+					int end = Math.min(64, this.size - offset);
+					long bits = 0;
+					
+					for(int bit = 0; bit < end; bit++) {
+						
+						bits |= (matches[values[offset + bit]] ? 1L : 0L) << bit;
+					}
+					
+					result[word] = bits & selected;
+				}
+			}
+			
+			return result;
+		}
+	}
+}
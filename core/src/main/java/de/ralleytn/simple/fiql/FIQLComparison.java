@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * Node for the comparison of a selector with an expression.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLComparison extends FIQLNode {
+	
+	final String selector;
+	final int slot;
+	final FIQLOperator operator;
+	final FIQLLiteral literal;
+	
+	/**
+	 * @param selector the selector
+	 * @param slot the index of the selector in {@linkplain FIQLQuery#getSelectors()}
+	 * @param operator the operator
+	 * @param literal the expression
+	 * @since 2.1.0
+	 */
+	FIQLComparison(String selector, int slot, FIQLOperator operator, FIQLLiteral literal) {
+		
+		this.selector = selector;
+		this.slot = slot;
+		this.operator = operator;
+		this.literal = literal;
+	}
+	
+	@Override
+	boolean test(FIQLContext context) throws FIQLException {
+		
+		return this.testValue(context.get(this.selector, this.slot));
+	}
+	
+	/**
+	 * Evaluates this comparison against a value of its selector.
+	 * @param value the value, which may be {@code null}
+	 * @return {@code true}, if the comparison is positive, else {@code false}
+	 * @throws FIQLException if the literal cannot be compared with the value
+	 * @since 2.1.0
+	 */
+	boolean testValue(Object value) throws FIQLException {
+		
+		if(this.operator.isEquality()) {
+			
+			return this.operator.isNegated() != this.testEquals(value);
+		}
+		
+		if(value instanceof Iterable) {
+			
+			for(Object element : (Iterable<?>)value) {
+				
+				if(this.testRelation(element)) {
+					
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		return this.testRelation(value);
+	}
+	
+	/**
+	 * Compares a value like the operators {@code ==} and {@code =#=} do, ignoring whether the operator is negated.
+	 * @param value the value of the selector
+	 * @return {@code true} if the value is equal to the expression
+	 * @throws FIQLException if the value could not be compared with the expression
+	 * @since 2.1.0
+	 */
+	boolean testEquals(Object value) throws FIQLException {
+		
+		if(this.literal.isEmpty() && value instanceof String) {
+			
+			return ((String)value).isEmpty();
+		
+		} else if(value instanceof Iterable) {
+			
+			for(Object element : (Iterable<?>)value) {
+				
+				if(this.testEqualsElement(element)) {
+					
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		return this.testEqualsElement(value);
+	}
+	
+	private final boolean testEqualsElement(Object value) throws FIQLException {
+		
+		if(value == null) {
+			
+			return this.literal.value.equals("null");
+		
+		} else if(value instanceof Number) {
+			
+			Number number = (Number)value;
+			
+			if(this.literal.range != null) {
+				
+				this.checkRange();
+				int from = this.literal.numberFrom.compare(number);
+				return from >= 0 && from != FIQLNumber.UNORDERED && this.literal.numberTo.compare(number) <= 0;
+			}
+			
+			return this.literal.number.compare(number) == 0;
+		
+		} else if(FIQLLiteral.isTime(value)) {
+			
+			long time = FIQLLiteral.toTime(value, this.literal.zone);
+			
+			if(this.literal.range != null) {
+				
+				this.checkRange();
+				return time >= this.literal.getTimeFrom() && time <= this.literal.getTimeTo();
+			}
+			
+			return time == this.literal.getTime();
+		}
+		
+		return this.literal.matches(value.toString());
+	}
+	
+	private final boolean testRelation(Object value) throws FIQLException {
+		
+		if(value instanceof Number) {
+			
+			return this.testRelation(this.literal.number.compare((Number)value));
+		
+		} else if(FIQLLiteral.isTime(value)) {
+			
+			return this.testRelation(Long.compare(FIQLLiteral.toTime(value, this.literal.zone), this.literal.getTime()));
+		}
+		
+		return false;
+	}
+	
+	private final boolean testRelation(int comparison) {
+		
+		       if(comparison == FIQLNumber.UNORDERED)                     {return false;
+		} else if(this.operator == FIQLOperator.GREATER_THAN_OR_EQUAL_TO) {return comparison >= 0;
+		} else if(this.operator == FIQLOperator.SMALLER_THAN_OR_EQUAL_TO) {return comparison <= 0;
+		} else if(this.operator == FIQLOperator.GREATER_THAN)             {return comparison > 0;
+		} else                                                            {return comparison < 0;
+		}
+	}
+	
+	private final String[] checkRange() throws FIQLException {
+		
+		String[] range = this.literal.range;
+		
+		if(range.length != 2 || range[0].isEmpty()) {
+			
+			throw new FIQLException("The range expression for the selector '" + this.selector + "' is incorrectly formatted!");
+		}
+		
+		return range;
+	}
+}
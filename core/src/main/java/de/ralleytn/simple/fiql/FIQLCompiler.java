@@ -0,0 +1,289 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Compiles a {@linkplain FIQLQuery} for a single class into a {@linkplain MethodHandle} that is evaluated by a {@linkplain FIQLPredicate}.
+ * The {@linkplain MethodHandle} is composed of the unreflected getters and compares integers, floating point numbers and booleans
+ * with constants, without boxing them. The bounds of the constants are computed like for a {@linkplain FIQLTable}, so the results are
+ * the same as those of the interpreter. All other comparisons are passed to the interpreter with the value of their getter.
+ * <p>
+ * No class is defined for a FIQL-Query, so a compiled FIQL-Query can be garbage collected like any other object.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLCompiler {
+	
+	private static final Logger LOGGER = System.getLogger(FIQLCompiler.class.getName());
+	private static final int MAX_DEPTH = 64;
+	private static final MethodHandle LONGS;
+	private static final MethodHandle DOUBLES;
+	private static final MethodHandle NOT;
+	private static final MethodHandle TEST;
+	private static final MethodHandle EXCEPTION;
+	
+	static {
+		
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		
+		try {
+			
+			LONGS = lookup.findStatic(FIQLCompiler.class, "inside", MethodType.methodType(boolean.class, long.class, long.class, long.class, boolean.class));
+			DOUBLES = lookup.findStatic(FIQLCompiler.class, "inside", MethodType.methodType(boolean.class, double.class, double.class, double.class, boolean.class));
+			NOT = lookup.findStatic(FIQLCompiler.class, "not", MethodType.methodType(boolean.class, boolean.class));
+			TEST = lookup.findVirtual(FIQLComparison.class, "testValue", MethodType.methodType(boolean.class, Object.class));
+			EXCEPTION = lookup.findConstructor(FIQLException.class, MethodType.methodType(void.class, Exception.class));
+		
+		} catch(ReflectiveOperationException exception) {
+			
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+	
+	private final MethodHandle[] getters;
+	
+	private FIQLCompiler(MethodHandle[] getters) {
+		
+		this.getters = getters;
+	}
+	
+	/**
+	 * Compiles a FIQL-Query for a class.
+	 * If the class cannot be compiled, a {@linkplain FIQLPredicate} that only uses the interpreter is returned instead.
+	 * @param query the FIQL-Query
+	 * @param type the class
+	 * @param <T> the type
+	 * @return the {@linkplain Predicate}
+	 * @since 2.1.0
+	 */
+	static final <T>Predicate<T> compile(FIQLQuery query, Class<T> type) {
+		
+		MethodHandle[] getters = FIQLCompiler.getters(type, query.bind(type));
+		
+		if(getters != null) {
+			
+			try {
+				
+				return new FIQLPredicate<>(query, type, new FIQLCompiler(getters).handle(query.getRoot(), 0));
+			
+			} catch(IllegalStateException exception) {
+				
+				// The interpreter evaluates deeply nested FIQL-Queries with less stack.
+				FIQLCompiler.LOGGER.log(Level.DEBUG, "The FIQL-Query \"" + query + "\" is evaluated by the interpreter: " + exception.getMessage());
+			}
+		}
+		
+		return new FIQLPredicate<>(query, type, null);
+	}
+	
+	private static final MethodHandle[] getters(Class<?> type, FIQLAccessor[] accessors) {
+		
+		if(type.isPrimitive() || type.isArray() || Map.class.isAssignableFrom(type)) {
+			
+			return null;
+		}
+		
+		MethodHandle[] getters = new MethodHandle[accessors.length];
+		
+		for(int slot = 0; slot < accessors.length; slot++) {
+			
+			FIQLAccessor accessor = accessors[slot];
+			
+			if(accessor != null) {
+				
+				// Accessors from a FIQLAccessorProvider have no method, but the annotated getter can be unreflected anyway.
+				Method getter = accessor.method != null ? accessor.method : FIQLCompiler.find(type, accessor.selector);
+				
+				if(getter == null || !accessor.isAccessible() || getter.getParameterCount() > 0 || getter.getReturnType() == void.class) {
+					
+					return null;
+				}
+				
+				try {
+					
+					getters[slot] = FIQLCompiler.wrap(FIQLAccessor.unreflect(getter));
+				
+				} catch(IllegalAccessException exception) {
+					
+					return null;
+				}
+			}
+		}
+		
+		return getters;
+	}
+	
+	private static final Method find(Class<?> type, String selector) {
+		
+		for(Method method : type.getMethods()) {
+			
+			FIQLValue value = method.getAnnotation(FIQLValue.class);
+			
+			if(value != null && value.value().equals(selector) && !Modifier.isStatic(method.getModifiers())) {
+				
+				return method;
+			}
+		}
+		
+		return null;
+	}
+	
+	// Exceptions of the getters are wrapped like they are by the interpreter.
+	private static final MethodHandle wrap(MethodHandle getter) {
+		
+		Class<?> returnType = getter.type().returnType();
+		MethodHandle handle = getter.asType(MethodType.methodType(returnType, Object.class));
+		MethodHandle fail = MethodHandles.filterArguments(MethodHandles.throwException(returnType, FIQLException.class), 0, FIQLCompiler.EXCEPTION.asType(MethodType.methodType(FIQLException.class, Exception.class)));
+		return MethodHandles.catchException(handle, Exception.class, MethodHandles.dropArguments(fail, 1, Object.class));
+	}
+	
+	private final MethodHandle handle(FIQLNode node, int depth) {
+		
+		if(depth > FIQLCompiler.MAX_DEPTH) {
+			
+			throw new IllegalStateException("The FIQL-Query is nested too deeply!");
+		
+		} else if(node instanceof FIQLAnd || node instanceof FIQLOr) {
+			
+			FIQLNode[] children = node instanceof FIQLAnd ? ((FIQLAnd)node).children : ((FIQLOr)node).children;
+			return this.combine(children, 0, children.length, node instanceof FIQLOr, depth + 1);
+		
+		} else if(node instanceof FIQLComparison) {
+			
+			return this.handle((FIQLComparison)node);
+		}
+		
+		return FIQLCompiler.constant(((FIQLConstant)node).value);
+	}
+	
+	// Combines the children in a balanced tree, so that long lists of alternatives do not nest deeply.
+	private final MethodHandle combine(FIQLNode[] children, int from, int to, boolean or, int depth) {
+		
+		if(to - from == 1) {
+			
+			return this.handle(children[from], depth);
+		}
+		
+		int middle = (from + to) >>> 1;
+		MethodHandle first = this.combine(children, from, middle, or, depth + 1);
+		MethodHandle second = this.combine(children, middle, to, or, depth + 1);
+		
+		// An AND is false as soon as a child is false, an OR is true as soon as a child is true.
+		return or ? MethodHandles.guardWithTest(first, FIQLCompiler.constant(true), second) : MethodHandles.guardWithTest(first, second, FIQLCompiler.constant(false));
+	}
+	
+	private final MethodHandle handle(FIQLComparison comparison) {
+		
+		MethodHandle getter = this.getters[comparison.slot];
+		
+		if(getter == null) {
+			
+			return FIQLCompiler.constant(FIQLCompiler.constant(comparison, null));
+		}
+		
+		Class<?> returnType = getter.type().returnType();
+		boolean negated = comparison.operator.isNegated();
+		
+		if(returnType == long.class || returnType == int.class || returnType == short.class || returnType == byte.class) {
+			
+			long[] interval = FIQLColumn.Longs.numberInterval(comparison);
+			
+			if(interval != null) {
+				
+				MethodHandle inside = MethodHandles.insertArguments(FIQLCompiler.LONGS, 1, interval[0], interval[1], negated);
+				return MethodHandles.filterReturnValue(getter.asType(MethodType.methodType(long.class, Object.class)), inside);
+			}
+		
+		} else if(returnType == double.class || returnType == float.class) {
+			
+			double[] interval = FIQLColumn.Doubles.numberInterval(comparison);
+			
+			if(interval != null) {
+				
+				MethodHandle inside = MethodHandles.insertArguments(FIQLCompiler.DOUBLES, 1, interval[0], interval[1], negated);
+				return MethodHandles.filterReturnValue(getter.asType(MethodType.methodType(double.class, Object.class)), inside);
+			}
+		
+		} else if(returnType == boolean.class) {
+			
+			boolean whenTrue = FIQLCompiler.constant(comparison, Boolean.TRUE);
+			boolean whenFalse = FIQLCompiler.constant(comparison, Boolean.FALSE);
+			
+			if(whenTrue == whenFalse) {
+				
+				return FIQLCompiler.constant(whenTrue);
+			}
+			
+			return whenFalse ? MethodHandles.filterReturnValue(getter, FIQLCompiler.NOT) : getter;
+		}
+		
+		// Everything else is evaluated by the interpreter.
+		return MethodHandles.filterReturnValue(getter.asType(MethodType.methodType(Object.class, Object.class)), FIQLCompiler.TEST.bindTo(comparison));
+	}
+	
+	private static final MethodHandle constant(boolean value) {
+		
+		return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, Object.class);
+	}
+	
+	// Comparisons with null and booleans never throw exceptions.
+	private static final boolean constant(FIQLComparison comparison, Object value) {
+		
+		try {
+			
+			return comparison.testValue(value);
+		
+		} catch(FIQLException exception) {
+			
+			throw new IllegalStateException(exception);
+		}
+	}
+	
+	// NaN is never inside of an interval.
+	private static final boolean inside(double value, double first, double last, boolean negated) {
+		
+		return (first <= value && value <= last) != negated;
+	}
+	
+	private static final boolean inside(long value, long first, long last, boolean negated) {
+		
+		return (first <= value && value <= last) != negated;
+	}
+	
+	private static final boolean not(boolean value) {
+		
+		return !value;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * Is thrown by the {@code eval} methods in the {@linkplain FIQL} class.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 1.0.0
+ */
+public class FIQLException extends Exception {
+	
+	private static final long serialVersionUID = 4316746365211043134L;
+	
+	private final int position;
+	
+	/**
+	 * Creates a new {@linkplain Exception}.
+	 * @param message message of the exception
+	 * @since 1.0.0
+	 */
+	public FIQLException(String message) {
+		
+		super(message);
+		this.position = -1;
+	}
+	
+	/**
+	 * Creates a new {@linkplain Exception} that points to a position in the FIQL-Query.
+	 * @param message message of the exception
+	 * @param position the position in the FIQL-Query at which the error was found
+	 * @since 2.1.0
+	 */
+	public FIQLException(String message, int position) {
+		
+		super(message + " (position " + position + ")");
+		this.position = position;
+	}
+	
+	/**
+	 * Wraps an {@linkplain Exception}.
+	 * @param exception {@linkplain Exception} to wrap
+	 * @since 1.0.0
+	 */
+	public FIQLException(Exception exception) {
+		
+		super(exception);
+		this.position = -1;
+	}
+	
+	/**
+	 * Wraps an {@linkplain Exception} that was caused by the FIQL-Query at the given position.
+	 * @param exception {@linkplain Exception} to wrap
+	 * @param position the position in the FIQL-Query at which the error was found
+	 * @since 2.1.0
+	 */
+	public FIQLException(Exception exception, int position) {
+		
+		super(exception.toString() + " (position " + position + ")", exception);
+		this.position = position;
+	}
+	
+	/**
+	 * @return the position in the FIQL-Query at which the error was found or {@code -1} if it is unknown
+	 * @since 2.1.0
+	 */
+	public int getPosition() {
+		
+		return this.position;
+	}
+}
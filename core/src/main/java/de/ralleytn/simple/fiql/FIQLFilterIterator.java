@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * An {@linkplain Iterator} that only returns the elements of another {@linkplain Iterator} that a {@linkplain Predicate} accepts.
+ * The elements are evaluated one at a time, only when the next one is requested.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @param <T> the type of the elements
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLFilterIterator<T> implements Iterator<T> {
+	
+	private final Iterator<T> values;
+	private final Predicate<? super T> predicate;
+	private T next;
+	private boolean ready;
+	
+	/**
+	 * @param values the elements to filter
+	 * @param predicate the {@linkplain Predicate} that decides which elements are returned
+	 * @since 2.1.0
+	 */
+	FIQLFilterIterator(Iterator<T> values, Predicate<? super T> predicate) {
+		
+		this.values = values;
+		this.predicate = predicate;
+	}
+	
+	/**
+	 * @throws UncheckedFIQLException if the FIQL-Query could not be evaluated against an element
+	 */
+	@Override
+	public boolean hasNext() {
+		
+		while(!this.ready && this.values.hasNext()) {
+			
+			T value = this.values.next();
+			
+			if(this.predicate.test(value)) {
+				
+				this.next = value;
+				this.ready = true;
+			}
+		}
+		
+		return this.ready;
+	}
+	
+	/**
+	 * @throws UncheckedFIQLException if the FIQL-Query could not be evaluated against an element
+	 */
+	@Override
+	public T next() {
+		
+		if(!this.hasNext()) {
+			
+			throw new NoSuchElementException();
+		}
+		
+		T next = this.next;
+		this.next = null;
+		this.ready = false;
+		return next;
+	}
+}
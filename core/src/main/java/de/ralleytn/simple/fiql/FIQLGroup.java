@@ -0,0 +1,243 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of filtered elements with equal values for the group selectors of a {@linkplain FIQLAggregation}.
+ * The numbers of the measured selectors are aggregated in primitive accumulators while the elements are evaluated, so the elements
+ * themselves are not kept. Values that are not numbers, including {@code null}, are ignored by the aggregates, just like SQL does.
+ * Integers are summed up exactly as {@code long} as long as they fit into it. All other numbers are aggregated as {@code double}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLGroup {
+	
+	private final FIQLAggregation aggregation;
+	private final List<Object> key;
+	private long count;
+	private final long[] counts;
+	private final boolean[] decimals; // one of the numbers is not an integer
+	private final boolean[] overflows; // the sum of the integers does not fit into a long
+	private final long[] longSums;
+	private final long[] longMins;
+	private final long[] longMaxs;
+	private final double[] doubleSums;
+	private final double[] doubleMins;
+	private final double[] doubleMaxs;
+	
+	/**
+	 * @param aggregation the aggregation
+	 * @param key the values of the group selectors
+	 * @since 2.1.0
+	 */
+	FIQLGroup(FIQLAggregation aggregation, Object[] key) {
+		
+		int measures = aggregation.measureSelectors.length;
+		
+		this.aggregation = aggregation;
+		this.key = Collections.unmodifiableList(Arrays.asList(key));
+		this.counts = new long[measures];
+		this.decimals = new boolean[measures];
+		this.overflows = new boolean[measures];
+		this.longSums = new long[measures];
+		this.longMins = new long[measures];
+		this.longMaxs = new long[measures];
+		this.doubleSums = new double[measures];
+		this.doubleMins = new double[measures];
+		this.doubleMaxs = new double[measures];
+		Arrays.fill(this.longMins, Long.MAX_VALUE);
+		Arrays.fill(this.longMaxs, Long.MIN_VALUE);
+		Arrays.fill(this.doubleMins, Double.POSITIVE_INFINITY);
+		Arrays.fill(this.doubleMaxs, Double.NEGATIVE_INFINITY);
+	}
+	
+	/**
+	 * Adds an element to this group.
+	 * @param values the values of the measured selectors of the element
+	 * @since 2.1.0
+	 */
+	void add(Object[] values) {
+		
+		this.count++;
+		
+		for(int measure = 0; measure < values.length; measure++) {
+			
+			if(values[measure] instanceof Number) {
+				
+				Number number = (Number)values[measure];
+				
+				if(FIQLSort.isInteger(number)) {
+					
+					long value = number.longValue();
+					this.addLong(measure, value, value, value);
+				
+				} else {
+					
+					this.decimals[measure] = true;
+				}
+				
+				double value = number.doubleValue();
+				this.addDouble(measure, value, value, value);
+				this.counts[measure]++;
+			}
+		}
+	}
+	
+	/**
+	 * Adds all elements of another group with the same key, for example one that aggregated a different chunk.
+	 * @param other the other group
+	 * @since 2.1.0
+	 */
+	void merge(FIQLGroup other) {
+		
+		this.count += other.count;
+		
+		for(int measure = 0; measure < this.counts.length; measure++) {
+			
+			this.addLong(measure, other.longSums[measure], other.longMins[measure], other.longMaxs[measure]);
+			this.addDouble(measure, other.doubleSums[measure], other.doubleMins[measure], other.doubleMaxs[measure]);
+			this.counts[measure] += other.counts[measure];
+			this.decimals[measure] |= other.decimals[measure];
+			this.overflows[measure] |= other.overflows[measure];
+		}
+	}
+	
+	private final void addLong(int measure, long sum, long min, long max) {
+		
+		long longSum = this.longSums[measure] + sum;
+		
+		// Overflow if both summands have the same sign, but the result has a different one
+		if(((this.longSums[measure] ^ longSum) & (sum ^ longSum)) < 0) {
+			
+			this.overflows[measure] = true;
+		}
+		
+		this.longSums[measure] = longSum;
+		this.longMins[measure] = Math.min(this.longMins[measure], min);
+		this.longMaxs[measure] = Math.max(this.longMaxs[measure], max);
+	}
+	
+	private final void addDouble(int measure, double sum, double min, double max) {
+		
+		this.doubleSums[measure] += sum;
+		this.doubleMins[measure] = Math.min(this.doubleMins[measure], min);
+		this.doubleMaxs[measure] = Math.max(this.doubleMaxs[measure], max);
+	}
+	
+	/**
+	 * @return the values of the group selectors that all elements of this group share, in the order of the group selectors
+	 * @since 2.1.0
+	 */
+	public List<Object> getKey() {
+		
+		return this.key;
+	}
+	
+	/**
+	 * @return the number of elements in this group
+	 * @since 2.1.0
+	 */
+	public long getCount() {
+		
+		return this.count;
+	}
+	
+	/**
+	 * @param selector a measured selector
+	 * @return the number of elements in this group whose value for the selector is a number
+	 * @throws IllegalArgumentException if the selector is not measured
+	 * @since 2.1.0
+	 */
+	public long getCount(String selector) {
+		
+		return this.counts[this.aggregation.indexOf(selector)];
+	}
+	
+	/**
+	 * @param selector a measured selector
+	 * @return the sum of the numbers, a {@linkplain Long} if all of them are integers and the sum fits into a {@code long},
+	 * else a {@linkplain Double}
+	 * @throws IllegalArgumentException if the selector is not measured
+	 * @since 2.1.0
+	 */
+	public Number getSum(String selector) {
+		
+		int measure = this.aggregation.indexOf(selector);
+		return this.isDouble(measure) ? (Number)this.doubleSums[measure] : (Number)this.longSums[measure];
+	}
+	
+	/**
+	 * @param selector a measured selector
+	 * @return the smallest number, a {@linkplain Long} if all numbers are integers, else a {@linkplain Double},
+	 * or {@code null} if there are no numbers
+	 * @throws IllegalArgumentException if the selector is not measured
+	 * @since 2.1.0
+	 */
+	public Number getMin(String selector) {
+		
+		int measure = this.aggregation.indexOf(selector);
+		return this.counts[measure] == 0 ? null : (this.decimals[measure] ? (Number)this.doubleMins[measure] : (Number)this.longMins[measure]);
+	}
+	
+	/**
+	 * @param selector a measured selector
+	 * @return the greatest number, a {@linkplain Long} if all numbers are integers, else a {@linkplain Double},
+	 * or {@code null} if there are no numbers
+	 * @throws IllegalArgumentException if the selector is not measured
+	 * @since 2.1.0
+	 */
+	public Number getMax(String selector) {
+		
+		int measure = this.aggregation.indexOf(selector);
+		return this.counts[measure] == 0 ? null : (this.decimals[measure] ? (Number)this.doubleMaxs[measure] : (Number)this.longMaxs[measure]);
+	}
+	
+	/**
+	 * @param selector a measured selector
+	 * @return the average of the numbers or {@code NaN} if there are no numbers
+	 * @throws IllegalArgumentException if the selector is not measured
+	 * @since 2.1.0
+	 */
+	public double getAverage(String selector) {
+		
+		int measure = this.aggregation.indexOf(selector);
+		return (this.isDouble(measure) ? this.doubleSums[measure] : (double)this.longSums[measure]) / this.counts[measure];
+	}
+	
+	private final boolean isDouble(int measure) {
+		
+		return this.decimals[measure] || this.overflows[measure];
+	}
+	
+	@Override
+	public String toString() {
+		
+		return this.key + " (" + this.count + ")";
+	}
+}
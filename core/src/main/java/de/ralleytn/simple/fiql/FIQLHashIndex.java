@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index for the operators {@code ==}, {@code !=}, {@code =#=} and {@code !#=}.
+ * Maps each value to the rows it appears in.
+ * Strings are stored case folded, so that the index can be used with and without ignoring the case.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLHashIndex extends FIQLIndex {
+	
+	// Numbers are stored as Double, dates as Long and all other values as String, so that they can never be equal to each other.
+	private static final Object NULL = new Object();
+	
+	private final Map<Object, FIQLRows.Builder> rows = new HashMap<>();
+	
+	/**
+	 * @param selector the selector
+	 * @since 2.1.0
+	 */
+	FIQLHashIndex(String selector) {
+		
+		super(selector);
+	}
+	
+	private final void put(Object key, int row) {
+		
+		this.rows.computeIfAbsent(key, unused -> new FIQLRows.Builder()).add(row);
+	}
+	
+	@Override
+	void addNull(int row) {
+		
+		this.put(FIQLHashIndex.NULL, row);
+	}
+	
+	@Override
+	void addNumber(int row, double number) {
+		
+		this.put(number, row);
+	}
+	
+	@Override
+	void addTime(int row, long time) {
+		
+		this.put(time, row);
+	}
+	
+	@Override
+	void addOther(int row, String string) {
+		
+		this.put(FIQLLiteral.fold(string), row);
+	}
+	
+	@Override
+	int getPriority() {
+		
+		return 0;
+	}
+	
+	@Override
+	FIQLBitmap find(FIQLComparison comparison) {
+		
+		FIQLLiteral literal = comparison.literal;
+		
+		if(!comparison.operator.isEquality() || literal.range != null || literal.literals == null || !this.canCompare(literal)) {
+			
+			return null;
+		}
+		
+		List<Object> keys = new ArrayList<>();
+		
+		for(String alternative : literal.literals) {
+			
+			keys.add(FIQLLiteral.fold(alternative));
+		}
+		
+		if(literal.value.equals("null")) {
+			
+			keys.add(FIQLHashIndex.NULL);
+		}
+		
+		if(this.numbers && !Double.isNaN(literal.number.doubleValue())) {
+			
+			double number = literal.number.doubleValue();
+			keys.add(number == 0.0 ? 0.0 : number);
+		}
+		
+		if(this.times) {
+			
+			keys.add(literal.time);
+		}
+		
+		FIQLRows.Builder found = new FIQLRows.Builder();
+		
+		for(Object key : keys) {
+			
+			FIQLRows.Builder rows = this.rows.get(key);
+			
+			if(rows != null) {
+				
+				found.addAll(rows.array(), 0, rows.size());
+			}
+		}
+		
+		return found.build();
+	}
+}
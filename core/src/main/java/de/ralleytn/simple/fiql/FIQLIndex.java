@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * An index over the values of one selector in a {@linkplain FIQLIndexedCollection}.
+ * The values of {@linkplain Iterable}s are indexed element by element.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+abstract class FIQLIndex extends FIQLValueSink {
+	
+	final String selector;
+	private int row; // the row of the value that is being added
+	
+	/**
+	 * @param selector the selector
+	 * @since 2.1.0
+	 */
+	FIQLIndex(String selector) {
+		
+		this.selector = selector;
+	}
+	
+	/**
+	 * Adds the value of a row to the index.
+	 * Rows have to be added in ascending order.
+	 * @param row the row
+	 * @param value the value of the selector in that row
+	 * @since 2.1.0
+	 */
+	final void add(int row, Object value) {
+		
+		this.row = row;
+		this.add(value);
+	}
+	
+	@Override
+	final void addNull() {
+		
+		this.addNull(this.row);
+	}
+	
+	@Override
+	final void addNumber(double number) {
+		
+		this.addNumber(this.row, number);
+	}
+	
+	@Override
+	final void addTime(long time) {
+		
+		this.addTime(this.row, time);
+	}
+	
+	@Override
+	final void addOther(String string) {
+		
+		this.addOther(this.row, string);
+	}
+	
+	/**
+	 * @param row the row
+	 * @since 2.1.0
+	 */
+	abstract void addNull(int row);
+	
+	/**
+	 * @param row the row
+	 * @param number the number, neither {@code NaN} nor {@code -0.0}
+	 * @since 2.1.0
+	 */
+	abstract void addNumber(int row, double number);
+	
+	/**
+	 * @param row the row
+	 * @param time the date in milliseconds
+	 * @since 2.1.0
+	 */
+	abstract void addTime(int row, long time);
+	
+	/**
+	 * @param row the row
+	 * @param string the value as string
+	 * @since 2.1.0
+	 */
+	abstract void addOther(int row, String string);
+	
+	/**
+	 * @return the order in which the indexes of a selector are asked, lower first. Indexes that find fewer rows come first.
+	 * @since 2.1.0
+	 */
+	abstract int getPriority();
+	
+	/**
+	 * Looks up the rows for which a comparison may be {@code true}, ignoring whether its operator is negated.
+	 * The returned rows have to be tested again, they only contain at least all rows for which the comparison is {@code true}.
+	 * @param comparison a comparison of the selector of this index
+	 * @return the rows, or {@code null} if the comparison cannot be looked up in this index
+	 * @since 2.1.0
+	 */
+	abstract FIQLBitmap find(FIQLComparison comparison);
+}
@@ -0,0 +1,499 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A collection that can be filtered with FIQL-Queries without looking at every element.
+ * Indexes can be created for the selectors that are compared most often:
+ * <ul>
+ * <li>{@link #createHashIndex(String)} for {@code ==}, {@code !=}, {@code =#=} and {@code !#=} without wild cards</li>
+ * <li>{@link #createSortedIndex(String)} for {@code <}, {@code <=}, {@code >}, {@code >=} and ranges</li>
+ * <li>{@link #createTrigramIndex(String)} for strings with wild cards and for {@code [...]}</li>
+ * </ul>
+ * When a FIQL-Query is evaluated, the comparisons that can be answered by an index narrow down the elements and the FIQL-Query is
+ * then evaluated against the remaining elements only. Without a matching index, every element is evaluated, just like with
+ * {@link FIQLQuery#filter(Iterable)}. Elements that are excluded by an index are not evaluated at all.
+ * <p>
+ * Alternatively {@link #filterCached(FIQLQuery)} evaluates every comparison on its own against the whole collection and combines the results
+ * as compressed bitmaps. The results of the comparisons are cached until elements are added, so FIQL-Queries that share comparisons
+ * only cost a few set operations after the first one.
+ * <p>
+ * The elements can be {@linkplain Map}s or {@linkplain Object}s with getters marked with {@linkplain FIQLValue}.
+ * Their values must not change while they are in the collection.
+ * Elements can be added, but not removed. This class is not thread safe, but it can be filtered by multiple threads at the same time
+ * as long as no elements are added.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @param <T> the type of the elements
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLIndexedCollection<T> implements Iterable<T> {
+	
+	// More than enough for the comparisons of a dashboard, but still bounded if every FIQL-Query is different
+	private static final int MAX_CACHED_BITMAPS = 1024;
+	
+	private final List<T> values = new ArrayList<>();
+	private final Map<String, List<FIQLIndex>> indexes = new HashMap<>();
+	private final Map<String, FIQLBitmap> bitmaps = new ConcurrentHashMap<>();
+	private long version;
+	
+	/**
+	 * Creates an empty collection.
+	 * @since 2.1.0
+	 */
+	public FIQLIndexedCollection() {}
+	
+	/**
+	 * @param values the initial elements
+	 * @since 2.1.0
+	 */
+	public FIQLIndexedCollection(Iterable<? extends T> values) {
+		
+		values.forEach(this.values::add);
+	}
+	
+	/**
+	 * Creates an index for the operators {@code ==}, {@code !=}, {@code =#=} and {@code !#=}.
+	 * Comparisons with wild cards or with {@code [...]} are not looked up in this index.
+	 * Does nothing if there already is such an index for the selector.
+	 * @param selector the selector
+	 * @throws FIQLException if the value of an element could not be read
+	 * @since 2.1.0
+	 */
+	public void createHashIndex(String selector) throws FIQLException {
+		
+		this.createIndex(new FIQLHashIndex(selector));
+	}
+	
+	/**
+	 * Creates an index for the operators {@code <}, {@code <=}, {@code >} and {@code >=} and for ranges.
+	 * Only numbers and dates are indexed.
+	 * Does nothing if there already is such an index for the selector.
+	 * @param selector the selector
+	 * @throws FIQLException if the value of an element could not be read
+	 * @since 2.1.0
+	 */
+	public void createSortedIndex(String selector) throws FIQLException {
+		
+		this.createIndex(new FIQLSortedIndex(selector));
+	}
+	
+	/**
+	 * Creates an index of all sequences of three characters in the strings of a selector.
+	 * It is used for the operators {@code ==}, {@code !=}, {@code =#=} and {@code !#=} with wild cards and with {@code [...]},
+	 * as long as each alternative contains at least three characters in a row that are no wild cards.
+	 * The index ignores the case, so that it can be used for both {@code ==} and {@code =#=}.
+	 * Does nothing if there already is such an index for the selector.
+	 * @param selector the selector
+	 * @throws FIQLException if the value of an element could not be read
+	 * @since 2.1.0
+	 */
+	public void createTrigramIndex(String selector) throws FIQLException {
+		
+		this.createIndex(new FIQLTrigramIndex(selector));
+	}
+	
+	private final void createIndex(FIQLIndex index) throws FIQLException {
+		
+		List<FIQLIndex> indexes = this.indexes.computeIfAbsent(index.selector, selector -> new ArrayList<>());
+		
+		for(FIQLIndex existing : indexes) {
+			
+			if(existing.getClass() == index.getClass()) {
+				
+				return;
+			}
+		}
+		
+		for(int row = 0; row < this.values.size(); row++) {
+			
+			index.add(row, FIQLAccessors.read(this.values.get(row), index.selector));
+		}
+		
+		indexes.add(index);
+		indexes.sort(Comparator.comparingInt(FIQLIndex::getPriority));
+	}
+	
+	/**
+	 * Adds an element and updates the indexes.
+	 * @param value the element
+	 * @throws FIQLException if a value of the element could not be read
+	 * @since 2.1.0
+	 */
+	public void add(T value) throws FIQLException {
+		
+		int row = this.values.size();
+		
+		for(List<FIQLIndex> indexes : this.indexes.values()) {
+			
+			for(FIQLIndex index : indexes) {
+				
+				index.add(row, FIQLAccessors.read(value, index.selector));
+			}
+		}
+		
+		this.values.add(value);
+		this.version++;
+		this.bitmaps.clear();
+	}
+	
+	/**
+	 * Adds elements and updates the indexes.
+	 * @param values the elements
+	 * @throws FIQLException if a value of one of the elements could not be read
+	 * @since 2.1.0
+	 */
+	public void addAll(Iterable<? extends T> values) throws FIQLException {
+		
+		for(T value : values) {
+			
+			this.add(value);
+		}
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against this collection.
+	 * The FIQL-Query is taken from {@link FIQL#getCache()}.
+	 * @param fiql FIQL-Query
+	 * @return all filtered elements in the order they were added
+	 * @throws FIQLException if something is wrong with the FIQL-Query or it could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public List<T> filter(String fiql) throws FIQLException {
+		
+		return this.filter(FIQL.getCache().get(fiql));
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against this collection.
+	 * @param query the FIQL-Query
+	 * @return all filtered elements in the order they were added
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public List<T> filter(FIQLQuery query) throws FIQLException {
+		
+		FIQLRows rows = this.plan(query.getRoot());
+		
+		if(rows.isAll()) {
+			
+			return query.filter(this.values);
+		}
+		
+		List<T> filtered = new ArrayList<>();
+		
+		if(!rows.complement) {
+			
+			for(int row : rows.rows.toArray()) {
+				
+				T value = this.values.get(row);
+				
+				if(query.test(value)) {
+					
+					filtered.add(value);
+				}
+			}
+		
+		} else {
+			
+			for(int row = 0; row < this.values.size(); row++) {
+				
+				if(rows.rows.contains(row)) {
+					
+					continue;
+				}
+				
+				T value = this.values.get(row);
+				
+				if(query.test(value)) {
+					
+					filtered.add(value);
+				}
+			}
+		}
+		
+		return filtered;
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against this collection using cached results of its comparisons.
+	 * The FIQL-Query is taken from {@link FIQL#getCache()}.
+	 * @param fiql FIQL-Query
+	 * @return all filtered elements in the order they were added
+	 * @throws FIQLException if something is wrong with the FIQL-Query or one of its comparisons could not be evaluated against one of the elements
+	 * @see #filterCached(FIQLQuery)
+	 * @since 2.1.0
+	 */
+	public List<T> filterCached(String fiql) throws FIQLException {
+		
+		return this.filterCached(FIQL.getCache().get(fiql));
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against this collection using cached results of its comparisons.
+	 * Each comparison is evaluated against all elements once, with the help of the indexes, and the matching rows are kept as compressed bitmap.
+	 * {@code ;} and {@code ,} then become intersections and unions of these bitmaps.
+	 * The bitmaps are cached until elements are added, so that other FIQL-Queries with the same comparisons can reuse them.
+	 * Unlike {@link #filter(FIQLQuery)}, a comparison is evaluated against every element the indexes cannot rule out, even if the other comparisons
+	 * already decided the result for it. The remaining comparisons of {@code ;} and {@code ,} are only skipped once no element or every element matches.
+	 * So this method may throw an exception for a comparison that cannot be evaluated against an element, even if {@link #filter(FIQLQuery)} does not.
+	 * @param query the FIQL-Query
+	 * @return all filtered elements in the order they were added
+	 * @throws FIQLException if one of the comparisons could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public List<T> filterCached(FIQLQuery query) throws FIQLException {
+		
+		int[] rows = this.evaluate(query.getRoot()).toArray();
+		List<T> filtered = new ArrayList<>(rows.length);
+		
+		for(int row : rows) {
+			
+			filtered.add(this.values.get(row));
+		}
+		
+		return filtered;
+	}
+	
+	private final FIQLBitmap evaluate(FIQLNode node) throws FIQLException {
+		
+		if(node instanceof FIQLAnd) {
+			
+			FIQLBitmap rows = null;
+			
+			for(FIQLNode child : ((FIQLAnd)node).children) {
+				
+				FIQLBitmap bitmap = this.evaluate(child);
+				rows = rows == null ? bitmap : rows.and(bitmap);
+				
+				if(rows.isEmpty()) {
+					
+					break;
+				}
+			}
+			
+			return rows;
+		
+		} else if(node instanceof FIQLOr) {
+			
+			FIQLBitmap rows = null;
+			
+			for(FIQLNode child : ((FIQLOr)node).children) {
+				
+				FIQLBitmap bitmap = this.evaluate(child);
+				rows = rows == null ? bitmap : rows.or(bitmap);
+				
+				if(rows.cardinality() == this.values.size()) {
+					
+					break;
+				}
+			}
+			
+			return rows;
+		
+		} else if(node instanceof FIQLComparison) {
+			
+			return this.evaluate((FIQLComparison)node);
+		}
+		
+		return ((FIQLConstant)node).value ? FIQLBitmap.range(0, this.values.size()) : FIQLBitmap.EMPTY;
+	}
+	
+	private final FIQLBitmap evaluate(FIQLComparison comparison) throws FIQLException {
+		
+		String key = comparison.selector + comparison.operator.symbol + comparison.literal.raw;
+		FIQLBitmap bitmap = this.bitmaps.get(key);
+		
+		if(bitmap != null) {
+			
+			return bitmap;
+		}
+		
+		FIQLRows candidates = this.plan(comparison);
+		
+		if(candidates.complement && !candidates.isAll()) {
+			
+			// Negated comparisons are already exact
+			bitmap = candidates.toBitmap(this.values.size());
+		
+		} else {
+			
+			FIQLRows.Builder matches = new FIQLRows.Builder();
+			int[] rows = candidates.isAll() ? null : candidates.rows.toArray();
+			int size = rows != null ? rows.length : this.values.size();
+			
+			for(int index = 0; index < size; index++) {
+				
+				int row = rows != null ? rows[index] : index;
+				
+				if(comparison.testValue(FIQLAccessors.read(this.values.get(row), comparison.selector))) {
+					
+					matches.add(row);
+				}
+			}
+			
+			bitmap = matches.build();
+		}
+		
+		if(this.bitmaps.size() >= FIQLIndexedCollection.MAX_CACHED_BITMAPS) {
+			
+			this.bitmaps.clear();
+		}
+		
+		this.bitmaps.put(key, bitmap);
+		return bitmap;
+	}
+	
+	/**
+	 * Finds the rows that may match a node.
+	 * @param node the node
+	 * @return the rows, {@linkplain FIQLRows#ALL} if the indexes cannot narrow them down
+	 * @throws FIQLException if the value of an element could not be read
+	 * @since 2.1.0
+	 */
+	FIQLRows plan(FIQLNode node) throws FIQLException {
+		
+		if(node instanceof FIQLAnd) {
+			
+			FIQLRows rows = FIQLRows.ALL;
+			
+			for(FIQLNode child : ((FIQLAnd)node).children) {
+				
+				rows = rows.and(this.plan(child));
+				
+				if(rows.isNone()) {
+					
+					break;
+				}
+			}
+			
+			return rows;
+		
+		} else if(node instanceof FIQLOr) {
+			
+			FIQLRows rows = FIQLRows.NONE;
+			
+			for(FIQLNode child : ((FIQLOr)node).children) {
+				
+				rows = rows.or(this.plan(child));
+				
+				if(rows.isAll()) {
+					
+					break;
+				}
+			}
+			
+			return rows;
+		
+		} else if(node instanceof FIQLComparison) {
+			
+			return this.plan((FIQLComparison)node);
+		}
+		
+		return ((FIQLConstant)node).value ? FIQLRows.ALL : FIQLRows.NONE;
+	}
+	
+	private final FIQLRows plan(FIQLComparison comparison) throws FIQLException {
+		
+		List<FIQLIndex> indexes = this.indexes.get(comparison.selector);
+		
+		if(indexes == null) {
+			
+			return FIQLRows.ALL;
+		}
+		
+		for(FIQLIndex index : indexes) {
+			
+			FIQLBitmap found = index.find(comparison);
+			
+			if(found == null) {
+				
+				continue;
+			
+			} else if(!comparison.operator.isNegated()) {
+				
+				return new FIQLRows(found, false);
+			}
+			
+			// The index only knows which rows may be equal, but to exclude rows it has to be sure
+			FIQLRows.Builder equal = new FIQLRows.Builder();
+			
+			for(int row : found.toArray()) {
+				
+				if(comparison.testEquals(FIQLAccessors.read(this.values.get(row), comparison.selector))) {
+					
+					equal.add(row);
+				}
+			}
+			
+			return new FIQLRows(equal.build(), true);
+		}
+		
+		return FIQLRows.ALL;
+	}
+	
+	/**
+	 * @param row the row
+	 * @return the element in the given row
+	 * @throws IndexOutOfBoundsException if the row does not exist
+	 * @since 2.1.0
+	 */
+	public T get(int row) {
+		
+		return this.values.get(row);
+	}
+	
+	/**
+	 * @return a number that changes whenever elements are added
+	 * @since 2.1.0
+	 */
+	public long getVersion() {
+		
+		return this.version;
+	}
+	
+	/**
+	 * @return the number of elements
+	 * @since 2.1.0
+	 */
+	public int size() {
+		
+		return this.values.size();
+	}
+	
+	@Override
+	public Iterator<T> iterator() {
+		
+		return Collections.unmodifiableList(this.values).iterator();
+	}
+}
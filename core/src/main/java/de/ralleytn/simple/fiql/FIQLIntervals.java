@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorted arrays of closed intervals over numbers, so that all intervals that contain a value can be found without looking at the others.
+ * Intervals that are only bounded on one side are sorted by that bound, so only those that contain the value are looked at.
+ * Intervals that are bounded on both sides are found by scanning all of them that start before the value. Dates are stored as milliseconds.
+ * Intervals are added first and then {@linkplain #build() built}, afterwards they can be searched by multiple threads at the same time.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLIntervals {
+	
+	private double[] froms = new double[8];
+	private double[] tos = new double[8];
+	private int[] ids = new int[8];
+	private int size;
+	
+	private double[] lowerBounds; // [from, +Infinity], sorted by from
+	private int[] lowerIds;
+	private double[] upperBounds; // [-Infinity, to], sorted by to
+	private int[] upperIds;
+	private double[] rangeFroms; // [from, to], sorted by from
+	private double[] rangeTos;
+	private int[] rangeIds;
+	
+	/**
+	 * @param from the lower bound, {@linkplain Double#NEGATIVE_INFINITY} if there is none
+	 * @param to the upper bound, {@linkplain Double#POSITIVE_INFINITY} if there is none
+	 * @param id the number that is marked when the interval contains a value
+	 * @since 2.1.0
+	 */
+	void add(double from, double to, int id) {
+		
+		if(this.size == this.ids.length) {
+			
+			this.froms = Arrays.copyOf(this.froms, this.size * 2);
+			this.tos = Arrays.copyOf(this.tos, this.size * 2);
+			this.ids = Arrays.copyOf(this.ids, this.size * 2);
+		}
+		
+		this.froms[this.size] = from;
+		this.tos[this.size] = to;
+		this.ids[this.size] = id;
+		this.size++;
+	}
+	
+	/**
+	 * Sorts the added intervals.
+	 * @since 2.1.0
+	 */
+	void build() {
+		
+		Integer[] order = new Integer[this.size];
+		
+		for(int index = 0; index < this.size; index++) {
+			
+			order[index] = index;
+		}
+		
+		double[] lowerBounds = new double[this.size];
+		int[] lowerIds = new int[this.size];
+		double[] upperBounds = new double[this.size];
+		int[] upperIds = new int[this.size];
+		double[] rangeFroms = new double[this.size];
+		double[] rangeTos = new double[this.size];
+		int[] rangeIds = new int[this.size];
+		int lowers = 0;
+		int uppers = 0;
+		int ranges = 0;
+		
+		Arrays.sort(order, Comparator.comparingDouble(index -> this.froms[index]));
+		
+		for(int index : order) {
+			
+			if(this.froms[index] == Double.NEGATIVE_INFINITY) {
+				
+				continue;
+			
+			} else if(this.tos[index] == Double.POSITIVE_INFINITY) {
+				
+				lowerBounds[lowers] = this.froms[index];
+				lowerIds[lowers++] = this.ids[index];
+			
+			} else {
+				
+				rangeFroms[ranges] = this.froms[index];
+				rangeTos[ranges] = this.tos[index];
+				rangeIds[ranges++] = this.ids[index];
+			}
+		}
+		
+		Arrays.sort(order, Comparator.comparingDouble(index -> this.tos[index]));
+		
+		for(int index : order) {
+			
+			if(this.froms[index] == Double.NEGATIVE_INFINITY) {
+				
+				upperBounds[uppers] = this.tos[index];
+				upperIds[uppers++] = this.ids[index];
+			}
+		}
+		
+		this.lowerBounds = Arrays.copyOf(lowerBounds, lowers);
+		this.lowerIds = Arrays.copyOf(lowerIds, lowers);
+		this.upperBounds = Arrays.copyOf(upperBounds, uppers);
+		this.upperIds = Arrays.copyOf(upperIds, uppers);
+		this.rangeFroms = Arrays.copyOf(rangeFroms, ranges);
+		this.rangeTos = Arrays.copyOf(rangeTos, ranges);
+		this.rangeIds = Arrays.copyOf(rangeIds, ranges);
+		this.froms = null;
+		this.tos = null;
+		this.ids = null;
+	}
+	
+	/**
+	 * Marks the ids of all intervals that contain a value.
+	 * @param value the value
+	 * @param marks the bitmap in which the ids are marked
+	 * @since 2.1.0
+	 */
+	void find(double value, long[] marks) {
+		
+		if(Double.isNaN(value)) {
+			
+			return;
+		}
+		
+		for(int index = 0; index < this.lowerBounds.length && this.lowerBounds[index] <= value; index++) {
+			
+			marks[this.lowerIds[index] >>> 6] |= 1L << this.lowerIds[index];
+		}
+		
+		for(int index = this.upperBounds.length - 1; index >= 0 && this.upperBounds[index] >= value; index--) {
+			
+			marks[this.upperIds[index] >>> 6] |= 1L << this.upperIds[index];
+		}
+		
+		for(int index = 0; index < this.rangeFroms.length && this.rangeFroms[index] <= value; index++) {
+			
+			if(this.rangeTos[index] >= value) {
+				
+				marks[this.rangeIds[index] >>> 6] |= 1L << this.rangeIds[index];
+			}
+		}
+	}
+}
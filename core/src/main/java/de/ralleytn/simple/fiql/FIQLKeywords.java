@@ -0,0 +1,255 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Searches for many keywords in a string at once.
+ * The keywords are compiled into an Aho-Corasick automaton, so a string is read only once, no matter how many keywords there are.
+ * If the keywords consist of few distinct characters, the automaton is a table with a transition for every state and character.
+ * Otherwise that table would grow with the number of states times the number of characters, so only the edges of the trie and the
+ * failure links are stored, and the edges of a state are searched with a binary search.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLKeywords {
+	
+	private static final int ASCII = 128;
+	private static final int MAX_DENSE_WIDTH = 256;
+	
+	private final boolean ignoreCase;
+	private final int[] ascii;
+	private final char[] alphabet;
+	private final int width;
+	private final int[] transitions; // the table, or null if the automaton is sparse
+	private final int[] offsets; // the index of the first edge of each state in symbols and targets
+	private final int[] symbols;
+	private final int[] targets;
+	private final int[] failures;
+	private final boolean[] accepting;
+	
+	/**
+	 * @param keywords the keywords
+	 * @param ignoreCase {@code true} if the case of the characters should be ignored
+	 * @since 2.1.0
+	 */
+	FIQLKeywords(List<String> keywords, boolean ignoreCase) {
+		
+		this.ignoreCase = ignoreCase;
+		
+		// Every character that appears in a keyword gets an index. All other characters share the index 0.
+		TreeSet<Character> characters = new TreeSet<>();
+		
+		for(String keyword : keywords) {
+			
+			for(int index = 0; index < keyword.length(); index++) {
+				
+				characters.add(this.fold(keyword.charAt(index)));
+			}
+		}
+		
+		this.alphabet = new char[characters.size()];
+		this.ascii = new int[FIQLKeywords.ASCII];
+		int letter = 0;
+		
+		for(char character : characters) {
+			
+			this.alphabet[letter++] = character;
+			
+			if(character < FIQLKeywords.ASCII) {
+				
+				this.ascii[character] = letter;
+			}
+		}
+		
+		this.width = this.alphabet.length + 1;
+		
+		// Trie of the keywords, with the edges keyed by the state times the width plus the symbol
+		Map<Long, Integer> edges = new HashMap<>();
+		List<Boolean> accepting = new ArrayList<>();
+		accepting.add(false);
+		
+		for(String keyword : keywords) {
+			
+			int state = 0;
+			
+			for(int index = 0; index < keyword.length(); index++) {
+				
+				long edge = (long)state * this.width + this.symbol(keyword.charAt(index));
+				Integer next = edges.get(edge);
+				
+				if(next == null) {
+					
+					next = accepting.size();
+					edges.put(edge, next);
+					accepting.add(false);
+				}
+				
+				state = next;
+			}
+			
+			accepting.set(state, true);
+		}
+		
+		// The edges are sorted by their state and symbol, so that the edges of a state are next to each other.
+		int states = accepting.size();
+		long[] keys = new long[edges.size()];
+		int edge = 0;
+		
+		for(long key : edges.keySet()) {
+			
+			keys[edge++] = key;
+		}
+		
+		Arrays.sort(keys);
+		this.offsets = new int[states + 1];
+		this.symbols = new int[keys.length];
+		this.targets = new int[keys.length];
+		
+		for(edge = 0; edge < keys.length; edge++) {
+			
+			this.offsets[(int)(keys[edge] / this.width) + 1]++;
+			this.symbols[edge] = (int)(keys[edge] % this.width);
+			this.targets[edge] = edges.get(keys[edge]);
+		}
+		
+		for(int state = 0; state < states; state++) {
+			
+			this.offsets[state + 1] += this.offsets[state];
+		}
+		
+		// Breadth first, the failure link of a state is the longest suffix of it that is in the trie.
+		this.transitions = this.width <= FIQLKeywords.MAX_DENSE_WIDTH ? new int[states * this.width] : null;
+		this.failures = new int[states];
+		this.accepting = new boolean[states];
+		this.accepting[0] = accepting.get(0);
+		int[] queue = new int[states];
+		int head = 0;
+		int tail = 1;
+		
+		while(head < tail) {
+			
+			int state = queue[head++];
+			this.accepting[state] = accepting.get(state) || this.accepting[this.failures[state]];
+			
+			for(edge = this.offsets[state]; edge < this.offsets[state + 1]; edge++) {
+				
+				int next = this.targets[edge];
+				this.failures[next] = state == 0 ? 0 : this.next(this.failures[state], this.symbols[edge]);
+				queue[tail++] = next;
+			}
+			
+			if(this.transitions != null) {
+				
+				// Every missing transition is replaced with the transition of the failure link, which is always closer to the root.
+				for(int symbol = 0; symbol < this.width; symbol++) {
+					
+					int next = this.edge(state, symbol);
+					this.transitions[state * this.width + symbol] = next != -1 ? next : state == 0 ? 0 : this.transitions[this.failures[state] * this.width + symbol];
+				}
+			}
+		}
+	}
+	
+	// Returns the target of the edge of the state with the symbol, or -1 if there is none.
+	private final int edge(int state, int symbol) {
+		
+		int index = Arrays.binarySearch(this.symbols, this.offsets[state], this.offsets[state + 1], symbol);
+		return index < 0 ? -1 : this.targets[index];
+	}
+	
+	// Follows the failure links until a state has an edge with the symbol.
+	private final int next(int state, int symbol) {
+		
+		while(true) {
+			
+			int next = this.edge(state, symbol);
+			
+			if(next != -1) {
+				
+				return next;
+			
+			} else if(state == 0) {
+				
+				return 0;
+			}
+			
+			state = this.failures[state];
+		}
+	}
+	
+	private final char fold(char character) {
+		
+		return this.ignoreCase ? FIQLLiteral.fold(character) : character;
+	}
+	
+	private final int symbol(char character) {
+		
+		character = this.fold(character);
+		
+		if(character < FIQLKeywords.ASCII) {
+			
+			return this.ascii[character];
+		}
+		
+		int index = Arrays.binarySearch(this.alphabet, character);
+		return index < 0 ? 0 : index + 1;
+	}
+	
+	/**
+	 * @param string the string
+	 * @return {@code true} if at least one of the keywords is contained in the string
+	 * @since 2.1.0
+	 */
+	boolean containedIn(String string) {
+		
+		if(this.accepting[0]) {
+			
+			// An empty keyword is contained in every string
+			return true;
+		}
+		
+		int state = 0;
+		
+		for(int index = 0; index < string.length(); index++) {
+			
+			int symbol = this.symbol(string.charAt(index));
+			state = this.transitions != null ? this.transitions[state * this.width + symbol] : this.next(state, symbol);
+			
+			if(this.accepting[state]) {
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
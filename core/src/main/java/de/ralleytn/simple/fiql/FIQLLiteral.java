@@ -0,0 +1,513 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The expression on the right side of an operator.
+ * It is decoded and split into its parts once when the FIQL-Query is compiled.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLLiteral {
+	
+	private static final DateTimeFormatter FORMAT_D = DateTimeFormatter.ofPattern("uuuu-MM-dd");
+	private static final DateTimeFormatter FORMAT_T = DateTimeFormatter.ofPattern("HH:mm:ss");
+	private static final DateTimeFormatter FORMAT_DT = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss");
+	private static final DateTimeFormatter FORMAT_DTZ = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ssZ");
+	
+	// Below this number of alternatives without wild cards, comparing them one after another is faster than a lookup.
+	private static final int MIN_LOOKUP_ALTERNATIVES = 4;
+	
+	final String raw;
+	final String value;
+	final boolean contains;
+	final String[] range;
+	final String[] literals; // the decoded alternatives, or null if there are wild cards or it is a contains expression
+	final List<List<String>> runs; // the parts of each alternative without wild cards
+	final FIQLNumber number;
+	final FIQLNumber numberFrom;
+	final FIQLNumber numberTo;
+	private final boolean ignoreCase;
+	private final FIQLPattern[] patterns;
+	private final String[] alternatives; // hash table with linear probing, so that it can be searched without folding the case first
+	private final FIQLKeywords keywords;
+	
+	final ZoneId zone; // the default time zone when the FIQL-Query was compiled, for the expression and for the values
+	
+	// Whether the expression is a date can only be known when it is compared with a value.
+	// That's why an incorrectly formatted date is only reported when it is actually compared with a date.
+	final long time;
+	final long timeFrom;
+	final long timeTo;
+	private final FIQLException timeException;
+	private final FIQLException timeRangeException;
+	
+	/**
+	 * @param raw the escaped but not yet decoded expression
+	 * @param ignoreCase {@code true} if strings should be compared without paying attention to their case
+	 * @param position the position of the comparison in the FIQL-Query
+	 * @throws FIQLException if the expression could not be decoded
+	 * @since 2.1.0
+	 */
+	FIQLLiteral(String raw, boolean ignoreCase, int position) throws FIQLException {
+		
+		this.raw = raw;
+		this.contains = raw.length() > 1 && raw.startsWith("[") && raw.endsWith("]");
+		
+		try {
+			
+			this.value = URLDecoder.decode(raw, "UTF-8");
+			this.range = this.value.contains("~") ? this.value.split("~") : null;
+			
+			String[] alternatives = (this.contains ? raw.substring(1, raw.length() - 1) : raw).split("\\|");
+			List<FIQLPattern> patterns = new ArrayList<>();
+			List<String> literals = new ArrayList<>();
+			List<List<String>> runs = new ArrayList<>();
+			
+			for(String alternative : alternatives) {
+				
+				FIQLPattern pattern = FIQLPattern.compile(URLDecoder.decode(alternative, "UTF-8"), ignoreCase, this.contains);
+				
+				runs.add(pattern.getRuns());
+				
+				if(pattern.isLiteral()) {
+					
+					literals.add(pattern.getSegments()[0]);
+				}
+				
+				patterns.add(pattern);
+			}
+			
+			this.runs = runs;
+			this.literals = !this.contains && literals.size() == patterns.size() ? literals.toArray(new String[literals.size()]) : null;
+			String[] lookup = null;
+			FIQLKeywords keywords = null;
+			
+			// Alternatives without wild cards are looked up all at once, only those with wild cards are compared one after another.
+			if(literals.size() >= FIQLLiteral.MIN_LOOKUP_ALTERNATIVES) {
+				
+				patterns.removeIf(FIQLPattern::isLiteral);
+				
+				if(this.contains) {
+					
+					keywords = new FIQLKeywords(literals, ignoreCase);
+				
+				} else {
+					
+					lookup = FIQLLiteral.lookup(literals, ignoreCase);
+				}
+			}
+			
+			this.ignoreCase = ignoreCase;
+			this.patterns = patterns.toArray(new FIQLPattern[patterns.size()]);
+			this.alternatives = lookup;
+			this.keywords = keywords;
+		
+		} catch(UnsupportedEncodingException | IllegalArgumentException exception) {
+			
+			throw new FIQLException(exception, position);
+		}
+		
+		this.number = new FIQLNumber(this.value);
+		this.numberFrom = this.isRange() ? new FIQLNumber(this.range[0]) : null;
+		this.numberTo = this.isRange() ? new FIQLNumber(this.range[1]) : null;
+		
+		ZoneId zone = ZoneId.systemDefault();
+		this.zone = zone;
+		long time = 0;
+		long timeFrom = 0;
+		long timeTo = 0;
+		FIQLException timeException = null;
+		FIQLException timeRangeException = null;
+		
+		try {
+			
+			time = FIQLLiteral.parseDate(this.value, zone);
+		
+		} catch(FIQLException exception) {
+			
+			timeException = exception;
+		}
+		
+		if(this.isRange()) {
+			
+			try {
+				
+				timeFrom = FIQLLiteral.parseDate(this.range[0], zone);
+				timeTo = FIQLLiteral.parseDate(this.range[1], zone);
+			
+			} catch(FIQLException exception) {
+				
+				timeRangeException = exception;
+			}
+		}
+		
+		this.time = time;
+		this.timeFrom = timeFrom;
+		this.timeTo = timeTo;
+		this.timeException = timeException;
+		this.timeRangeException = timeRangeException;
+	}
+	
+	/**
+	 * @return {@code true} if the expression is a correctly formatted range
+	 * @since 2.1.0
+	 */
+	boolean isRange() {
+		
+		return this.range != null && this.range.length == 2 && !this.range[0].isEmpty();
+	}
+	
+	/**
+	 * @return the expression as date in milliseconds
+	 * @throws FIQLException if the expression is not a date
+	 * @since 2.1.0
+	 */
+	long getTime() throws FIQLException {
+		
+		if(this.timeException != null) {
+			
+			throw new FIQLException(this.timeException);
+		}
+		
+		return this.time;
+	}
+	
+	/**
+	 * @return {@code true} if the expression is a date
+	 * @since 2.1.0
+	 */
+	boolean hasTime() {
+		
+		return this.timeException == null;
+	}
+	
+	/**
+	 * @return {@code true} if the expression is a range of dates
+	 * @since 2.1.0
+	 */
+	boolean hasTimeRange() {
+		
+		return this.isRange() && this.timeRangeException == null;
+	}
+	
+	/**
+	 * @return the start of the date range in milliseconds
+	 * @throws FIQLException if the range does not consist of dates
+	 * @since 2.1.0
+	 */
+	long getTimeFrom() throws FIQLException {
+		
+		if(this.timeRangeException != null) {
+			
+			throw new FIQLException(this.timeRangeException);
+		}
+		
+		return this.timeFrom;
+	}
+	
+	/**
+	 * @return the end of the date range in milliseconds
+	 * @throws FIQLException if the range does not consist of dates
+	 * @since 2.1.0
+	 */
+	long getTimeTo() throws FIQLException {
+		
+		if(this.timeRangeException != null) {
+			
+			throw new FIQLException(this.timeRangeException);
+		}
+		
+		return this.timeTo;
+	}
+	
+	/**
+	 * @return {@code true} if the expression is empty
+	 * @since 2.1.0
+	 */
+	boolean isEmpty() {
+		
+		return this.raw.isEmpty();
+	}
+	
+	/**
+	 * Matches a string against the expression.
+	 * Respects the wild cards, the alternatives and the contains operator.
+	 * @param string the string
+	 * @return {@code true} if one of the alternatives matches the string
+	 * @since 2.1.0
+	 */
+	boolean matches(String string) {
+		
+		if(this.alternatives != null && this.lookUp(string)) {
+			
+			return true;
+		
+		} else if(this.keywords != null && this.keywords.containedIn(string)) {
+			
+			return true;
+		}
+		
+		for(FIQLPattern pattern : this.patterns) {
+			
+			if(pattern.matches(string)) {
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private final boolean lookUp(String string) {
+		
+		int mask = this.alternatives.length - 1;
+		
+		for(int index = FIQLLiteral.hash(string, this.ignoreCase) & mask; this.alternatives[index] != null; index = (index + 1) & mask) {
+			
+			if(FIQLLiteral.equals(this.alternatives[index], string, this.ignoreCase)) {
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static final String[] lookup(List<String> literals, boolean ignoreCase) {
+		
+		String[] table = new String[Integer.highestOneBit(literals.size() * 2 - 1) << 1];
+		int mask = table.length - 1;
+		
+		for(String literal : literals) {
+			
+			int index = FIQLLiteral.hash(literal, ignoreCase) & mask;
+			
+			while(table[index] != null && !FIQLLiteral.equals(table[index], literal, ignoreCase)) {
+				
+				index = (index + 1) & mask;
+			}
+			
+			table[index] = literal;
+		}
+		
+		return table;
+	}
+	
+	private static final int hash(String string, boolean ignoreCase) {
+		
+		int hash = ignoreCase ? FIQLLiteral.foldedHashCode(string) : string.hashCode();
+		return hash ^ (hash >>> 16);
+	}
+	
+	private static final boolean equals(String string, String other, boolean ignoreCase) {
+		
+		if(!ignoreCase) {
+			
+			return string.equals(other);
+		
+		} else if(string.length() != other.length()) {
+			
+			return false;
+		}
+		
+		for(int index = 0; index < string.length(); index++) {
+			
+			if(FIQLLiteral.fold(string.charAt(index)) != FIQLLiteral.fold(other.charAt(index))) {
+				
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Maps all characters that are equal when their case is ignored to the same character,
+	 * just like {@linkplain String#regionMatches(boolean, int, String, int, int)} does.
+	 * @param character the character
+	 * @return the case folded character
+	 * @since 2.1.0
+	 */
+	static final char fold(char character) {
+		
+		return Character.toLowerCase(Character.toUpperCase(character));
+	}
+	
+	/**
+	 * @param string the string
+	 * @return the string with all of its characters case folded
+	 * @see #fold(char)
+	 * @since 2.1.0
+	 */
+	static final String fold(String string) {
+		
+		char[] characters = new char[string.length()];
+		
+		for(int index = 0; index < characters.length; index++) {
+			
+			characters[index] = FIQLLiteral.fold(string.charAt(index));
+		}
+		
+		return new String(characters);
+	}
+	
+	/**
+	 * @param string the string
+	 * @return the same as {@code fold(string).hashCode()}, but without creating the case folded string
+	 * @see #fold(String)
+	 * @since 2.1.0
+	 */
+	static final int foldedHashCode(String string) {
+		
+		int hash = 0;
+		
+		for(int index = 0; index < string.length(); index++) {
+			
+			hash = 31 * hash + FIQLLiteral.fold(string.charAt(index));
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * Parses a date expression.
+	 * @param expression the date expression with one of the prefixes {@code L}, {@code D}, {@code T}, {@code DT} or {@code DTZ}
+	 * @param zone the time zone of dates without an offset
+	 * @return the time in milliseconds
+	 * @throws FIQLException if the date expression is incorrectly formatted
+	 * @since 2.1.0
+	 */
+	static final long parseDate(String expression, ZoneId zone) throws FIQLException {
+		
+		expression = expression.toUpperCase();
+		
+		try {
+			
+			       if(expression.startsWith("L"))   {return Long.parseLong(expression.substring(1));
+			} else if(expression.startsWith("DTZ")) {return OffsetDateTime.parse(expression.substring(3), FIQLLiteral.FORMAT_DTZ).toInstant().toEpochMilli();
+			} else if(expression.startsWith("DT"))  {return LocalDateTime.parse(expression.substring(2), FIQLLiteral.FORMAT_DT).atZone(zone).toInstant().toEpochMilli();
+			} else if(expression.startsWith("D"))   {return LocalDate.parse(expression.substring(1), FIQLLiteral.FORMAT_D).atStartOfDay(zone).toInstant().toEpochMilli();
+			} else if(expression.startsWith("T"))   {return LocalTime.parse(expression.substring(1), FIQLLiteral.FORMAT_T).atDate(LocalDate.ofEpochDay(0)).atZone(zone).toInstant().toEpochMilli();
+			}
+		
+		} catch(NumberFormatException | DateTimeException exception) {
+			
+			throw new FIQLException(exception);
+		}
+		
+		throw new FIQLException("Date format is missing!");
+	}
+	
+	/**
+	 * @param value the value of a selector
+	 * @return {@code true} if the value is a date that can be compared with a date expression
+	 * @since 2.1.0
+	 */
+	static final boolean isTime(Object value) {
+		
+		return value instanceof Date || value instanceof Instant || value instanceof LocalDateTime || value instanceof LocalDate ||
+			   value instanceof ZonedDateTime || value instanceof OffsetDateTime || value instanceof Calendar;
+	}
+	
+	/**
+	 * Converts a date into milliseconds.
+	 * Dates without a time zone are in the default time zone.
+	 * @param value a value for which {@link #isTime(Object)} returns {@code true}
+	 * @return the time in milliseconds
+	 * @since 2.1.0
+	 */
+	static final long toTime(Object value) {
+		
+		return FIQLLiteral.toTime(value, ZoneId.systemDefault());
+	}
+	
+	/**
+	 * Converts a date into milliseconds without creating any objects.
+	 * @param value a value for which {@link #isTime(Object)} returns {@code true}
+	 * @param zone the time zone of dates without an offset
+	 * @return the time in milliseconds
+	 * @since 2.1.0
+	 */
+	static final long toTime(Object value, ZoneId zone) {
+		
+		       if(value instanceof Date)           {return ((Date)value).getTime();
+		} else if(value instanceof Instant)        {return ((Instant)value).toEpochMilli();
+		} else if(value instanceof ZonedDateTime)  {return FIQLLiteral.toMillis(((ZonedDateTime)value).toEpochSecond(), ((ZonedDateTime)value).getNano());
+		} else if(value instanceof OffsetDateTime) {return FIQLLiteral.toMillis(((OffsetDateTime)value).toEpochSecond(), ((OffsetDateTime)value).getNano());
+		} else if(value instanceof Calendar)       {return ((Calendar)value).getTimeInMillis();
+		}
+		
+		ZoneRules rules = zone.getRules();
+		
+		if(value instanceof LocalDateTime) {
+			
+			// In a gap the offset before the transition results in the same instant as LocalDateTime.atZone(ZoneId),
+			// which moves the time forward by the length of the gap and uses the offset after the transition.
+			LocalDateTime dateTime = (LocalDateTime)value;
+			return FIQLLiteral.toMillis(dateTime.toEpochSecond(rules.getOffset(dateTime)), dateTime.getNano());
+		}
+		
+		if(rules.isFixedOffset()) {
+			
+			return (((LocalDate)value).toEpochDay() * 86400 - rules.getOffset(Instant.EPOCH).getTotalSeconds()) * 1000;
+		}
+		
+		LocalDateTime midnight = ((LocalDate)value).atStartOfDay();
+		ZoneOffsetTransition transition = rules.getTransition(midnight);
+		
+		// Like LocalDate.atStartOfDay(ZoneId), a day that starts in a gap starts at the end of the gap.
+		return (transition != null && transition.isGap() ? transition.toEpochSecond() : midnight.toEpochSecond(rules.getOffset(midnight))) * 1000;
+	}
+	
+	// The same as Instant.toEpochMilli()
+	private static final long toMillis(long seconds, int nanos) {
+		
+		if(seconds < 0 && nanos > 0) {
+			
+			return Math.addExact(Math.multiplyExact(seconds + 1, 1000), nanos / 1000000 - 1000);
+		}
+		
+		return Math.addExact(Math.multiplyExact(seconds, 1000), nanos / 1000000);
+	}
+}
@@ -0,0 +1,485 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches events against many standing FIQL-Queries at once, for example the filters of the subscribers of a publish/subscribe system.
+ * <p>
+ * Instead of evaluating every FIQL-Query against every event, the comparisons of the FIQL-Queries are kept in a predicate index.
+ * For each FIQL-Query a few comparisons are chosen of which at least one has to be {@code true} for the FIQL-Query to be {@code true}.
+ * Comparisons with {@code ==} and {@code =#=} without wild cards are looked up by the value of the event, comparisons with {@code <},
+ * {@code <=}, {@code >}, {@code >=} and ranges in sorted arrays of their bounds. The values of an event are read only once and only the
+ * FIQL-Queries of which one of the chosen comparisons may be {@code true} are evaluated. FIQL-Queries without such comparisons, for
+ * example those that only consist of {@code !=} or of wild cards, are evaluated against every event. FIQL-Queries that are not evaluated
+ * against an event cannot throw an exception for it either.
+ * <p>
+ * The events can be {@linkplain Map}s or {@linkplain Object}s with getters marked with {@linkplain FIQLValue}.
+ * Subscribing and unsubscribing is cheap, the index is rebuilt by the next call of {@link #match(Object)}.
+ * This class is thread safe. Events can be matched by multiple threads at the same time.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @param <S> the type of the subscribers
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLMatcher<S> {
+	
+	// Numbers are stored as Double, dates as Long and all other values as String, just like in FIQLHashIndex.
+	private static final Object NULL = new Object();
+	
+	// Comparisons with a range or a bound are expected to be true for more events than comparisons with single values
+	private static final int COST_EQUALS = 1;
+	private static final int COST_INTERVAL = 3;
+	
+	private final Map<S, FIQLQuery> subscriptions = new LinkedHashMap<>();
+	private volatile Index index;
+	
+	/**
+	 * Subscribes to all events a FIQL-Query is positive for.
+	 * Replaces the FIQL-Query of the subscriber if it has already subscribed.
+	 * @param subscriber the subscriber
+	 * @param fiql FIQL-Query
+	 * @throws FIQLException if something is wrong with the FIQL-Query
+	 * @since 2.1.0
+	 */
+	public void subscribe(S subscriber, String fiql) throws FIQLException {
+		
+		this.subscribe(subscriber, FIQL.compile(fiql));
+	}
+	
+	/**
+	 * Subscribes to all events a FIQL-Query is positive for.
+	 * Replaces the FIQL-Query of the subscriber if it has already subscribed.
+	 * @param subscriber the subscriber
+	 * @param query the FIQL-Query
+	 * @since 2.1.0
+	 */
+	public synchronized void subscribe(S subscriber, FIQLQuery query) {
+		
+		this.subscriptions.put(subscriber, query);
+		this.index = null;
+	}
+	
+	/**
+	 * @param subscriber the subscriber
+	 * @return {@code true} if the subscriber had subscribed
+	 * @since 2.1.0
+	 */
+	public synchronized boolean unsubscribe(S subscriber) {
+		
+		if(this.subscriptions.remove(subscriber) != null) {
+			
+			this.index = null;
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * @param subscriber the subscriber
+	 * @return the FIQL-Query of the subscriber or {@code null} if it has not subscribed
+	 * @since 2.1.0
+	 */
+	public synchronized FIQLQuery getQuery(S subscriber) {
+		
+		return this.subscriptions.get(subscriber);
+	}
+	
+	/**
+	 * @return the number of subscribers
+	 * @since 2.1.0
+	 */
+	public synchronized int size() {
+		
+		return this.subscriptions.size();
+	}
+	
+	/**
+	 * Finds all subscribers whose FIQL-Queries are positive for an event.
+	 * @param event a {@linkplain Map} or an {@linkplain Object} with getters marked with {@linkplain FIQLValue}
+	 * @return the subscribers in the order they have subscribed in
+	 * @throws FIQLException if one of the evaluated FIQL-Queries could not be evaluated against the event or a value of the event could not be read
+	 * @since 2.1.0
+	 */
+	@SuppressWarnings("unchecked")
+	public List<S> match(Object event) throws FIQLException {
+		
+		Index index = this.index();
+		Event values = new Event(event);
+		long[] candidates = index.always.clone();
+		
+		for(int selector = 0; selector < index.selectors.length; selector++) {
+			
+			index.postings[selector].find(values.get(index.selectors[selector], -1), index.zones, candidates);
+		}
+		
+		List<S> matches = new ArrayList<>();
+		
+		for(int word = 0; word < candidates.length; word++) {
+			
+			for(long bits = candidates[word]; bits != 0; bits &= bits - 1) {
+				
+				int id = (word << 6) | Long.numberOfTrailingZeros(bits);
+				
+				if(index.roots[id].test(values)) {
+					
+					matches.add((S)index.subscribers[id]);
+				}
+			}
+		}
+		
+		return matches;
+	}
+	
+	private final Index index() {
+		
+		Index index = this.index;
+		
+		if(index == null) {
+			
+			synchronized(this) {
+				
+				index = this.index;
+				
+				if(index == null) {
+					
+					index = new Index(this.subscriptions);
+					this.index = index;
+				}
+			}
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Chooses comparisons of which at least one has to be {@code true} for a node to be {@code true}.
+	 * @param node the node
+	 * @return the comparisons or {@code null} if there are none that can be looked up
+	 * @since 2.1.0
+	 */
+	static final List<FIQLComparison> choose(FIQLNode node) {
+		
+		if(node instanceof FIQLAnd) {
+			
+			// One child is enough, because all of them have to be true
+			List<FIQLComparison> cheapest = null;
+			
+			for(FIQLNode child : ((FIQLAnd)node).children) {
+				
+				List<FIQLComparison> comparisons = FIQLMatcher.choose(child);
+				
+				if(comparisons != null && (cheapest == null || FIQLMatcher.cost(comparisons) < FIQLMatcher.cost(cheapest))) {
+					
+					cheapest = comparisons;
+				}
+			}
+			
+			return cheapest;
+		
+		} else if(node instanceof FIQLOr) {
+			
+			List<FIQLComparison> all = new ArrayList<>();
+			
+			for(FIQLNode child : ((FIQLOr)node).children) {
+				
+				List<FIQLComparison> comparisons = FIQLMatcher.choose(child);
+				
+				if(comparisons == null) {
+					
+					return null;
+				}
+				
+				all.addAll(comparisons);
+			}
+			
+			return all;
+		
+		} else if(node instanceof FIQLComparison) {
+			
+			FIQLComparison comparison = (FIQLComparison)node;
+			return FIQLMatcher.isIndexable(comparison) ? Collections.singletonList(comparison) : null;
+		}
+		
+		return ((FIQLConstant)node).value ? null : Collections.emptyList();
+	}
+	
+	private static final boolean isIndexable(FIQLComparison comparison) {
+		
+		if(comparison.operator.isNegated()) {
+			
+			return false;
+		
+		} else if(comparison.operator.isEquality()) {
+			
+			return comparison.literal.literals != null && !comparison.literal.isEmpty();
+		}
+		
+		return true;
+	}
+	
+	private static final int cost(List<FIQLComparison> comparisons) {
+		
+		int cost = 0;
+		
+		for(FIQLComparison comparison : comparisons) {
+			
+			cost += comparison.operator.isEquality() && comparison.literal.range == null ? FIQLMatcher.COST_EQUALS : FIQLMatcher.COST_INTERVAL;
+		}
+		
+		return cost;
+	}
+	
+	private static final class Index {
+		
+		private final Object[] subscribers;
+		private final FIQLNode[] roots;
+		private final long[] always; // the subscriptions that are evaluated against every event
+		private final String[] selectors;
+		private final Postings[] postings;
+		private final ZoneId[] zones; // the time zones of the date expressions, usually only one
+		
+		private Index(Map<?, FIQLQuery> subscriptions) {
+			
+			Map<String, Postings> postings = new LinkedHashMap<>();
+			Set<ZoneId> zones = new LinkedHashSet<>();
+			int id = 0;
+			
+			this.subscribers = new Object[subscriptions.size()];
+			this.roots = new FIQLNode[subscriptions.size()];
+			this.always = new long[(subscriptions.size() + 63) >>> 6];
+			
+			for(Map.Entry<?, FIQLQuery> subscription : subscriptions.entrySet()) {
+				
+				List<FIQLComparison> comparisons = FIQLMatcher.choose(subscription.getValue().getRoot());
+				this.subscribers[id] = subscription.getKey();
+				this.roots[id] = subscription.getValue().getRoot();
+				
+				if(comparisons == null) {
+					
+					this.always[id >>> 6] |= 1L << id;
+				
+				} else {
+					
+					for(FIQLComparison comparison : comparisons) {
+						
+						postings.computeIfAbsent(comparison.selector, selector -> new Postings()).add(comparison, id, zones);
+					}
+				}
+				
+				id++;
+			}
+			
+			postings.values().forEach(Postings::build);
+			this.selectors = postings.keySet().toArray(new String[postings.size()]);
+			this.postings = postings.values().toArray(new Postings[postings.size()]);
+			this.zones = zones.toArray(new ZoneId[zones.size()]);
+		}
+	}
+	
+	/**
+	 * The comparisons of one selector.
+	 */
+	private static final class Postings {
+		
+		private final Map<Object, FIQLRows.Builder> values = new HashMap<>();
+		private final FIQLIntervals numbers = new FIQLIntervals();
+		private final FIQLIntervals times = new FIQLIntervals();
+		
+		private final void add(FIQLComparison comparison, int id, Set<ZoneId> zones) {
+			
+			FIQLLiteral literal = comparison.literal;
+			
+			if(comparison.operator.isEquality()) {
+				
+				for(String alternative : literal.literals) {
+					
+					this.put(FIQLLiteral.fold(alternative), id);
+				}
+				
+				if(literal.isRange()) {
+					
+					if(literal.numberFrom.isValid() && literal.numberTo.isValid()) {
+						
+						this.numbers.add(literal.numberFrom.doubleValue(), literal.numberTo.doubleValue(), id);
+					}
+					
+					if(literal.hasTimeRange()) {
+						
+						this.times.add(literal.timeFrom, literal.timeTo, id);
+						zones.add(literal.zone);
+					}
+				
+				} else if(literal.range == null) {
+					
+					if(literal.value.equals("null")) {
+						
+						this.put(FIQLMatcher.NULL, id);
+					}
+					
+					if(literal.number.isValid()) {
+						
+						double number = literal.number.doubleValue();
+						this.put(number == 0.0 ? 0.0 : number, id);
+					}
+					
+					if(literal.hasTime()) {
+						
+						this.put(literal.time, id);
+						zones.add(literal.zone);
+					}
+				}
+			
+			} else {
+				
+				boolean lower = comparison.operator == FIQLOperator.GREATER_THAN || comparison.operator == FIQLOperator.GREATER_THAN_OR_EQUAL_TO;
+				
+				// The bounds are inclusive, the comparison is evaluated anyway
+				if(literal.number.isValid()) {
+					
+					double number = literal.number.doubleValue();
+					this.numbers.add(lower ? number : Double.NEGATIVE_INFINITY, lower ? Double.POSITIVE_INFINITY : number, id);
+				}
+				
+				if(literal.hasTime()) {
+					
+					double time = literal.time;
+					this.times.add(lower ? time : Double.NEGATIVE_INFINITY, lower ? Double.POSITIVE_INFINITY : time, id);
+					zones.add(literal.zone);
+				}
+			}
+		}
+		
+		private final void put(Object key, int id) {
+			
+			this.values.computeIfAbsent(key, unused -> new FIQLRows.Builder()).add(id);
+		}
+		
+		private final void build() {
+			
+			this.numbers.build();
+			this.times.build();
+		}
+		
+		private final void find(Object value, ZoneId[] zones, long[] marks) {
+			
+			if(value instanceof Iterable) {
+				
+				for(Object element : (Iterable<?>)value) {
+					
+					this.findElement(element, zones, marks);
+				}
+			
+			} else {
+				
+				this.findElement(value, zones, marks);
+			}
+		}
+		
+		private final void findElement(Object value, ZoneId[] zones, long[] marks) {
+			
+			if(value == null) {
+				
+				this.mark(FIQLMatcher.NULL, marks);
+			
+			} else if(value instanceof Number) {
+				
+				double number = ((Number)value).doubleValue();
+				
+				// NaN is never equal to, greater or smaller than anything
+				if(!Double.isNaN(number)) {
+					
+					this.mark(number == 0.0 ? 0.0 : number, marks);
+					this.numbers.find(number, marks);
+				}
+			
+			} else if(FIQLLiteral.isTime(value)) {
+				
+				for(ZoneId zone : zones) {
+					
+					long time = FIQLLiteral.toTime(value, zone);
+					this.mark(time, marks);
+					this.times.find(time, marks);
+				}
+			
+			} else {
+				
+				this.mark(FIQLLiteral.fold(value.toString()), marks);
+			}
+		}
+		
+		private final void mark(Object key, long[] marks) {
+			
+			FIQLRows.Builder ids = this.values.get(key);
+			
+			if(ids != null) {
+				
+				int[] array = ids.array();
+				
+				for(int index = 0; index < ids.size(); index++) {
+					
+					marks[array[index] >>> 6] |= 1L << array[index];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reads each value of an event only once, no matter how many FIQL-Queries compare it.
+	 */
+	private static final class Event implements FIQLContext {
+		
+		private final Object target;
+		private final Map<String, Object> values = new HashMap<>();
+		
+		private Event(Object target) {
+			
+			this.target = target;
+		}
+		
+		@Override
+		public Object get(String selector, int slot) throws FIQLException {
+			
+			Object value = this.values.get(selector);
+			
+			if(value == null && !this.values.containsKey(selector)) {
+				
+				value = FIQLAccessors.read(this.target, selector);
+				this.values.put(selector, value);
+			}
+			
+			return value;
+		}
+	}
+}
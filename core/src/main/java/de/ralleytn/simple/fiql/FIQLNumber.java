@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A number expression that is parsed once when the FIQL-Query is compiled.
+ * Integers are kept as {@code long}, everything else as {@code double} and {@linkplain BigDecimal}.
+ * That way {@code long} values are compared exactly with integers and {@linkplain BigDecimal} values exactly with decimals,
+ * without parsing or converting anything while the values are compared.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLNumber {
+	
+	/**
+	 * Result of {@link #compare(Number)} if one of the numbers is {@code NaN}.
+	 * @since 2.1.0
+	 */
+	static final int UNORDERED = 2;
+	
+	// 2^63, the smallest double that is greater than every long
+	private static final double LONG_LIMIT = 0x1p63;
+	
+	private final boolean integer;
+	private final long longValue;
+	private final double doubleValue;
+	private final BigDecimal decimal;
+	private final FIQLException exception;
+	
+	/**
+	 * @param expression the decoded number expression
+	 * @since 2.1.0
+	 */
+	FIQLNumber(String expression) {
+		
+		boolean integer = false;
+		long longValue = 0;
+		double doubleValue = 0;
+		BigDecimal decimal = null;
+		FIQLException exception = null;
+		
+		try {
+			
+			if(FIQLNumber.isInteger(expression)) {
+				
+				longValue = Long.parseLong(expression);
+				doubleValue = longValue;
+				decimal = BigDecimal.valueOf(longValue);
+				integer = true;
+			
+			} else {
+				
+				doubleValue = Double.parseDouble(expression);
+				decimal = FIQLNumber.toDecimal(expression.trim());
+			}
+		
+		} catch(NumberFormatException formatException) {
+			
+			try {
+				
+				// Integers that do not fit into a long
+				doubleValue = Double.parseDouble(expression);
+				decimal = FIQLNumber.toDecimal(expression.trim());
+			
+			} catch(NumberFormatException notANumber) {
+				
+				// Whether the expression is a number can only be known when it is compared with a value.
+				exception = new FIQLException(notANumber);
+			}
+		}
+		
+		this.integer = integer;
+		this.longValue = longValue;
+		this.doubleValue = doubleValue;
+		this.decimal = decimal;
+		this.exception = exception;
+	}
+	
+	private static final boolean isInteger(String expression) {
+		
+		int length = expression.length();
+		int start = length > 1 && (expression.charAt(0) == '-' || expression.charAt(0) == '+') ? 1 : 0;
+		
+		if(length == 0) {
+			
+			return false;
+		}
+		
+		for(int index = start; index < length; index++) {
+			
+			char character = expression.charAt(index);
+			
+			if(character < '0' || character > '9') {
+				
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static final BigDecimal toDecimal(String expression) {
+		
+		try {
+			
+			return new BigDecimal(expression);
+		
+		} catch(NumberFormatException exception) {
+			
+			// NaN, Infinity and the type suffixes of Java are understood by Double.parseDouble only
+			return null;
+		}
+	}
+	
+	/**
+	 * Compares a value with the number expression.
+	 * @param value the value
+	 * @return {@code -1}, {@code 0} or {@code 1} if the value is smaller than, equal to or greater than the number expression,
+	 * or {@link #UNORDERED} if one of them is {@code NaN}
+	 * @throws FIQLException if the expression is not a number
+	 * @since 2.1.0
+	 */
+	int compare(Number value) throws FIQLException {
+		
+		if(this.exception != null) {
+			
+			throw new FIQLException(this.exception);
+		}
+		
+		return this.compareValid(value);
+	}
+	
+	/**
+	 * Compares a value with the number expression, which has to be {@linkplain #isValid() valid}.
+	 * @param value the value
+	 * @return {@code -1}, {@code 0} or {@code 1} if the value is smaller than, equal to or greater than the number expression,
+	 * or {@link #UNORDERED} if one of them is {@code NaN}
+	 * @since 2.1.0
+	 */
+	int compareValid(Number value) {
+		
+		if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ||
+		   value instanceof AtomicInteger || value instanceof AtomicLong) {
+			
+			long number = value.longValue();
+			return this.integer ? Long.compare(number, this.longValue) : FIQLNumber.compare(number, this.doubleValue);
+		
+		} else if(value instanceof BigDecimal && this.decimal != null) {
+			
+			return Integer.signum(((BigDecimal)value).compareTo(this.decimal));
+		
+		} else if(value instanceof BigInteger && this.decimal != null) {
+			
+			return Integer.signum(new BigDecimal((BigInteger)value).compareTo(this.decimal));
+		}
+		
+		double number = value.doubleValue();
+		return this.integer ? FIQLNumber.compare(number, this.longValue) : FIQLNumber.compare(number, this.doubleValue);
+	}
+	
+	/**
+	 * @return {@code true} if the expression is a number
+	 * @since 2.1.0
+	 */
+	boolean isValid() {
+		
+		return this.exception == null;
+	}
+	
+	/**
+	 * @return the number as {@code double}, which may be rounded
+	 * @since 2.1.0
+	 */
+	double doubleValue() {
+		
+		return this.doubleValue;
+	}
+	
+	private static final int compare(double value, double expression) {
+		
+		       if(value < expression)  {return -1;
+		} else if(value > expression)  {return 1;
+		} else if(value == expression) {return 0;
+		}
+		
+		return FIQLNumber.UNORDERED;
+	}
+	
+	private static final int compare(double value, long expression) {
+		
+		if(Double.isNaN(value)) {
+			
+			return FIQLNumber.UNORDERED;
+		
+		} else if(value >= FIQLNumber.LONG_LIMIT) {
+			
+			return 1;
+		
+		} else if(value < -FIQLNumber.LONG_LIMIT) {
+			
+			return -1;
+		}
+		
+		// Converting the long to double could round it, so the integer part of the double is compared as long instead.
+		double floor = Math.floor(value);
+		int comparison = Long.compare((long)floor, expression);
+		return comparison != 0 ? comparison : (value > floor ? 1 : 0);
+	}
+	
+	private static final int compare(long value, double expression) {
+		
+		int comparison = FIQLNumber.compare(expression, value);
+		return comparison == FIQLNumber.UNORDERED ? comparison : -comparison;
+	}
+}
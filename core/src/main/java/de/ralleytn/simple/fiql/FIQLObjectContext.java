@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reads the values of the selectors from the getters of an {@linkplain Object} or from a {@linkplain Map}.
+ * A getter is only called when its selector is compared for the first time, after that the value is remembered.
+ * Each thread reuses a single instance for every evaluation of any {@linkplain FIQLQuery}, so that nothing is allocated per value.
+ * Its array of values grows to the largest number of selectors it was used with and is never shrunk.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLObjectContext implements FIQLContext {
+	
+	private static final Object UNRESOLVED = new Object();
+	private static final Object[] EMPTY = new Object[0];
+	
+	private FIQLAccessor[] accessors;
+	private Object[] values;
+	private Object target;
+	private Map<?, ?> map;
+	
+	/**
+	 * Creates a context that is not {@linkplain #isInUse() in use}.
+	 * @since 2.1.0
+	 */
+	FIQLObjectContext() {
+		
+		this.values = FIQLObjectContext.EMPTY;
+	}
+	
+	/**
+	 * @param accessors the getters in the order of the selectors
+	 * @param target the object the getters are called on
+	 * @since 2.1.0
+	 */
+	FIQLObjectContext(FIQLAccessor[] accessors, Object target) {
+		
+		this();
+		this.reset(accessors, target);
+	}
+	
+	/**
+	 * @param map the {@linkplain Map} the values are read from
+	 * @since 2.1.0
+	 */
+	FIQLObjectContext(Map<?, ?> map) {
+		
+		this();
+		this.reset(map);
+	}
+	
+	/**
+	 * Prepares this context for the evaluation against another object.
+	 * @param accessors the getters in the order of the selectors
+	 * @param target the object the getters are called on
+	 * @since 2.1.0
+	 */
+	void reset(FIQLAccessor[] accessors, Object target) {
+		
+		if(this.values.length < accessors.length) {
+			
+			this.values = new Object[accessors.length];
+		}
+		
+		this.accessors = accessors;
+		this.target = target;
+		Arrays.fill(this.values, 0, accessors.length, FIQLObjectContext.UNRESOLVED);
+	}
+	
+	/**
+	 * Prepares this context for the evaluation against a {@linkplain Map}.
+	 * @param map the {@linkplain Map} the values are read from
+	 * @since 2.1.0
+	 */
+	void reset(Map<?, ?> map) {
+		
+		this.map = map;
+		this.target = map;
+	}
+	
+	/**
+	 * Forgets the object and its values, so that they can be garbage collected.
+	 * @since 2.1.0
+	 */
+	void release() {
+		
+		if(this.accessors != null) {
+			
+			Arrays.fill(this.values, 0, this.accessors.length, null);
+		}
+		
+		this.target = null;
+		this.map = null;
+		this.accessors = null;
+	}
+	
+	/**
+	 * @return {@code true} if an evaluation is using this context, for example when a getter evaluates a FIQL-Query
+	 * @since 2.1.0
+	 */
+	boolean isInUse() {
+		
+		return this.target != null;
+	}
+	
+	@Override
+	public Object get(String selector, int slot) throws FIQLException {
+		
+		if(this.map != null) {
+			
+			return this.map.get(selector);
+		}
+		
+		Object value = this.values[slot];
+		
+		if(value == FIQLObjectContext.UNRESOLVED) {
+			
+			FIQLAccessor accessor = this.accessors[slot];
+			value = accessor != null ? accessor.get(this.target) : null;
+			this.values[slot] = value;
+		}
+		
+		return value;
+	}
+}
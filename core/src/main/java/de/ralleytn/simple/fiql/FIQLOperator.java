@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * All operators a selector can be compared with.
+ * The order of the constants is the order in which a FIQL-Query is searched for them.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+enum FIQLOperator {
+	
+	EQUALS("=="),
+	EQUALS_IGNORE_CASE("=#="),
+	NOT_EQUALS_IGNORE_CASE("!#="),
+	NOT_EQUALS("!="),
+	GREATER_THAN_OR_EQUAL_TO(">="),
+	SMALLER_THAN_OR_EQUAL_TO("<="),
+	GREATER_THAN(">"),
+	SMALLER_THAN("<");
+	
+	final String symbol;
+	
+	private FIQLOperator(String symbol) {
+		
+		this.symbol = symbol;
+	}
+	
+	/**
+	 * @return {@code true} if this operator ignores the case of strings
+	 * @since 2.1.0
+	 */
+	boolean isIgnoreCase() {
+		
+		return this == EQUALS_IGNORE_CASE || this == NOT_EQUALS_IGNORE_CASE;
+	}
+	
+	/**
+	 * @return {@code true} if this operator negates the result of the equals check
+	 * @since 2.1.0
+	 */
+	boolean isNegated() {
+		
+		return this == NOT_EQUALS || this == NOT_EQUALS_IGNORE_CASE;
+	}
+	
+	/**
+	 * @return {@code true} if this operator is one of {@code ==}, {@code =#=}, {@code !=} and {@code !#=}
+	 * @since 2.1.0
+	 */
+	boolean isEquality() {
+		
+		return this == EQUALS || this == EQUALS_IGNORE_CASE || this == NOT_EQUALS || this == NOT_EQUALS_IGNORE_CASE;
+	}
+}
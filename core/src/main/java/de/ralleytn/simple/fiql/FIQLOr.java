@@ -24,32 +24,36 @@
 package de.ralleytn.simple.fiql;
 
 /**
- * Is thrown by the {@code eval} methods in the {@linkplain FIQL} class.
+ * Node for the {@code ,} connector.
+ * The evaluation stops at the first child that is {@code true}.
  * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
- * @version 1.0.0
- * @since 1.0.0
+ * @version 2.1.0
+ * @since 2.1.0
  */
-public class FIQLException extends Exception {
-
-	private static final long serialVersionUID = 4316746365211043134L;
-
+final class FIQLOr extends FIQLNode {
+	
+	final FIQLNode[] children;
+	
 	/**
-	 * Creates a new {@linkplain Exception}.
-	 * @param message message of the exception
-	 * @since 1.0.0
+	 * @param children the connected nodes
+	 * @since 2.1.0
 	 */
-	public FIQLException(String message) {
+	FIQLOr(FIQLNode[] children) {
 		
-		super(message);
+		this.children = children;
 	}
 	
-	/**
-	 * Wraps an {@linkplain Exception}.
-	 * @param exception {@linkplain Exception} to wrap
-	 * @since 1.0.0
-	 */
-	public FIQLException(Exception exception) {
+	@Override
+	boolean test(FIQLContext context) throws FIQLException {
+		
+		for(FIQLNode child : this.children) {
+			
+			if(child.test(context)) {
+				
+				return true;
+			}
+		}
 		
-		super(exception);
+		return false;
 	}
 }
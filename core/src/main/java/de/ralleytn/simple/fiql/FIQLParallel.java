@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a list into chunks and processes them in parallel.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLParallel {
+	
+	// More chunks than threads, so that a thread that finishes early can take over the work of a slower one.
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	private FIQLParallel() {}
+	
+	/**
+	 * Processes a chunk.
+	 * @param <T> the type of the elements
+	 * @param <R> the type of the result
+	 * @since 2.1.0
+	 */
+	@FunctionalInterface
+	static interface Task<T, R> {
+		
+		/**
+		 * @param chunk the chunk
+		 * @return the result for the chunk
+		 * @throws FIQLException if the chunk could not be processed
+		 * @since 2.1.0
+		 */
+		public R process(List<T> chunk) throws FIQLException;
+	}
+	
+	/**
+	 * Turns an {@linkplain Iterable} into a {@linkplain List} that can be split without copying.
+	 * @param values the {@linkplain Iterable}
+	 * @param <T> the type of the elements
+	 * @return the {@linkplain Iterable} itself if it already is a random access {@linkplain List}, else a copy
+	 * @since 2.1.0
+	 */
+	static final <T>List<T> toList(Iterable<T> values) {
+		
+		if(values instanceof List && values instanceof RandomAccess) {
+			
+			return (List<T>)values;
+		
+		} else if(values instanceof Collection) {
+			
+			return new ArrayList<>((Collection<T>)values);
+		}
+		
+		List<T> list = new ArrayList<>();
+		values.forEach(list::add);
+		return list;
+	}
+	
+	/**
+	 * Splits the list into chunks and processes them with the given {@linkplain ExecutorService}.
+	 * @param values the list
+	 * @param executor the {@linkplain ExecutorService}
+	 * @param task processes a chunk
+	 * @param <T> the type of the elements
+	 * @param <R> the type of the result
+	 * @return the results of the chunks in the order of the chunks
+	 * @throws FIQLException if one of the chunks could not be processed or the thread was interrupted
+	 * @since 2.1.0
+	 */
+	static final <T, R>List<R> process(List<T> values, ExecutorService executor, Task<T, R> task) throws FIQLException {
+		
+		int threads = executor instanceof ForkJoinPool ? ((ForkJoinPool)executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+		int chunks = Math.max(1, Math.min(values.size(), threads * FIQLParallel.CHUNKS_PER_THREAD));
+		List<Callable<R>> tasks = new ArrayList<>(chunks);
+		
+		for(int chunk = 0; chunk < chunks; chunk++) {
+			
+			List<T> sublist = values.subList((int)((long)values.size() * chunk / chunks), (int)((long)values.size() * (chunk + 1) / chunks));
+			tasks.add(() -> task.process(sublist));
+		}
+		
+		try {
+			
+			List<R> results = new ArrayList<>(chunks);
+			
+			for(Future<R> future : executor.invokeAll(tasks)) {
+				
+				results.add(future.get());
+			}
+			
+			return results;
+		
+		} catch(InterruptedException exception) {
+			
+			Thread.currentThread().interrupt();
+			throw new FIQLException(exception);
+		
+		} catch(ExecutionException exception) {
+			
+			Throwable cause = exception.getCause();
+			
+			       if(cause instanceof FIQLException)    {throw (FIQLException)cause;
+			} else if(cause instanceof RuntimeException) {throw (RuntimeException)cause;
+			} else if(cause instanceof Error)            {throw (Error)cause;
+			}
+			
+			throw new FIQLException(exception);
+		}
+	}
+}
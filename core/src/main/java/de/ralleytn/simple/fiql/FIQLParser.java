@@ -0,0 +1,231 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.ralleytn.simple.fiql.FIQLTokenizer.Token;
+
+/**
+ * Turns a FIQL-Query into a tree of {@linkplain FIQLNode}s.
+ * This is a recursive descent parser that reads the tokens of the FIQL-Query exactly once.
+ * It descends once per opening parenthesis, which is why the depth is limited to {@linkplain FIQL#MAX_DEPTH}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLParser {
+	
+	private final FIQLTokenizer tokenizer;
+	private final Map<String, Integer> slots = new LinkedHashMap<>();
+	private int depth;
+	
+	private FIQLParser(String fiql) {
+		
+		this.tokenizer = new FIQLTokenizer(fiql);
+	}
+	
+	/**
+	 * Parses a FIQL-Query.
+	 * @param fiql FIQL-Query
+	 * @return the compiled FIQL-Query
+	 * @throws FIQLException if something is wrong with the FIQL-Query
+	 * @since 2.1.0
+	 */
+	static final FIQLQuery parse(String fiql) throws FIQLException {
+		
+		FIQLParser parser = new FIQLParser(fiql);
+		parser.tokenizer.next();
+		FIQLNode root = parser.parseOr();
+		
+		if(parser.tokenizer.getToken() == Token.CLOSE) {
+			
+			throw new FIQLException("One ')' too much!", parser.tokenizer.getPosition());
+		
+		} else if(parser.tokenizer.getToken() != Token.END) {
+			
+			throw parser.unexpected();
+		}
+		
+		return new FIQLQuery(fiql, root, parser.slots.keySet().toArray(new String[parser.slots.size()]));
+	}
+	
+	private final FIQLNode parseOr() throws FIQLException {
+		
+		FIQLNode node = this.parseAnd();
+		
+		if(this.tokenizer.getToken() != Token.OR) {
+			
+			return node;
+		}
+		
+		List<FIQLNode> children = new ArrayList<>();
+		FIQLParser.addOr(children, node);
+		
+		while(this.tokenizer.getToken() == Token.OR) {
+			
+			this.tokenizer.next();
+			FIQLParser.addOr(children, this.parseAnd());
+		}
+		
+		       if(children.contains(FIQLConstant.TRUE)) {return FIQLConstant.TRUE;
+		} else if(children.isEmpty())                  {return FIQLConstant.FALSE;
+		} else if(children.size() == 1)                {return children.get(0);
+		}
+		
+		return new FIQLOr(children.toArray(new FIQLNode[children.size()]));
+	}
+	
+	private final FIQLNode parseAnd() throws FIQLException {
+		
+		FIQLNode node = this.parseTerm();
+		
+		if(this.tokenizer.getToken() != Token.AND) {
+			
+			return node;
+		}
+		
+		List<FIQLNode> children = new ArrayList<>();
+		FIQLParser.addAnd(children, node);
+		
+		while(this.tokenizer.getToken() == Token.AND) {
+			
+			this.tokenizer.next();
+			FIQLParser.addAnd(children, this.parseTerm());
+		}
+		
+		       if(children.contains(FIQLConstant.FALSE)) {return FIQLConstant.FALSE;
+		} else if(children.isEmpty())                   {return FIQLConstant.TRUE;
+		} else if(children.size() == 1)                 {return children.get(0);
+		}
+		
+		return new FIQLAnd(children.toArray(new FIQLNode[children.size()]));
+	}
+	
+	// Nested groups with the same connector are merged into their parent and constants that don't change the result are dropped.
+	// That way the evaluation doesn't have to descend into groups like "(a==1;b==2);c==3".
+	
+	private static final void addOr(List<FIQLNode> children, FIQLNode node) {
+		
+		if(node instanceof FIQLOr) {
+			
+			children.addAll(Arrays.asList(((FIQLOr)node).children));
+		
+		} else if(node != FIQLConstant.FALSE) {
+			
+			children.add(node);
+		}
+	}
+	
+	private static final void addAnd(List<FIQLNode> children, FIQLNode node) {
+		
+		if(node instanceof FIQLAnd) {
+			
+			children.addAll(Arrays.asList(((FIQLAnd)node).children));
+		
+		} else if(node != FIQLConstant.TRUE) {
+			
+			children.add(node);
+		}
+	}
+	
+	private final FIQLNode parseTerm() throws FIQLException {
+		
+		Token token = this.tokenizer.getToken();
+		int position = this.tokenizer.getPosition();
+		
+		if(token == Token.OPEN) {
+			
+			if(++this.depth > FIQL.MAX_DEPTH) {
+				
+				throw new FIQLException("More than " + FIQL.MAX_DEPTH + " nested '('!", position);
+			}
+			
+			this.tokenizer.next();
+			FIQLNode node = this.parseOr();
+			
+			if(this.tokenizer.getToken() != Token.CLOSE) {
+				
+				if(this.tokenizer.getToken() == Token.END) {
+					
+					throw new FIQLException("Unclosed '('!", position);
+				}
+				
+				throw this.unexpected();
+			}
+			
+			this.tokenizer.next();
+			this.depth--;
+			return node;
+		
+		} else if(token == Token.EXPRESSION) {
+			
+			FIQLNode node = this.parseComparison(this.tokenizer.getText(), position);
+			this.tokenizer.next();
+			return node;
+		}
+		
+		throw new FIQLException("Expression is missing!", position);
+	}
+	
+	private final FIQLNode parseComparison(String expression, int position) throws FIQLException {
+		
+		       if(expression.equals("true"))  {return FIQLConstant.TRUE;
+		} else if(expression.equals("false")) {return FIQLConstant.FALSE;
+		}
+		
+		for(FIQLOperator operator : FIQLOperator.values()) {
+			
+			int index = expression.indexOf(operator.symbol);
+			
+			if(index != -1) {
+				
+				String selector = expression.substring(0, index);
+				String literal = expression.substring(index + operator.symbol.length());
+				Integer slot = this.slots.get(selector);
+				
+				if(slot == null) {
+					
+					slot = this.slots.size();
+					this.slots.put(selector, slot);
+				}
+				
+				return new FIQLComparison(selector, slot, operator, new FIQLLiteral(literal, operator.isIgnoreCase(), position));
+			}
+		}
+		
+		throw new FIQLException("Unknown operator!", position);
+	}
+	
+	private final FIQLException unexpected() {
+		
+		Token token = this.tokenizer.getToken();
+		String character = token == Token.OPEN ? "(" : token == Token.CLOSE ? ")" : token == Token.AND ? ";" : token == Token.OR ? "," : this.tokenizer.getText();
+		return new FIQLException("Unexpected '" + character + "'!", this.tokenizer.getPosition());
+	}
+}
@@ -0,0 +1,407 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matches strings against an expression with the wild cards {@code *} and {@code ?}.
+ * The expression is split at the {@code *} wild cards into segments once.
+ * Matching then searches for the segments from left to right without ever going back, no matter how many wild cards there are.
+ * A segment is searched with {@linkplain String#indexOf(String, int)}, or with Knuth-Morris-Pratt in linear time if the case is ignored.
+ * A segment with {@code ?} is searched by its longest part without wild cards and the rest is compared wherever that part is found.
+ * In the worst case, like {@code ?a} in a string of {@code a}, this takes as long as the length of the string times the length of the segment.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLPattern {
+	
+	private static final char ANY = '?';
+	
+	private final String[] segments;
+	private final boolean[][] wildcards;
+	private final int[] gaps;
+	private final boolean ignoreCase;
+	private final boolean contains;
+	private final int[] anchors; // the offset of the longest part without wild cards in each segment
+	private final char[][] needles; // this part, in lower case if the case is ignored, or null if the segment is searched with indexOf
+	private final int[][] tables; // the Knuth-Morris-Pratt table of each needle
+	
+	private FIQLPattern(String[] segments, boolean[][] wildcards, int[] gaps, boolean ignoreCase, boolean contains) {
+		
+		this.segments = segments;
+		this.wildcards = wildcards;
+		this.gaps = gaps;
+		this.ignoreCase = ignoreCase;
+		this.contains = contains;
+		this.anchors = new int[segments.length];
+		this.needles = new char[segments.length][];
+		this.tables = new int[segments.length][];
+		
+		for(int segment = 0; segment < segments.length; segment++) {
+			
+			if(wildcards[segment] != null || ignoreCase) {
+				
+				this.prepare(segment);
+			}
+		}
+	}
+	
+	private final void prepare(int segment) {
+		
+		String text = this.segments[segment];
+		boolean[] wildcard = this.wildcards[segment];
+		int start = 0;
+		int length = 0;
+		
+		for(int index = 0, run = 0; index <= text.length(); index++) {
+			
+			if(index == text.length() || (wildcard != null && wildcard[index])) {
+				
+				if(index - run > length) {
+					
+					start = run;
+					length = index - run;
+				}
+				
+				run = index + 1;
+			}
+		}
+		
+		char[] needle = new char[length];
+		int[] table = new int[length];
+		
+		for(int index = 0; index < length; index++) {
+			
+			needle[index] = this.fold(text.charAt(start + index));
+		}
+		
+		for(int index = 1, matched = 0; index < length; index++) {
+			
+			while(matched > 0 && needle[index] != needle[matched]) {
+				
+				matched = table[matched - 1];
+			}
+			
+			if(needle[index] == needle[matched]) {
+				
+				matched++;
+			}
+			
+			table[index] = matched;
+		}
+		
+		this.anchors[segment] = start;
+		this.needles[segment] = needle;
+		this.tables[segment] = table;
+	}
+	
+	/**
+	 * Compiles an expression.
+	 * A {@code *} stands for at least one character and a {@code ?} for exactly one.
+	 * Both can be escaped with a {@code \}, as can the {@code \} itself.
+	 * The escape sequences {@code \n}, {@code \t}, {@code \r}, {@code \b} and {@code \f} are replaced with their control characters.
+	 * @param expression the decoded expression
+	 * @param ignoreCase {@code true} if the case of the characters should be ignored
+	 * @param contains {@code true} if the expression may be found anywhere in a string, {@code false} if it has to match the whole string
+	 * @return the compiled expression
+	 * @since 2.1.0
+	 */
+	static final FIQLPattern compile(String expression, boolean ignoreCase, boolean contains) {
+		
+		List<String> segments = new ArrayList<>();
+		List<boolean[]> wildcards = new ArrayList<>();
+		List<Integer> gaps = new ArrayList<>();
+		StringBuilder segment = new StringBuilder();
+		StringBuilder mask = new StringBuilder();
+		int stars = 0;
+		
+		for(int index = 0; index < expression.length(); index++) {
+			
+			char character = expression.charAt(index);
+			boolean wildcard = false;
+			
+			if(character == '\\') {
+				
+				if(++index >= expression.length()) {
+					
+					break;
+				}
+				
+				character = FIQLPattern.unescape(expression.charAt(index));
+			
+			} else if(character == '*') {
+				
+				stars++;
+				continue;
+			
+			} else if(character == FIQLPattern.ANY) {
+				
+				wildcard = true;
+			}
+			
+			if(stars > 0) {
+				
+				FIQLPattern.addSegment(segments, wildcards, segment, mask);
+				gaps.add(stars);
+				stars = 0;
+			}
+			
+			segment.append(character);
+			mask.append(wildcard ? '1' : '0');
+		}
+		
+		FIQLPattern.addSegment(segments, wildcards, segment, mask);
+		
+		if(stars > 0) {
+			
+			gaps.add(stars);
+			FIQLPattern.addSegment(segments, wildcards, segment, mask);
+		}
+		
+		int[] gapArray = new int[gaps.size()];
+		
+		for(int index = 0; index < gapArray.length; index++) {
+			
+			gapArray[index] = gaps.get(index);
+		}
+		
+		return new FIQLPattern(segments.toArray(new String[segments.size()]), wildcards.toArray(new boolean[wildcards.size()][]), gapArray, ignoreCase, contains);
+	}
+	
+	private static final void addSegment(List<String> segments, List<boolean[]> wildcards, StringBuilder segment, StringBuilder mask) {
+		
+		boolean[] wildcard = null;
+		
+		if(mask.indexOf("1") != -1) {
+			
+			wildcard = new boolean[mask.length()];
+			
+			for(int index = 0; index < wildcard.length; index++) {
+				
+				wildcard[index] = mask.charAt(index) == '1';
+			}
+		}
+		
+		segments.add(segment.toString());
+		wildcards.add(wildcard);
+		segment.setLength(0);
+		mask.setLength(0);
+	}
+	
+	private static final char unescape(char character) {
+		
+		       if(character == 'n') {return '\n';
+		} else if(character == 't') {return '\t';
+		} else if(character == 'r') {return '\r';
+		} else if(character == 'b') {return '\b';
+		} else if(character == 'f') {return '\f';
+		}
+		
+		return character;
+	}
+	
+	/**
+	 * @param string the string
+	 * @return {@code true} if the string matches the expression
+	 * @since 2.1.0
+	 */
+	boolean matches(String string) {
+		
+		int last = this.segments.length - 1;
+		int start = 0;
+		int end = string.length();
+		int first = 0;
+		
+		if(!this.contains) {
+			
+			if(last == 0) {
+				
+				return string.length() == this.segments[0].length() && this.matchesAt(string, 0, 0);
+			}
+			
+			// The first and the last segment are anchored to the start and the end of the string.
+			if(!this.matchesAt(string, 0, 0)) {
+				
+				return false;
+			}
+			
+			start = this.segments[0].length();
+			end = string.length() - this.segments[last].length();
+			
+			if(end < start || !this.matchesAt(string, last, end)) {
+				
+				return false;
+			}
+			
+			first = 1;
+			last--;
+		}
+		
+		for(int segment = first; segment <= last; segment++) {
+			
+			int index = this.find(string, segment, start + (segment > 0 ? this.gaps[segment - 1] : 0), end);
+			
+			if(index == -1) {
+				
+				return false;
+			}
+			
+			start = index + this.segments[segment].length();
+		}
+		
+		return this.contains || end - start >= this.gaps[last];
+	}
+	
+	/**
+	 * @return {@code true} if the expression contains no wild cards
+	 * @since 2.1.0
+	 */
+	boolean isLiteral() {
+		
+		return this.segments.length == 1 && this.wildcards[0] == null;
+	}
+	
+	/**
+	 * @return the parts of the expression that have to appear literally in a matching string
+	 * @since 2.1.0
+	 */
+	String[] getSegments() {
+		
+		return this.segments.clone();
+	}
+	
+	/**
+	 * @return the parts of the expression that have to appear literally in a matching string, split at all wild cards
+	 * @since 2.1.0
+	 */
+	List<String> getRuns() {
+		
+		List<String> runs = new ArrayList<>();
+		
+		for(int segment = 0; segment < this.segments.length; segment++) {
+			
+			String text = this.segments[segment];
+			boolean[] wildcard = this.wildcards[segment];
+			int start = 0;
+			
+			for(int index = 0; wildcard != null && index < text.length(); index++) {
+				
+				if(wildcard[index]) {
+					
+					runs.add(text.substring(start, index));
+					start = index + 1;
+				}
+			}
+			
+			runs.add(text.substring(start));
+		}
+		
+		return runs;
+	}
+	
+	private final int find(String string, int segment, int from, int end) {
+		
+		String text = this.segments[segment];
+		int limit = end - text.length();
+		
+		if(from > limit) {
+			
+			return -1;
+		
+		} else if(this.needles[segment] == null) {
+			
+			int index = string.indexOf(text, from);
+			return index != -1 && index <= limit ? index : -1;
+		}
+		
+		int anchor = this.anchors[segment];
+		char[] needle = this.needles[segment];
+		int[] table = this.tables[segment];
+		
+		if(needle.length == 0) {
+			
+			// The segment consists of nothing but ?
+			return from;
+		}
+		
+		for(int index = from + anchor, stop = limit + anchor + needle.length, matched = 0; index < stop; index++) {
+			
+			char character = this.fold(string.charAt(index));
+			
+			while(matched > 0 && character != needle[matched]) {
+				
+				matched = table[matched - 1];
+			}
+			
+			if(character == needle[matched] && ++matched == needle.length) {
+				
+				int offset = index - anchor - needle.length + 1;
+				
+				if(this.wildcards[segment] == null || this.matchesAt(string, segment, offset)) {
+					
+					return offset;
+				}
+				
+				matched = table[matched - 1];
+			}
+		}
+		
+		return -1;
+	}
+	
+	// Two characters are equal ignoring the case if they are equal after this, just like with String.regionMatches.
+	private final char fold(char character) {
+		
+		return this.ignoreCase ? Character.toLowerCase(Character.toUpperCase(character)) : character;
+	}
+	
+	private final boolean matchesAt(String string, int segment, int offset) {
+		
+		String text = this.segments[segment];
+		boolean[] wildcard = this.wildcards[segment];
+		
+		if(offset < 0 || offset + text.length() > string.length()) {
+			
+			return false;
+		}
+		
+		if(wildcard == null) {
+			
+			return string.regionMatches(this.ignoreCase, offset, text, 0, text.length());
+		}
+		
+		for(int index = 0; index < text.length(); index++) {
+			
+			if(!wildcard[index] && !string.regionMatches(this.ignoreCase, offset + index, text, index, 1)) {
+				
+				return false;
+			}
+		}
+		
+		return true;
+	}
+}
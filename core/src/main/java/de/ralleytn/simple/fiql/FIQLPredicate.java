@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.lang.invoke.MethodHandle;
+import java.util.function.Predicate;
+
+/**
+ * A {@linkplain Predicate} that evaluates a {@linkplain FIQLQuery}.
+ * The {@linkplain FIQLCompiler} creates instances of it that evaluate the values of a single class with a {@linkplain MethodHandle}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @param <T> the type of the values
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLPredicate<T> implements Predicate<T> {
+	
+	private final FIQLQuery query;
+	private final Class<?> type;
+	private final MethodHandle handle;
+	
+	/**
+	 * Creates a {@linkplain Predicate} that evaluates all values with {@link FIQLQuery#test(Object)}.
+	 * @param query the FIQL-Query
+	 * @since 2.1.0
+	 */
+	FIQLPredicate(FIQLQuery query) {
+		
+		this(query, null, null);
+	}
+	
+	/**
+	 * @param query the FIQL-Query
+	 * @param type the class that the {@linkplain MethodHandle} was compiled for
+	 * @param handle the compiled FIQL-Query, which takes an {@linkplain Object} and returns a {@code boolean}, or {@code null}
+	 * @since 2.1.0
+	 */
+	FIQLPredicate(FIQLQuery query, Class<?> type, MethodHandle handle) {
+		
+		this.query = query;
+		this.type = type;
+		this.handle = handle;
+	}
+	
+	/**
+	 * @throws UncheckedFIQLException if the FIQL-Query could not be evaluated against the value
+	 */
+	@Override
+	public final boolean test(T value) {
+		
+		try {
+			
+			// Subclasses of the class may have other getters, so only the exact class is evaluated by the compiled FIQL-Query.
+			return this.handle != null && value != null && value.getClass() == this.type ? this.evaluate(value) : this.query.test(value);
+		
+		} catch(FIQLException exception) {
+			
+			throw new UncheckedFIQLException(exception);
+		}
+	}
+	
+	private final boolean evaluate(Object value) throws FIQLException {
+		
+		try {
+			
+			return (boolean)this.handle.invokeExact(value);
+		
+		} catch(FIQLException | RuntimeException | Error exception) {
+			
+			throw exception;
+		
+		} catch(Throwable throwable) {
+			
+			// Nothing else is thrown by the compiled FIQL-Query.
+			throw new FIQLException(new Exception(throwable));
+		}
+	}
+	
+	@Override
+	public String toString() {
+		
+		return this.query.toString();
+	}
+}
@@ -0,0 +1,653 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A compiled FIQL-Query.
+ * The FIQL-Query is parsed only once and can then be evaluated against any number of values.
+ * Instances of this class are immutable and can be shared between threads.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLQuery {
+	
+	/**
+	 * The number of elements below which the {@code parallelFilter} methods evaluate sequentially.
+	 * @since 2.1.0
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+	
+	private static final ThreadLocal<FIQLObjectContext> CONTEXTS = ThreadLocal.withInitial(FIQLObjectContext::new);
+	
+	private final String fiql;
+	private final FIQLNode root;
+	private final String[] selectors;
+	private volatile Binding binding;
+	private final ClassValue<Predicate<?>> predicates = new ClassValue<Predicate<?>>() {
+		
+		@Override
+		protected Predicate<?> computeValue(Class<?> type) {
+			
+			return FIQLCompiler.compile(FIQLQuery.this, type);
+		}
+	};
+	
+	FIQLQuery(String fiql, FIQLNode root, String[] selectors) {
+		
+		this.fiql = fiql;
+		this.root = root;
+		this.selectors = selectors;
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against an {@linkplain Iterable}.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param <T> the type
+	 * @return all filtered elements
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>List<T> filter(Iterable<T> values) throws FIQLException {
+		
+		List<T> filtered = new ArrayList<>();
+		
+		for(T value : values) {
+			
+			if(this.test(value)) {
+				
+				filtered.add(value);
+			}
+		}
+		
+		return filtered;
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against an {@linkplain Iterable} until the requested page of filtered elements is complete.
+	 * The elements after the last element of the page are not evaluated.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param offset the number of filtered elements to skip
+	 * @param limit the maximum number of filtered elements to return
+	 * @param <T> the type
+	 * @return the filtered elements of the page
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @throws IllegalArgumentException if the offset or the limit is negative
+	 * @since 2.1.0
+	 */
+	public <T>List<T> filter(Iterable<T> values, int offset, int limit) throws FIQLException {
+		
+		if(offset < 0 || limit < 0) {
+			
+			throw new IllegalArgumentException("The offset and the limit must not be negative!");
+		}
+		
+		List<T> filtered = new ArrayList<>(Math.min(limit, 16));
+		Iterator<T> iterator = values.iterator();
+		int skipped = 0;
+		
+		while(filtered.size() < limit && iterator.hasNext()) {
+			
+			T value = iterator.next();
+			
+			if(this.test(value)) {
+				
+				if(skipped < offset) {
+					
+					skipped++;
+				
+				} else {
+					
+					filtered.add(value);
+				}
+			}
+		}
+		
+		return filtered;
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against an {@linkplain Iterable} and returns the first filtered elements in the order of a {@linkplain FIQLSort}.
+	 * Instead of sorting all filtered elements, only the requested number of elements is kept in a bounded heap.
+	 * Filtered elements that are equal by the {@linkplain FIQLSort} are in the same order as in the {@linkplain Iterable}.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param sort the order of the filtered elements
+	 * @param limit the maximum number of filtered elements to return
+	 * @param <T> the type
+	 * @return the first filtered elements in the order of the {@linkplain FIQLSort}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements or the values of the selectors of the
+	 * {@linkplain FIQLSort} could not be read
+	 * @throws IllegalArgumentException if the limit is negative
+	 * @since 2.1.0
+	 */
+	public <T>List<T> filter(Iterable<T> values, FIQLSort sort, int limit) throws FIQLException {
+		
+		if(limit < 0) {
+			
+			throw new IllegalArgumentException("The limit must not be negative!");
+		}
+		
+		return this.top(values, sort, limit).toList();
+	}
+	
+	private final <T>FIQLTopK<T> top(Iterable<T> values, FIQLSort sort, int limit) throws FIQLException {
+		
+		FIQLTopK<T> top = new FIQLTopK<>(sort, limit);
+		long order = 0;
+		
+		if(limit > 0) {
+			
+			for(T value : values) {
+				
+				if(this.test(value)) {
+					
+					top.offer(value, order++);
+				}
+			}
+		}
+		
+		return top;
+	}
+	
+	/**
+	 * Groups the elements of an {@linkplain Iterable} this FIQL-Query is positive for and aggregates their numbers in the same pass,
+	 * without collecting the filtered elements.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param aggregation how to group the filtered elements and which of their numbers to aggregate
+	 * @return the groups in the order their first elements appear in the {@linkplain Iterable}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements or the values of the selectors of the
+	 * {@linkplain FIQLAggregation} could not be read
+	 * @since 2.1.0
+	 */
+	public List<FIQLGroup> aggregate(Iterable<?> values, FIQLAggregation aggregation) throws FIQLException {
+		
+		return this.aggregator(values, aggregation).toList();
+	}
+	
+	private final FIQLAggregator aggregator(Iterable<?> values, FIQLAggregation aggregation) throws FIQLException {
+		
+		FIQLAggregator aggregator = new FIQLAggregator(aggregation);
+		
+		for(Object value : values) {
+			
+			if(this.test(value)) {
+				
+				aggregator.add(value);
+			}
+		}
+		
+		return aggregator;
+	}
+	
+	/**
+	 * Searches the first element of an {@linkplain Iterable} this FIQL-Query is positive for.
+	 * The elements after it are not evaluated.
+	 * @param values {@linkplain Iterable} to search
+	 * @param <T> the type
+	 * @return the first filtered element or an empty {@linkplain Optional} if there is none
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>Optional<T> findFirst(Iterable<T> values) throws FIQLException {
+		
+		for(T value : values) {
+			
+			if(this.test(value)) {
+				
+				return Optional.of(value);
+			}
+		}
+		
+		return Optional.empty();
+	}
+	
+	/**
+	 * Checks whether this FIQL-Query is positive for at least one element of an {@linkplain Iterable}.
+	 * The elements after the first positive one are not evaluated.
+	 * @param values {@linkplain Iterable} to search
+	 * @return {@code true} if one of the elements is positive, else {@code false}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public boolean anyMatch(Iterable<?> values) throws FIQLException {
+		
+		return this.findFirst(values).isPresent();
+	}
+	
+	/**
+	 * Counts the elements of an {@linkplain Iterable} this FIQL-Query is positive for, without collecting them.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @return the number of filtered elements
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public long count(Iterable<?> values) throws FIQLException {
+		
+		long count = 0;
+		
+		for(Object value : values) {
+			
+			if(this.test(value)) {
+				
+				count++;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Filters a {@linkplain Stream} with this FIQL-Query.
+	 * Like every intermediate operation of a {@linkplain Stream}, the elements are only evaluated when the terminal operation requests them.
+	 * @param values {@linkplain Stream} to filter
+	 * @param <T> the type
+	 * @return a {@linkplain Stream} of the filtered elements, which throws an {@linkplain UncheckedFIQLException} if the FIQL-Query
+	 * could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>Stream<T> filter(Stream<T> values) {
+		
+		return values.filter(this.asPredicate());
+	}
+	
+	/**
+	 * Filters an {@linkplain Iterator} with this FIQL-Query.
+	 * An element is only evaluated when the next filtered element is requested, so nothing is collected in memory.
+	 * @param values {@linkplain Iterator} to filter
+	 * @param <T> the type
+	 * @return an {@linkplain Iterator} over the filtered elements, which throws an {@linkplain UncheckedFIQLException} if the FIQL-Query
+	 * could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>Iterator<T> filter(Iterator<T> values) {
+		
+		return new FIQLFilterIterator<>(values, this.asPredicate());
+	}
+	
+	/**
+	 * Creates a view of the elements of an {@linkplain Iterable} that this FIQL-Query is positive for.
+	 * Unlike {@link #filter(Iterable)}, nothing is evaluated until the view is iterated and the elements are evaluated again each time it is
+	 * iterated, so it always reflects the current content of the {@linkplain Iterable}.
+	 * @param values {@linkplain Iterable} to filter
+	 * @param <T> the type
+	 * @return the view, whose {@linkplain Iterator}s throw an {@linkplain UncheckedFIQLException} if the FIQL-Query could not be evaluated
+	 * against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>Iterable<T> filterLazily(Iterable<T> values) {
+		
+		return () -> this.filter(values.iterator());
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against an {@linkplain Iterable} in parallel, using the common {@linkplain ForkJoinPool}.
+	 * The filtered elements are in the same order as in the {@linkplain Iterable}.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param <T> the type
+	 * @return all filtered elements
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>List<T> parallelFilter(Iterable<T> values) throws FIQLException {
+		
+		return this.parallelFilter(values, ForkJoinPool.commonPool(), FIQLQuery.DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against an {@linkplain Iterable} in parallel.
+	 * The filtered elements are in the same order as in the {@linkplain Iterable}.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param executor the {@linkplain ExecutorService} that evaluates the chunks of the {@linkplain Iterable}, for example a {@linkplain ForkJoinPool}
+	 * @param <T> the type
+	 * @return all filtered elements
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>List<T> parallelFilter(Iterable<T> values, ExecutorService executor) throws FIQLException {
+		
+		return this.parallelFilter(values, executor, FIQLQuery.DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against an {@linkplain Iterable} in parallel.
+	 * The filtered elements are in the same order as in the {@linkplain Iterable}.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param executor the {@linkplain ExecutorService} that evaluates the chunks of the {@linkplain Iterable}, for example a {@linkplain ForkJoinPool}
+	 * @param threshold the number of elements below which the {@linkplain Iterable} is evaluated sequentially in the calling thread
+	 * @param <T> the type
+	 * @return all filtered elements
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements
+	 * @since 2.1.0
+	 */
+	public <T>List<T> parallelFilter(Iterable<T> values, ExecutorService executor, int threshold) throws FIQLException {
+		
+		List<T> list = FIQLParallel.toList(values);
+		
+		if(list.size() < threshold) {
+			
+			return this.filter(list);
+		}
+		
+		List<List<T>> chunks = FIQLParallel.process(list, executor, this::filter);
+		int size = 0;
+		
+		for(List<T> chunk : chunks) {
+			
+			size += chunk.size();
+		}
+		
+		List<T> filtered = new ArrayList<>(size);
+		
+		for(List<T> chunk : chunks) {
+			
+			filtered.addAll(chunk);
+		}
+		
+		return filtered;
+	}
+	
+	/**
+	 * Does the same as {@link #filter(Iterable, FIQLSort, int)} in parallel, using the common {@linkplain ForkJoinPool}.
+	 * Every chunk keeps its own bounded heap and the heaps are merged at the end.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param sort the order of the filtered elements
+	 * @param limit the maximum number of filtered elements to return
+	 * @param <T> the type
+	 * @return the first filtered elements in the order of the {@linkplain FIQLSort}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements or the values of the selectors of the
+	 * {@linkplain FIQLSort} could not be read
+	 * @throws IllegalArgumentException if the limit is negative
+	 * @since 2.1.0
+	 */
+	public <T>List<T> parallelFilter(Iterable<T> values, FIQLSort sort, int limit) throws FIQLException {
+		
+		return this.parallelFilter(values, sort, limit, ForkJoinPool.commonPool(), FIQLQuery.DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Does the same as {@link #filter(Iterable, FIQLSort, int)} in parallel.
+	 * Every chunk keeps its own bounded heap and the heaps are merged at the end.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param sort the order of the filtered elements
+	 * @param limit the maximum number of filtered elements to return
+	 * @param executor the {@linkplain ExecutorService} that evaluates the chunks of the {@linkplain Iterable}, for example a {@linkplain ForkJoinPool}
+	 * @param threshold the number of elements below which the {@linkplain Iterable} is evaluated sequentially in the calling thread
+	 * @param <T> the type
+	 * @return the first filtered elements in the order of the {@linkplain FIQLSort}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements or the values of the selectors of the
+	 * {@linkplain FIQLSort} could not be read
+	 * @throws IllegalArgumentException if the limit is negative
+	 * @since 2.1.0
+	 */
+	public <T>List<T> parallelFilter(Iterable<T> values, FIQLSort sort, int limit, ExecutorService executor, int threshold) throws FIQLException {
+		
+		List<T> list = FIQLParallel.toList(values);
+		
+		if(limit < 0) {
+			
+			throw new IllegalArgumentException("The limit must not be negative!");
+		
+		} else if(list.size() < threshold || limit == 0) {
+			
+			return this.filter(list, sort, limit);
+		}
+		
+		List<FIQLTopK<T>> chunks = FIQLParallel.process(list, executor, chunk -> this.top(chunk, sort, limit));
+		FIQLTopK<T> top = new FIQLTopK<>(sort, limit);
+		
+		for(int chunk = 0; chunk < chunks.size(); chunk++) {
+			
+			top.merge(chunks.get(chunk), chunk);
+		}
+		
+		return top.toList();
+	}
+	
+	/**
+	 * Does the same as {@link #aggregate(Iterable, FIQLAggregation)} in parallel, using the common {@linkplain ForkJoinPool}.
+	 * Every chunk is aggregated on its own and the groups of the chunks are merged at the end.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param aggregation how to group the filtered elements and which of their numbers to aggregate
+	 * @return the groups in the order their first elements appear in the {@linkplain Iterable}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements or the values of the selectors of the
+	 * {@linkplain FIQLAggregation} could not be read
+	 * @since 2.1.0
+	 */
+	public List<FIQLGroup> parallelAggregate(Iterable<?> values, FIQLAggregation aggregation) throws FIQLException {
+		
+		return this.parallelAggregate(values, aggregation, ForkJoinPool.commonPool(), FIQLQuery.DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Does the same as {@link #aggregate(Iterable, FIQLAggregation)} in parallel.
+	 * Every chunk is aggregated on its own and the groups of the chunks are merged at the end.
+	 * @param values {@linkplain Iterable} to evaluate against
+	 * @param aggregation how to group the filtered elements and which of their numbers to aggregate
+	 * @param executor the {@linkplain ExecutorService} that evaluates the chunks of the {@linkplain Iterable}, for example a {@linkplain ForkJoinPool}
+	 * @param threshold the number of elements below which the {@linkplain Iterable} is evaluated sequentially in the calling thread
+	 * @return the groups in the order their first elements appear in the {@linkplain Iterable}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the elements or the values of the selectors of the
+	 * {@linkplain FIQLAggregation} could not be read
+	 * @since 2.1.0
+	 */
+	public List<FIQLGroup> parallelAggregate(Iterable<?> values, FIQLAggregation aggregation, ExecutorService executor, int threshold) throws FIQLException {
+		
+		List<?> list = FIQLParallel.toList(values);
+		
+		if(list.size() < threshold) {
+			
+			return this.aggregate(list, aggregation);
+		}
+		
+		FIQLAggregator aggregator = new FIQLAggregator(aggregation);
+		
+		for(FIQLAggregator chunk : FIQLParallel.process(list, executor, chunk -> this.aggregator(chunk, aggregation))) {
+			
+			aggregator.merge(chunk);
+		}
+		
+		return aggregator.toList();
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against an {@linkplain Object}.
+	 * The values of the selectors are read from the getters marked with {@linkplain FIQLValue}.
+	 * The getters of a class are looked up only once and then cached.
+	 * Only the getters of the selectors this FIQL-Query actually compares are called and each of them at most once.
+	 * Apart from boxing the values of getters with primitive return types, nothing is allocated per evaluation.
+	 * If the {@linkplain Object} is a {@linkplain Map}, {@link #test(Map)} is called instead.
+	 * @param value {@linkplain Object} to evaluate against
+	 * @return {@code true}, if the {@linkplain Object} is positive, else {@code false}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against the {@linkplain Object}
+	 * @since 2.1.0
+	 */
+	public boolean test(Object value) throws FIQLException {
+		
+		if(value instanceof Map) {
+			
+			return this.test((Map<?, ?>)value);
+		}
+		
+		FIQLAccessor[] accessors = this.bind(value.getClass());
+		FIQLObjectContext context = FIQLQuery.CONTEXTS.get();
+		
+		if(context.isInUse()) {
+			
+			return this.root.test(new FIQLObjectContext(accessors, value));
+		}
+		
+		context.reset(accessors, value);
+		
+		try {
+			
+			return this.root.test(context);
+		
+		} finally {
+			
+			context.release();
+		}
+	}
+	
+	/**
+	 * Evaluates this FIQL-Query against a {@linkplain Map}.
+	 * Nothing is allocated per evaluation.
+	 * @param value {@linkplain Map} to evaluate against
+	 * @return {@code true}, if the {@linkplain Map} is positive, else {@code false}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against the {@linkplain Map}
+	 * @since 2.1.0
+	 */
+	public boolean test(Map<?, ?> value) throws FIQLException {
+		
+		FIQLObjectContext context = FIQLQuery.CONTEXTS.get();
+		
+		if(context.isInUse()) {
+			
+			return this.root.test(new FIQLObjectContext(value));
+		}
+		
+		context.reset(value);
+		
+		try {
+			
+			return this.root.test(context);
+		
+		} finally {
+			
+			context.release();
+		}
+	}
+	
+	/**
+	 * @param <T> the type of the values
+	 * @return a {@linkplain Predicate} that calls {@link #test(Object)}, which throws an {@linkplain UncheckedFIQLException} if it could
+	 * not evaluate a value
+	 * @since 2.1.0
+	 */
+	public <T>Predicate<T> asPredicate() {
+		
+		return new FIQLPredicate<>(this);
+	}
+	
+	/**
+	 * Compiles this FIQL-Query for a class into a {@linkplain java.lang.invoke.MethodHandle}.
+	 * The returned {@linkplain Predicate} calls the getters marked with {@linkplain FIQLValue} directly and compares integers, floating
+	 * point numbers and booleans without boxing them. All other comparisons are evaluated like by {@link #test(Object)}, which is also
+	 * used for values of any other class, including subclasses, and for all values if the class cannot be compiled, for example because
+	 * it is not public. The results are always the same as those of {@link #test(Object)}.
+	 * <p>
+	 * A getter is called once for every comparison of its selector that is evaluated.
+	 * The FIQL-Query is compiled only once per class and no class is defined for it, so it can be garbage collected as usual.
+	 * Compiling is more expensive than parsing though, so this is meant for FIQL-Queries that are evaluated very often.
+	 * Further calls with the same class return the same {@linkplain Predicate}.
+	 * @param type the class
+	 * @param <T> the type
+	 * @return the {@linkplain Predicate}, which throws an {@linkplain UncheckedFIQLException} if it could not evaluate a value
+	 * @since 2.1.0
+	 */
+	@SuppressWarnings("unchecked")
+	public <T>Predicate<T> compile(Class<T> type) {
+		
+		return (Predicate<T>)this.predicates.get(type);
+	}
+	
+	/**
+	 * @return all distinct selectors this FIQL-Query compares, in the order they appear in
+	 * @since 2.1.0
+	 */
+	public List<String> getSelectors() {
+		
+		return Collections.unmodifiableList(Arrays.asList(this.selectors));
+	}
+	
+	/**
+	 * @return the root node of this FIQL-Query
+	 * @since 2.1.0
+	 */
+	FIQLNode getRoot() {
+		
+		return this.root;
+	}
+	
+	/**
+	 * Looks up the getters of the selectors of this FIQL-Query for a class.
+	 * The result for the last class is remembered, because most of the time all values are of the same class.
+	 * @param type the class
+	 * @return the getters in the order of the selectors, {@code null} for selectors the class has no getter for
+	 * @since 2.1.0
+	 */
+	FIQLAccessor[] bind(Class<?> type) {
+		
+		Binding binding = this.binding;
+		
+		if(binding == null || binding.type != type) {
+			
+			FIQLAccessors accessors = FIQLAccessors.of(type);
+			FIQLAccessor[] bound = new FIQLAccessor[this.selectors.length];
+			
+			for(int index = 0; index < bound.length; index++) {
+				
+				bound[index] = accessors.get(this.selectors[index]);
+			}
+			
+			binding = new Binding(type, bound);
+			this.binding = binding;
+		}
+		
+		return binding.accessors;
+	}
+	
+	/**
+	 * @return the FIQL-Query this instance was compiled from
+	 * @since 2.1.0
+	 */
+	@Override
+	public String toString() {
+		
+		return this.fiql;
+	}
+	
+	private static final class Binding {
+		
+		private final Class<?> type;
+		private final FIQLAccessor[] accessors;
+		
+		private Binding(Class<?> type, FIQLAccessor[] accessors) {
+			
+			this.type = type;
+			this.accessors = accessors;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size bounded cache of compiled FIQL-Queries, keyed by the FIQL-Query.
+ * When the cache is full, the least recently used FIQL-Query is removed.
+ * Lookups never wait for each other. If the order of use cannot be updated because another thread is doing that at the same time,
+ * the update is skipped, so under heavy load the removed FIQL-Query is only approximately the least recently used one.
+ * Instances of this class can be shared between threads.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLQueryCache {
+	
+	/**
+	 * The capacity of the cache that is used by the {@code FIQL.eval} methods, unless it was changed.
+	 * @since 2.1.0
+	 */
+	public static final int DEFAULT_CAPACITY = 512;
+	
+	private final ConcurrentHashMap<String, Node> queries = new ConcurrentHashMap<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final Node head = new Node(null, null);
+	private volatile int capacity;
+	
+	/**
+	 * @param capacity the maximum number of FIQL-Queries in the cache
+	 * @throws IllegalArgumentException if the capacity is negative
+	 * @since 2.1.0
+	 */
+	public FIQLQueryCache(int capacity) {
+		
+		this.head.previous = this.head;
+		this.head.next = this.head;
+		this.setCapacity(capacity);
+	}
+	
+	/**
+	 * Returns the compiled FIQL-Query from the cache or compiles and caches it if it is not in the cache.
+	 * FIQL-Queries that could not be compiled are not cached.
+	 * @param fiql FIQL-Query
+	 * @return the compiled FIQL-Query
+	 * @throws FIQLException if something is wrong with the FIQL-Query
+	 * @since 2.1.0
+	 */
+	public FIQLQuery get(String fiql) throws FIQLException {
+		
+		Node node = this.queries.get(fiql);
+		
+		if(node != null) {
+			
+			this.hits.increment();
+			
+			if(this.lock.tryLock()) {
+				
+				try {
+					
+					// The node may have been removed in the meantime
+					if(node.next != null) {
+						
+						this.unlink(node);
+						this.link(node);
+					}
+				
+				} finally {
+					
+					this.lock.unlock();
+				}
+			}
+			
+			return node.query;
+		}
+		
+		this.misses.increment();
+		FIQLQuery query = FIQLParser.parse(fiql);
+		
+		if(this.capacity > 0) {
+			
+			this.lock.lock();
+			
+			try {
+				
+				Node existing = this.queries.get(fiql);
+				
+				if(existing != null) {
+					
+					return existing.query;
+				}
+				
+				node = new Node(fiql, query);
+				this.queries.put(fiql, node);
+				this.link(node);
+				this.evict();
+			
+			} finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		return query;
+	}
+	
+	/**
+	 * Sets the maximum number of FIQL-Queries in the cache.
+	 * If there are more FIQL-Queries in the cache, the least recently used ones are removed immediately.
+	 * A capacity of {@code 0} disables the cache.
+	 * @param capacity the maximum number of FIQL-Queries in the cache
+	 * @throws IllegalArgumentException if the capacity is negative
+	 * @since 2.1.0
+	 */
+	public void setCapacity(int capacity) {
+		
+		if(capacity < 0) {
+			
+			throw new IllegalArgumentException("The capacity must not be negative!");
+		}
+		
+		this.lock.lock();
+		
+		try {
+			
+			this.capacity = capacity;
+			this.evict();
+		
+		} finally {
+			
+			this.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Removes all FIQL-Queries from the cache.
+	 * The counters are not reset.
+	 * @since 2.1.0
+	 */
+	public void clear() {
+		
+		this.lock.lock();
+		
+		try {
+			
+			while(this.head.previous != this.head) {
+				
+				Node node = this.head.previous;
+				this.queries.remove(node.fiql);
+				this.unlink(node);
+			}
+		
+		} finally {
+			
+			this.lock.unlock();
+		}
+	}
+	
+	private final void evict() {
+		
+		while(this.queries.size() > this.capacity) {
+			
+			Node eldest = this.head.previous;
+			this.queries.remove(eldest.fiql);
+			this.unlink(eldest);
+			this.evictions.increment();
+		}
+	}
+	
+	private final void link(Node node) {
+		
+		node.previous = this.head;
+		node.next = this.head.next;
+		this.head.next.previous = node;
+		this.head.next = node;
+	}
+	
+	private final void unlink(Node node) {
+		
+		node.previous.next = node.next;
+		node.next.previous = node.previous;
+		node.previous = null;
+		node.next = null;
+	}
+	
+	/**
+	 * @return the maximum number of FIQL-Queries in the cache
+	 * @since 2.1.0
+	 */
+	public int getCapacity() {
+		
+		return this.capacity;
+	}
+	
+	/**
+	 * @return the number of FIQL-Queries in the cache
+	 * @since 2.1.0
+	 */
+	public int size() {
+		
+		return this.queries.size();
+	}
+	
+	/**
+	 * @return how often a FIQL-Query was found in the cache
+	 * @since 2.1.0
+	 */
+	public long getHits() {
+		
+		return this.hits.sum();
+	}
+	
+	/**
+	 * @return how often a FIQL-Query was not found in the cache and had to be compiled
+	 * @since 2.1.0
+	 */
+	public long getMisses() {
+		
+		return this.misses.sum();
+	}
+	
+	/**
+	 * @return how often a FIQL-Query was removed from the cache to make room for another one
+	 * @since 2.1.0
+	 */
+	public long getEvictions() {
+		
+		return this.evictions.sum();
+	}
+	
+	@Override
+	public String toString() {
+		
+		return "FIQLQueryCache[size=" + this.size() + ", capacity=" + this.capacity + ", hits=" + this.getHits() + ", misses=" + this.getMisses() + ", evictions=" + this.getEvictions() + "]";
+	}
+	
+	// Entry of the doubly linked list that keeps the FIQL-Queries in the order of their use. Only changed while holding the lock.
+	private static final class Node {
+		
+		final String fiql;
+		final FIQLQuery query;
+		Node previous;
+		Node next;
+		
+		Node(String fiql, FIQLQuery query) {
+			
+			this.fiql = fiql;
+			this.query = query;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of row numbers of a {@linkplain FIQLIndexedCollection}.
+ * If the set is a complement, it contains all rows except the stored ones.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLRows {
+	
+	/**
+	 * All rows.
+	 * @since 2.1.0
+	 */
+	static final FIQLRows ALL = new FIQLRows(FIQLBitmap.EMPTY, true);
+	
+	/**
+	 * No rows.
+	 * @since 2.1.0
+	 */
+	static final FIQLRows NONE = new FIQLRows(FIQLBitmap.EMPTY, false);
+	
+	final FIQLBitmap rows;
+	final boolean complement;
+	
+	/**
+	 * @param rows the rows
+	 * @param complement {@code true} if the set contains all rows except the given ones
+	 * @since 2.1.0
+	 */
+	FIQLRows(FIQLBitmap rows, boolean complement) {
+		
+		this.rows = rows;
+		this.complement = complement;
+	}
+	
+	/**
+	 * @return {@code true} if the set contains all rows
+	 * @since 2.1.0
+	 */
+	boolean isAll() {
+		
+		return this.complement && this.rows.isEmpty();
+	}
+	
+	/**
+	 * @return {@code true} if the set contains no rows
+	 * @since 2.1.0
+	 */
+	boolean isNone() {
+		
+		return !this.complement && this.rows.isEmpty();
+	}
+	
+	/**
+	 * @param other another set
+	 * @return the intersection of both sets
+	 * @since 2.1.0
+	 */
+	FIQLRows and(FIQLRows other) {
+		
+		       if(!this.complement && !other.complement) {return new FIQLRows(this.rows.and(other.rows), false);
+		} else if(!this.complement)                      {return new FIQLRows(this.rows.andNot(other.rows), false);
+		} else if(!other.complement)                     {return new FIQLRows(other.rows.andNot(this.rows), false);
+		} else                                           {return new FIQLRows(this.rows.or(other.rows), true);
+		}
+	}
+	
+	/**
+	 * @param other another set
+	 * @return the union of both sets
+	 * @since 2.1.0
+	 */
+	FIQLRows or(FIQLRows other) {
+		
+		       if(!this.complement && !other.complement) {return new FIQLRows(this.rows.or(other.rows), false);
+		} else if(!this.complement)                      {return new FIQLRows(other.rows.andNot(this.rows), true);
+		} else if(!other.complement)                     {return new FIQLRows(this.rows.andNot(other.rows), true);
+		} else                                           {return new FIQLRows(this.rows.and(other.rows), true);
+		}
+	}
+	
+	/**
+	 * @param size the number of rows in the collection
+	 * @return the rows of this set as bitmap
+	 * @since 2.1.0
+	 */
+	FIQLBitmap toBitmap(int size) {
+		
+		return this.complement ? FIQLBitmap.range(0, size).andNot(this.rows) : this.rows;
+	}
+	
+	/**
+	 * Collects rows.
+	 * @since 2.1.0
+	 */
+	static final class Builder {
+		
+		private int[] rows = new int[8];
+		private int size;
+		private boolean sorted = true;
+		
+		/**
+		 * Adds a row, unless it is the same as the last one.
+		 * @param row the row
+		 * @since 2.1.0
+		 */
+		void add(int row) {
+			
+			if(this.size > 0 && this.rows[this.size - 1] == row) {
+				
+				return;
+			}
+			
+			if(this.size == this.rows.length) {
+				
+				this.rows = Arrays.copyOf(this.rows, this.size * 2);
+			}
+			
+			this.sorted &= this.size == 0 || this.rows[this.size - 1] < row;
+			this.rows[this.size++] = row;
+		}
+		
+		/**
+		 * @param rows the rows
+		 * @param from the index of the first row to add
+		 * @param to the index after the last row to add
+		 * @since 2.1.0
+		 */
+		void addAll(int[] rows, int from, int to) {
+			
+			int length = to - from;
+			
+			if(this.size + length > this.rows.length) {
+				
+				this.rows = Arrays.copyOf(this.rows, Math.max(this.size + length, this.size * 2));
+			}
+			
+			System.arraycopy(rows, from, this.rows, this.size, length);
+			this.sorted &= length == 0;
+			this.size += length;
+		}
+		
+		/**
+		 * @return the number of rows, including the duplicates
+		 * @since 2.1.0
+		 */
+		int size() {
+			
+			return this.size;
+		}
+		
+		/**
+		 * @return the rows in the order they were added
+		 * @since 2.1.0
+		 */
+		int[] array() {
+			
+			return this.rows;
+		}
+		
+		/**
+		 * @return the rows as bitmap
+		 * @since 2.1.0
+		 */
+		FIQLBitmap build() {
+			
+			if(this.sorted) {
+				
+				return FIQLBitmap.of(this.rows, this.size);
+			}
+			
+			int[] rows = Arrays.copyOf(this.rows, this.size);
+			Arrays.sort(rows);
+			int length = 0;
+			
+			for(int index = 0; index < rows.length; index++) {
+				
+				if(length == 0 || rows[length - 1] != rows[index]) {
+					
+					rows[length++] = rows[index];
+				}
+			}
+			
+			return FIQLBitmap.of(rows, length);
+		}
+	}
+}
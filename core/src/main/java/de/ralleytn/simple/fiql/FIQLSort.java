@@ -0,0 +1,277 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The order of the elements returned by {@link FIQLQuery#filter(Iterable, FIQLSort, int)}.
+ * It is written as a comma separated list of selectors, each optionally prefixed with {@code +} for ascending (the default)
+ * or {@code -} for descending order, for example {@code last_name,-income}.
+ * The elements are compared by the first selector, then by the second one if the first one is equal, and so on.
+ * <p>
+ * Numbers are compared exactly by their value and dates by their time, even if they are of different classes.
+ * All other values are compared by their {@code toString()}.
+ * Numbers come before dates and dates come before everything else, {@code null} always comes last.
+ * Instances of this class are immutable and can be shared between threads.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLSort {
+	
+	private static final int NUMBER = 0;
+	private static final int TIME = 1;
+	private static final int OTHER = 2;
+	
+	private final String sort;
+	private final String[] selectors;
+	private final boolean[] descending;
+	private final ZoneId zone;
+	
+	private FIQLSort(String sort, String[] selectors, boolean[] descending) {
+		
+		this.sort = sort;
+		this.selectors = selectors;
+		this.descending = descending;
+		this.zone = ZoneId.systemDefault();
+	}
+	
+	/**
+	 * Parses a sort specification like {@code last_name,-income}.
+	 * @param sort the sort specification
+	 * @return the parsed sort specification
+	 * @throws FIQLException if one of the selectors is empty
+	 * @since 2.1.0
+	 */
+	public static final FIQLSort parse(String sort) throws FIQLException {
+		
+		String[] keys = sort.split(",", -1);
+		String[] selectors = new String[keys.length];
+		boolean[] descending = new boolean[keys.length];
+		int position = 0;
+		
+		for(int index = 0; index < keys.length; index++) {
+			
+			String key = keys[index];
+			descending[index] = key.startsWith("-");
+			selectors[index] = key.startsWith("-") || key.startsWith("+") ? key.substring(1) : key;
+			
+			if(selectors[index].isEmpty()) {
+				
+				throw new FIQLException("The selector of the sort key is missing!", position);
+			}
+			
+			position += key.length() + 1;
+		}
+		
+		return new FIQLSort(sort, selectors, descending);
+	}
+	
+	/**
+	 * @return the selectors in the order they are compared in
+	 * @since 2.1.0
+	 */
+	public List<String> getSelectors() {
+		
+		return Collections.unmodifiableList(Arrays.asList(this.selectors));
+	}
+	
+	/**
+	 * @param index the index of the selector
+	 * @return {@code true} if the selector is sorted in descending order
+	 * @since 2.1.0
+	 */
+	public boolean isDescending(int index) {
+		
+		return this.descending[index];
+	}
+	
+	/**
+	 * @return the number of selectors
+	 * @since 2.1.0
+	 */
+	int size() {
+		
+		return this.selectors.length;
+	}
+	
+	/**
+	 * Reads the values of all selectors of an element.
+	 * @param value a {@linkplain java.util.Map} or an {@linkplain Object} with getters marked with {@linkplain FIQLValue}
+	 * @param keys receives the values in the order of the selectors
+	 * @throws FIQLException if a getter could not be called or threw an exception
+	 * @since 2.1.0
+	 */
+	void read(Object value, Object[] keys) throws FIQLException {
+		
+		for(int index = 0; index < this.selectors.length; index++) {
+			
+			keys[index] = FIQLAccessors.read(value, this.selectors[index]);
+		}
+	}
+	
+	/**
+	 * Compares the values that {@link #read(Object, Object[])} read from two elements.
+	 * @param keys the values of the first element
+	 * @param others the values of the second element
+	 * @return a negative number, zero or a positive number if the first element comes before, together with or after the second one
+	 * @since 2.1.0
+	 */
+	int compare(Object[] keys, Object[] others) {
+		
+		for(int index = 0; index < keys.length; index++) {
+			
+			Object key = keys[index];
+			Object other = others[index];
+			
+			if(key == null || other == null) {
+				
+				if(key != other) {
+					
+					return key == null ? 1 : -1;
+				}
+			
+			} else {
+				
+				int comparison = this.compareValues(key, other);
+				
+				if(comparison != 0) {
+					
+					return this.descending[index] ? -comparison : comparison;
+				}
+			}
+		}
+		
+		return 0;
+	}
+	
+	private final int compareValues(Object value, Object other) {
+		
+		int category = FIQLSort.category(value);
+		int otherCategory = FIQLSort.category(other);
+		
+		       if(category != otherCategory)   {return Integer.compare(category, otherCategory);
+		} else if(category == FIQLSort.NUMBER) {return FIQLSort.compareNumbers((Number)value, (Number)other);
+		} else if(category == FIQLSort.TIME)   {return Long.compare(FIQLLiteral.toTime(value, this.zone), FIQLLiteral.toTime(other, this.zone));
+		}
+		
+		return value.toString().compareTo(other.toString());
+	}
+	
+	private static final int category(Object value) {
+		
+		       if(value instanceof Number)   {return FIQLSort.NUMBER;
+		} else if(FIQLLiteral.isTime(value)) {return FIQLSort.TIME;
+		}
+		
+		return FIQLSort.OTHER;
+	}
+	
+	private static final int compareNumbers(Number value, Number other) {
+		
+		if(FIQLSort.isInteger(value) && FIQLSort.isInteger(other)) {
+			
+			return Long.compare(value.longValue(), other.longValue());
+		}
+		
+		// -Infinity < finite numbers < Infinity < NaN, just like Double.compare(double, double) except that -0.0 equals 0.0
+		int rank = FIQLSort.rank(value);
+		int otherRank = FIQLSort.rank(other);
+		
+		if(rank != otherRank || rank != 0) {
+			
+			return Integer.compare(rank, otherRank);
+		
+		} else if(!FIQLSort.isDecimal(value) && !FIQLSort.isDecimal(other) && !FIQLSort.isInteger(value) && !FIQLSort.isInteger(other)) {
+			
+			double number = value.doubleValue();
+			double otherNumber = other.doubleValue();
+			return number < otherNumber ? -1 : (number > otherNumber ? 1 : 0);
+		}
+		
+		// Mixed classes are compared exactly, because converting them to double could round them
+		return FIQLSort.toDecimal(value).compareTo(FIQLSort.toDecimal(other));
+	}
+	
+	/**
+	 * @param value the number
+	 * @return {@code true} if the number is an integer that fits into a {@code long}
+	 * @since 2.1.0
+	 */
+	static final boolean isInteger(Number value) {
+		
+		return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ||
+			   value instanceof AtomicInteger || value instanceof AtomicLong;
+	}
+	
+	private static final boolean isDecimal(Number value) {
+		
+		return value instanceof BigDecimal || value instanceof BigInteger;
+	}
+	
+	private static final int rank(Number value) {
+		
+		if(FIQLSort.isInteger(value) || FIQLSort.isDecimal(value)) {
+			
+			return 0;
+		}
+		
+		double number = value.doubleValue();
+		
+		       if(Double.isNaN(number))               {return 2;
+		} else if(number == Double.POSITIVE_INFINITY) {return 1;
+		} else if(number == Double.NEGATIVE_INFINITY) {return -1;
+		}
+		
+		return 0;
+	}
+	
+	private static final BigDecimal toDecimal(Number value) {
+		
+		       if(value instanceof BigDecimal) {return (BigDecimal)value;
+		} else if(value instanceof BigInteger) {return new BigDecimal((BigInteger)value);
+		} else if(FIQLSort.isInteger(value))   {return BigDecimal.valueOf(value.longValue());
+		}
+		
+		return new BigDecimal(value.doubleValue());
+	}
+	
+	/**
+	 * @return the sort specification this instance was parsed from
+	 * @since 2.1.0
+	 */
+	@Override
+	public String toString() {
+		
+		return this.sort;
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.Arrays;
+
+/**
+ * Index for the operators {@code <}, {@code <=}, {@code >}, {@code >=} and ranges.
+ * Keeps the numbers and dates sorted, so that all rows in a range can be found with a binary search.
+ * Strings are not indexed, because they are never greater or smaller than an expression.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLSortedIndex extends FIQLIndex {
+	
+	private final Keys numberKeys = new Keys();
+	private final Keys timeKeys = new Keys();
+	
+	/**
+	 * @param selector the selector
+	 * @since 2.1.0
+	 */
+	FIQLSortedIndex(String selector) {
+		
+		super(selector);
+	}
+	
+	@Override
+	void addNull(int row) {}
+	
+	@Override
+	void addNumber(int row, double number) {
+		
+		this.numberKeys.add(FIQLSortedIndex.toKey(number), row);
+	}
+	
+	@Override
+	void addTime(int row, long time) {
+		
+		this.timeKeys.add(time, row);
+	}
+	
+	@Override
+	void addOther(int row, String string) {}
+	
+	@Override
+	int getPriority() {
+		
+		return 1;
+	}
+	
+	@Override
+	FIQLBitmap find(FIQLComparison comparison) {
+		
+		FIQLLiteral literal = comparison.literal;
+		FIQLOperator operator = comparison.operator;
+		FIQLRows.Builder found = new FIQLRows.Builder();
+		
+		if(!operator.isEquality()) {
+			
+			if(!this.canCompare(literal)) {
+				
+				return null;
+			}
+			
+			boolean greater = operator == FIQLOperator.GREATER_THAN || operator == FIQLOperator.GREATER_THAN_OR_EQUAL_TO;
+			double number = literal.number.doubleValue();
+			
+			// The bounds are always inclusive, because the numbers may have been rounded to double
+			if(this.numbers && !Double.isNaN(number)) {
+				
+				long key = FIQLSortedIndex.toKey(number);
+				this.numberKeys.find(greater ? key : Long.MIN_VALUE, greater ? Long.MAX_VALUE : key, found);
+			}
+			
+			if(this.times) {
+				
+				this.timeKeys.find(greater ? literal.time : Long.MIN_VALUE, greater ? Long.MAX_VALUE : literal.time, found);
+			}
+		
+		// Strings are compared with the expression as it is written, that's something this index does not know about.
+		} else if(this.others) {
+			
+			return null;
+		
+		} else if(literal.range != null) {
+			
+			if(!literal.isRange() || (this.numbers && !(literal.numberFrom.isValid() && literal.numberTo.isValid())) || (this.times && !literal.hasTimeRange())) {
+				
+				return null;
+			}
+			
+			double from = literal.numberFrom.doubleValue();
+			double to = literal.numberTo.doubleValue();
+			
+			if(this.numbers && !Double.isNaN(from) && !Double.isNaN(to)) {
+				
+				this.numberKeys.find(FIQLSortedIndex.toKey(from), FIQLSortedIndex.toKey(to), found);
+			}
+			
+			if(this.times) {
+				
+				this.timeKeys.find(literal.timeFrom, literal.timeTo, found);
+			}
+		
+		} else {
+			
+			if((this.nulls && literal.value.equals("null")) || !this.canCompare(literal)) {
+				
+				return null;
+			}
+			
+			double number = literal.number.doubleValue();
+			
+			if(this.numbers && !Double.isNaN(number)) {
+				
+				long key = FIQLSortedIndex.toKey(number);
+				this.numberKeys.find(key, key, found);
+			}
+			
+			if(this.times) {
+				
+				this.timeKeys.find(literal.time, literal.time, found);
+			}
+		}
+		
+		return found.build();
+	}
+	
+	// Turns a double into a long with the same order
+	private static final long toKey(double number) {
+		
+		long bits = Double.doubleToLongBits(number == 0.0 ? 0.0 : number);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+	
+	// Keys with their rows. New keys are appended and only sorted when they are looked up.
+	private static final class Keys {
+		
+		private long[] keys = new long[8];
+		private int[] rows = new int[8];
+		private int size;
+		private volatile boolean sorted = true;
+		
+		private final void add(long key, int row) {
+			
+			if(this.size == this.keys.length) {
+				
+				this.keys = Arrays.copyOf(this.keys, this.size * 2);
+				this.rows = Arrays.copyOf(this.rows, this.size * 2);
+			}
+			
+			if(this.size > 0 && this.keys[this.size - 1] > key) {
+				
+				this.sorted = false;
+			}
+			
+			this.keys[this.size] = key;
+			this.rows[this.size] = row;
+			this.size++;
+		}
+		
+		private final void find(long from, long to, FIQLRows.Builder found) {
+			
+			if(!this.sorted) {
+				
+				this.sort();
+			}
+			
+			int start = this.lowerBound(from);
+			int end = start;
+			
+			while(end < this.size && this.keys[end] <= to) {
+				
+				end++;
+			}
+			
+			found.addAll(this.rows, start, end);
+		}
+		
+		private final int lowerBound(long key) {
+			
+			int low = 0;
+			int high = this.size;
+			
+			while(low < high) {
+				
+				int middle = (low + high) >>> 1;
+				
+				if(this.keys[middle] < key) {
+					
+					low = middle + 1;
+				
+				} else {
+					
+					high = middle;
+				}
+			}
+			
+			return low;
+		}
+		
+		// Bottom up merge sort, it is stable and never slower than n * log(n)
+		private final synchronized void sort() {
+			
+			if(this.sorted) {
+				
+				return;
+			}
+			
+			long[] keys = this.keys;
+			int[] rows = this.rows;
+			long[] keyBuffer = new long[keys.length];
+			int[] rowBuffer = new int[rows.length];
+			
+			for(int width = 1; width < this.size; width *= 2) {
+				
+				for(int start = 0; start < this.size; start += 2 * width) {
+					
+					int middle = Math.min(start + width, this.size);
+					int end = Math.min(start + 2 * width, this.size);
+					int left = start;
+					int right = middle;
+					
+					for(int index = start; index < end; index++) {
+						
+						if(left < middle && (right >= end || keys[left] <= keys[right])) {
+							
+							keyBuffer[index] = keys[left];
+							rowBuffer[index] = rows[left++];
+						
+						} else {
+							
+							keyBuffer[index] = keys[right];
+							rowBuffer[index] = rows[right++];
+						}
+					}
+				}
+				
+				long[] swapKeys = keys;
+				int[] swapRows = rows;
+				keys = keyBuffer;
+				rows = rowBuffer;
+				keyBuffer = swapKeys;
+				rowBuffer = swapRows;
+			}
+			
+			this.keys = keys;
+			this.rows = rows;
+			this.sorted = true;
+		}
+	}
+}
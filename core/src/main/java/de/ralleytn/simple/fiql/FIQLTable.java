@@ -0,0 +1,327 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table that stores its rows column by column in primitive arrays and evaluates FIQL-Queries in batches.
+ * Integers are stored as {@code long}, numbers with fractions as {@code double}, dates as {@code long} milliseconds and strings as
+ * {@code int} codes of a dictionary. Each comparison of a FIQL-Query is evaluated for 64 rows at a time into a selection bitmap,
+ * without boxing a single value. Comparisons with strings are evaluated only once for every distinct string.
+ * The results are the same as those of {@linkplain FIQLQuery#test(Object)} for the rows returned by {@link #getRow(int)}.
+ * If a comparison cannot be evaluated against a row, an exception is thrown as well, though it may be the one of another comparison,
+ * because the comparisons are evaluated one after another for all rows and not the rows one after another.
+ * <p>
+ * The columns have to be created before they can be filled. A selector without a column is {@code null} in every row.
+ * Rows can be added, but not removed. This class is not thread safe, but it can be filtered by multiple threads at the same time
+ * as long as no rows are added.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public final class FIQLTable {
+	
+	private final Map<String, FIQLColumn> columns = new LinkedHashMap<>();
+	private int size;
+	
+	/**
+	 * Creates a column for integers.
+	 * The values have to be {@linkplain Long}s, {@linkplain Integer}s, {@linkplain Short}s or {@linkplain Byte}s and are read as
+	 * {@linkplain Long}s.
+	 * @param selector the selector
+	 * @throws IllegalArgumentException if there already is a column for the selector
+	 * @since 2.1.0
+	 */
+	public void createLongColumn(String selector) {
+		
+		this.createColumn(new FIQLColumn.Longs(selector, false));
+	}
+	
+	/**
+	 * Creates a column for numbers with fractions.
+	 * The values can be any {@linkplain Number}s and are read as {@linkplain Double}s.
+	 * @param selector the selector
+	 * @throws IllegalArgumentException if there already is a column for the selector
+	 * @since 2.1.0
+	 */
+	public void createDoubleColumn(String selector) {
+		
+		this.createColumn(new FIQLColumn.Doubles(selector));
+	}
+	
+	/**
+	 * Creates a column for strings.
+	 * The values can be anything except numbers, dates and {@linkplain Iterable}s and are read as the result of their
+	 * {@code toString()} method.
+	 * @param selector the selector
+	 * @throws IllegalArgumentException if there already is a column for the selector
+	 * @since 2.1.0
+	 */
+	public void createStringColumn(String selector) {
+		
+		this.createColumn(new FIQLColumn.Strings(selector));
+	}
+	
+	/**
+	 * Creates a column for dates.
+	 * The values can be any of the date types supported by FIQL-Queries and are read as {@linkplain java.time.Instant}s.
+	 * @param selector the selector
+	 * @throws IllegalArgumentException if there already is a column for the selector
+	 * @since 2.1.0
+	 */
+	public void createDateColumn(String selector) {
+		
+		this.createColumn(new FIQLColumn.Longs(selector, true));
+	}
+	
+	private final void createColumn(FIQLColumn column) {
+		
+		if(this.columns.containsKey(column.selector)) {
+			
+			throw new IllegalArgumentException("There already is a column for the selector '" + column.selector + "'!");
+		}
+		
+		// The rows that were added before the column existed have no value for it.
+		for(int row = 0; row < this.size; row++) {
+			
+			column.add(null);
+		}
+		
+		this.columns.put(column.selector, column);
+	}
+	
+	/**
+	 * Adds a row with the values of the selectors of all columns.
+	 * @param value a {@linkplain Map} or an {@linkplain Object} with getters marked with {@linkplain FIQLValue}
+	 * @throws FIQLException if a value could not be read or does not fit into its column
+	 * @since 2.1.0
+	 */
+	public void add(Object value) throws FIQLException {
+		
+		Object[] values = new Object[this.columns.size()];
+		int index = 0;
+		
+		// All values are checked before the first one is stored, so that a row is either added completely or not at all.
+		for(FIQLColumn column : this.columns.values()) {
+			
+			values[index++] = FIQLAccessors.read(value, column.selector);
+		}
+		
+		index = 0;
+		
+		for(FIQLColumn column : this.columns.values()) {
+			
+			column.check(values[index++]);
+		}
+		
+		index = 0;
+		
+		for(FIQLColumn column : this.columns.values()) {
+			
+			column.add(values[index++]);
+		}
+		
+		this.size++;
+	}
+	
+	/**
+	 * Adds rows with the values of the selectors of all columns.
+	 * @param values {@linkplain Map}s or {@linkplain Object}s with getters marked with {@linkplain FIQLValue}
+	 * @throws FIQLException if a value could not be read or does not fit into its column
+	 * @since 2.1.0
+	 */
+	public void addAll(Iterable<?> values) throws FIQLException {
+		
+		for(Object value : values) {
+			
+			this.add(value);
+		}
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against all rows.
+	 * The FIQL-Query is taken from {@link FIQL#getCache()}.
+	 * @param fiql FIQL-Query
+	 * @return the rows for which the FIQL-Query is {@code true}
+	 * @throws FIQLException if something is wrong with the FIQL-Query or it could not be evaluated against one of the rows
+	 * @since 2.1.0
+	 */
+	public BitSet select(String fiql) throws FIQLException {
+		
+		return this.select(FIQL.getCache().get(fiql));
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against all rows.
+	 * @param query the FIQL-Query
+	 * @return the rows for which the FIQL-Query is {@code true}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the rows
+	 * @since 2.1.0
+	 */
+	public BitSet select(FIQLQuery query) throws FIQLException {
+		
+		long[] selection = new long[(this.size + 63) >>> 6];
+		
+		for(int word = 0; word < selection.length; word++) {
+			
+			selection[word] = word < this.size >>> 6 ? -1L : (1L << this.size) - 1;
+		}
+		
+		return BitSet.valueOf(this.evaluate(query.getRoot(), selection));
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against all rows.
+	 * The FIQL-Query is taken from {@link FIQL#getCache()}.
+	 * @param fiql FIQL-Query
+	 * @return the rows for which the FIQL-Query is {@code true} as returned by {@link #getRow(int)}
+	 * @throws FIQLException if something is wrong with the FIQL-Query or it could not be evaluated against one of the rows
+	 * @since 2.1.0
+	 */
+	public List<Map<String, Object>> filter(String fiql) throws FIQLException {
+		
+		return this.filter(FIQL.getCache().get(fiql));
+	}
+	
+	/**
+	 * Evaluates a FIQL-Query against all rows.
+	 * @param query the FIQL-Query
+	 * @return the rows for which the FIQL-Query is {@code true} as returned by {@link #getRow(int)}
+	 * @throws FIQLException if the FIQL-Query could not be evaluated against one of the rows
+	 * @since 2.1.0
+	 */
+	public List<Map<String, Object>> filter(FIQLQuery query) throws FIQLException {
+		
+		BitSet rows = this.select(query);
+		List<Map<String, Object>> filtered = new ArrayList<>(rows.cardinality());
+		
+		for(int row = rows.nextSetBit(0); row != -1; row = rows.nextSetBit(row + 1)) {
+			
+			filtered.add(this.getRow(row));
+		}
+		
+		return filtered;
+	}
+	
+	// Only the rows that are still selected are evaluated, so that exceptions are thrown exactly when the scalar evaluation would throw them.
+	private final long[] evaluate(FIQLNode node, long[] selection) throws FIQLException {
+		
+		if(node instanceof FIQLAnd) {
+			
+			for(FIQLNode child : ((FIQLAnd)node).children) {
+				
+				selection = this.evaluate(child, selection);
+			}
+			
+			return selection;
+		
+		} else if(node instanceof FIQLOr) {
+			
+			long[] remaining = selection.clone();
+			long[] result = new long[selection.length];
+			
+			for(FIQLNode child : ((FIQLOr)node).children) {
+				
+				long[] matches = this.evaluate(child, remaining);
+				
+				for(int word = 0; word < result.length; word++) {
+					
+					result[word] |= matches[word];
+					remaining[word] &= ~matches[word];
+				}
+			}
+			
+			return result;
+		
+		} else if(node instanceof FIQLComparison) {
+			
+			FIQLComparison comparison = (FIQLComparison)node;
+			FIQLColumn column = this.columns.get(comparison.selector);
+			
+			if(column != null) {
+				
+				return column.evaluate(comparison, selection);
+			}
+			
+			return FIQLColumn.testNull(comparison) ? selection : new long[selection.length];
+		}
+		
+		return ((FIQLConstant)node).value ? selection : new long[selection.length];
+	}
+	
+	/**
+	 * @param row the row
+	 * @param selector the selector
+	 * @return the value of the selector in the given row or {@code null} if there is none
+	 * @throws IndexOutOfBoundsException if the row does not exist
+	 * @since 2.1.0
+	 */
+	public Object get(int row, String selector) {
+		
+		this.checkRow(row);
+		FIQLColumn column = this.columns.get(selector);
+		return column != null ? column.get(row) : null;
+	}
+	
+	/**
+	 * @param row the row
+	 * @return the values of all columns in the given row, mapped to their selectors in the order the columns were created
+	 * @throws IndexOutOfBoundsException if the row does not exist
+	 * @since 2.1.0
+	 */
+	public Map<String, Object> getRow(int row) {
+		
+		this.checkRow(row);
+		Map<String, Object> values = new LinkedHashMap<>();
+		
+		for(FIQLColumn column : this.columns.values()) {
+			
+			values.put(column.selector, column.get(row));
+		}
+		
+		return values;
+	}
+	
+	private final void checkRow(int row) {
+		
+		if(row < 0 || row >= this.size) {
+			
+			throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + this.size);
+		}
+	}
+	
+	/**
+	 * @return the number of rows
+	 * @since 2.1.0
+	 */
+	public int size() {
+		
+		return this.size;
+	}
+}
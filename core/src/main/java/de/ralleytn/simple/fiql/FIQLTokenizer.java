@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * Splits a FIQL-Query into its tokens in a single pass.
+ * Escape sequences are resolved while reading, so that escaped characters never appear as syntax.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLTokenizer {
+	
+	/**
+	 * The types of tokens.
+	 * @since 2.1.0
+	 */
+	static enum Token {
+		
+		OPEN,
+		CLOSE,
+		AND,
+		OR,
+		EXPRESSION,
+		END;
+	}
+	
+	// The order matters! Longer sequences have to be checked before shorter ones starting with the same character.
+	private static final String[][] ESCAPES = {
+		
+		{"\\(", "%28"},
+		{"\\)", "%29"},
+		{"\\;", "%3B"},
+		{"\\,", "%2C"},
+		{"\\==", "%3D%3D"},
+		{"\\!=", "%21%3D"},
+		{"\\<=", "%3C%3D"},
+		{"\\>=", "%3E%3D"},
+		{"\\<", "%3C"},
+		{"\\>", "%3E"},
+		{"\\=#=", "%3D%23%3D"},
+		{"\\!#=", "%21%23%3D"},
+		{"\\~", "%7E"},
+		{"\\|", "%7C"},
+		{"\\[", "%5B"},
+		{"\\]", "%5D"}
+	};
+	
+	private final String fiql;
+	private final StringBuilder builder = new StringBuilder();
+	private int index;
+	private Token token;
+	private String text;
+	private int position;
+	
+	/**
+	 * @param fiql FIQL-Query
+	 * @since 2.1.0
+	 */
+	FIQLTokenizer(String fiql) {
+		
+		this.fiql = fiql;
+	}
+	
+	/**
+	 * Reads the next token.
+	 * @return the type of the token
+	 * @since 2.1.0
+	 */
+	Token next() {
+		
+		this.position = this.index;
+		this.text = null;
+		
+		if(this.index >= this.fiql.length()) {
+			
+			this.token = Token.END;
+			return this.token;
+		}
+		
+		char character = this.fiql.charAt(this.index);
+		
+		       if(character == '(') {this.token = Token.OPEN;
+		} else if(character == ')') {this.token = Token.CLOSE;
+		} else if(character == ';') {this.token = Token.AND;
+		} else if(character == ',') {this.token = Token.OR;
+		} else {
+			
+			this.token = Token.EXPRESSION;
+			this.text = this.readExpression();
+			return this.token;
+		}
+		
+		this.index++;
+		return this.token;
+	}
+	
+	private final String readExpression() {
+		
+		this.builder.setLength(0);
+		
+		while(this.index < this.fiql.length()) {
+			
+			char character = this.fiql.charAt(this.index);
+			
+			if(character == '(' || character == ')' || character == ';' || character == ',') {
+				
+				break;
+			
+			} else if(character == '\\') {
+				
+				this.readEscape();
+			
+			} else {
+				
+				this.builder.append(character);
+				this.index++;
+			}
+		}
+		
+		return this.builder.toString();
+	}
+	
+	private final void readEscape() {
+		
+		if(this.fiql.startsWith("\\\\", this.index)) {
+			
+			this.builder.append("\\\\");
+			this.index += 2;
+			return;
+		}
+		
+		for(String[] escape : FIQLTokenizer.ESCAPES) {
+			
+			if(this.fiql.startsWith(escape[0], this.index)) {
+				
+				this.builder.append(escape[1]);
+				this.index += escape[0].length();
+				return;
+			}
+		}
+		
+		// Everything else, like the escaped wild cards, is resolved when the expression is compiled.
+		this.builder.append('\\');
+		this.index++;
+	}
+	
+	/**
+	 * @return the type of the current token
+	 * @since 2.1.0
+	 */
+	Token getToken() {
+		
+		return this.token;
+	}
+	
+	/**
+	 * @return the escaped text of the current token, if it is an {@linkplain Token#EXPRESSION}
+	 * @since 2.1.0
+	 */
+	String getText() {
+		
+		return this.text;
+	}
+	
+	/**
+	 * @return the position of the current token in the FIQL-Query
+	 * @since 2.1.0
+	 */
+	int getPosition() {
+		
+		return this.position;
+	}
+}
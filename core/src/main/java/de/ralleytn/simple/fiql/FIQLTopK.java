@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the first elements of a {@linkplain FIQLSort} in a bounded heap, so that only the requested number of elements is held
+ * in memory and every element costs at most {@code O(log limit)} comparisons.
+ * The element that would come last is at the root of the heap and is replaced whenever an element that comes before it is offered.
+ * Elements that are equal by the {@linkplain FIQLSort} keep the order they were offered in.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @param <T> the type of the elements
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLTopK<T> {
+	
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private final FIQLSort sort;
+	private final int limit;
+	private final Object[] scratch;
+	private Object[] values;
+	private Object[][] keys;
+	private long[] orders;
+	private int size;
+	
+	/**
+	 * @param sort the order of the elements
+	 * @param limit the maximum number of elements to keep
+	 * @since 2.1.0
+	 */
+	FIQLTopK(FIQLSort sort, int limit) {
+		
+		int capacity = Math.min(limit, FIQLTopK.INITIAL_CAPACITY);
+		
+		this.sort = sort;
+		this.limit = limit;
+		this.scratch = new Object[sort.size()];
+		this.values = new Object[capacity];
+		this.keys = new Object[capacity][];
+		this.orders = new long[capacity];
+	}
+	
+	/**
+	 * Offers an element.
+	 * @param value the element
+	 * @param order the position of the element, which decides between elements that are equal by the {@linkplain FIQLSort}
+	 * and has to be greater than that of all elements offered before
+	 * @throws FIQLException if the values of the selectors could not be read
+	 * @since 2.1.0
+	 */
+	void offer(T value, long order) throws FIQLException {
+		
+		if(this.limit > 0) {
+			
+			this.sort.read(value, this.scratch);
+			this.offer(value, this.scratch, order);
+		}
+	}
+	
+	/**
+	 * Offers all elements of another instance, for example one that processed a different chunk.
+	 * @param other the other instance
+	 * @param chunk the number of the chunk, which has to be greater than that of all chunks merged before
+	 * @since 2.1.0
+	 */
+	void merge(FIQLTopK<T> other, int chunk) {
+		
+		for(int index = 0; index < other.size; index++) {
+			
+			@SuppressWarnings("unchecked")
+			T value = (T)other.values[index];
+			this.offer(value, other.keys[index], ((long)chunk << 32) | other.orders[index]);
+		}
+	}
+	
+	/**
+	 * Empties the heap.
+	 * @return the elements in the order of the {@linkplain FIQLSort}
+	 * @since 2.1.0
+	 */
+	List<T> toList() {
+		
+		Object[] sorted = new Object[this.size];
+		
+		for(int index = this.size - 1; index >= 0; index--) {
+			
+			sorted[index] = this.values[0];
+			this.size--;
+			this.move(this.size, 0);
+			this.values[this.size] = null;
+			this.keys[this.size] = null;
+			this.siftDown(0);
+		}
+		
+		@SuppressWarnings("unchecked")
+		List<T> list = (List<T>)new ArrayList<>(Arrays.asList(sorted));
+		return list;
+	}
+	
+	private final void offer(Object value, Object[] keys, long order) {
+		
+		if(this.size < this.limit) {
+			
+			if(this.size == this.values.length) {
+				
+				int capacity = (int)Math.min(this.limit, this.size * 2L);
+				this.values = Arrays.copyOf(this.values, capacity);
+				this.keys = Arrays.copyOf(this.keys, capacity);
+				this.orders = Arrays.copyOf(this.orders, capacity);
+			}
+			
+			this.values[this.size] = value;
+			this.keys[this.size] = keys.clone();
+			this.orders[this.size] = order;
+			this.siftUp(this.size++);
+		
+		} else if(this.size > 0 && this.compare(keys, order, 0) < 0) {
+			
+			// The keys of the element that is replaced are reused, so a full heap allocates nothing
+			System.arraycopy(keys, 0, this.keys[0], 0, keys.length);
+			this.values[0] = value;
+			this.orders[0] = order;
+			this.siftDown(0);
+		}
+	}
+	
+	private final int compare(Object[] keys, long order, int index) {
+		
+		int comparison = this.sort.compare(keys, this.keys[index]);
+		return comparison != 0 ? comparison : Long.compare(order, this.orders[index]);
+	}
+	
+	private final void siftUp(int index) {
+		
+		while(index > 0) {
+			
+			int parent = (index - 1) >>> 1;
+			
+			if(this.compare(this.keys[index], this.orders[index], parent) <= 0) {
+				
+				break;
+			}
+			
+			this.swap(index, parent);
+			index = parent;
+		}
+	}
+	
+	private final void siftDown(int index) {
+		
+		while(true) {
+			
+			int child = index * 2 + 1;
+			
+			if(child >= this.size) {
+				
+				break;
+			
+			} else if(child + 1 < this.size && this.compare(this.keys[child + 1], this.orders[child + 1], child) > 0) {
+				
+				child++;
+			}
+			
+			if(this.compare(this.keys[child], this.orders[child], index) <= 0) {
+				
+				break;
+			}
+			
+			this.swap(index, child);
+			index = child;
+		}
+	}
+	
+	private final void swap(int index, int other) {
+		
+		Object value = this.values[index];
+		Object[] keys = this.keys[index];
+		long order = this.orders[index];
+		this.move(other, index);
+		this.values[other] = value;
+		this.keys[other] = keys;
+		this.orders[other] = order;
+	}
+	
+	private final void move(int from, int to) {
+		
+		this.values[to] = this.values[from];
+		this.keys[to] = this.keys[from];
+		this.orders[to] = this.orders[from];
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index for strings with wild cards and for the contains operator {@code [...]}.
+ * Maps each sequence of three case folded characters to the rows whose strings contain it.
+ * A string can only match an expression if it contains all sequences of three characters of the parts of the expression that are no wild cards.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLTrigramIndex extends FIQLIndex {
+	
+	private static final int LENGTH = 3;
+	
+	private final Map<Long, FIQLRows.Builder> rows = new HashMap<>();
+	
+	/**
+	 * @param selector the selector
+	 * @since 2.1.0
+	 */
+	FIQLTrigramIndex(String selector) {
+		
+		super(selector);
+	}
+	
+	private static final long trigram(String string, int index) {
+		
+		return ((long)string.charAt(index) << 32) | ((long)string.charAt(index + 1) << 16) | string.charAt(index + 2);
+	}
+	
+	@Override
+	void addNull(int row) {}
+	
+	@Override
+	void addNumber(int row, double number) {}
+	
+	@Override
+	void addTime(int row, long time) {}
+	
+	@Override
+	void addOther(int row, String string) {
+		
+		string = FIQLLiteral.fold(string);
+		
+		for(int index = 0; index + FIQLTrigramIndex.LENGTH <= string.length(); index++) {
+			
+			this.rows.computeIfAbsent(FIQLTrigramIndex.trigram(string, index), unused -> new FIQLRows.Builder()).add(row);
+		}
+	}
+	
+	@Override
+	int getPriority() {
+		
+		return 2;
+	}
+	
+	@Override
+	FIQLBitmap find(FIQLComparison comparison) {
+		
+		FIQLLiteral literal = comparison.literal;
+		
+		// Numbers and dates are not compared as strings
+		if(!comparison.operator.isEquality() || literal.range != null || this.numbers || this.times || (this.nulls && literal.value.equals("null"))) {
+			
+			return null;
+		}
+		
+		FIQLBitmap found = FIQLBitmap.EMPTY;
+		
+		for(List<String> runs : literal.runs) {
+			
+			FIQLBitmap alternative = this.find(runs);
+			
+			if(alternative == null) {
+				
+				return null;
+			}
+			
+			found = found.or(alternative);
+		}
+		
+		return found;
+	}
+	
+	private final FIQLBitmap find(List<String> runs) {
+		
+		List<FIQLRows.Builder> lists = new ArrayList<>();
+		
+		for(String run : runs) {
+			
+			run = FIQLLiteral.fold(run);
+			
+			for(int index = 0; index + FIQLTrigramIndex.LENGTH <= run.length(); index++) {
+				
+				FIQLRows.Builder rows = this.rows.get(FIQLTrigramIndex.trigram(run, index));
+				
+				if(rows == null) {
+					
+					return FIQLBitmap.EMPTY;
+				}
+				
+				lists.add(rows);
+			}
+		}
+		
+		if(lists.isEmpty()) {
+			
+			// Too short to narrow anything down
+			return null;
+		}
+		
+		// Starting with the shortest list keeps the intersections small
+		lists.sort((first, second) -> Integer.compare(first.size(), second.size()));
+		FIQLBitmap found = lists.get(0).build();
+		
+		for(int index = 1; index < lists.size() && !found.isEmpty(); index++) {
+			
+			found = found.and(lists.get(index).build());
+		}
+		
+		return found;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * Receives the values of one selector sorted by how a comparison treats them: {@code null}, numbers, dates and all other values,
+ * which are compared as strings. The values of {@linkplain Iterable}s are received element by element.
+ * Remembers which kinds of values were received, because an expression can only be looked up if it can be compared with all of them.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+abstract class FIQLValueSink {
+	
+	boolean numbers;
+	boolean times;
+	boolean others;
+	boolean nulls;
+	
+	/**
+	 * Sorts a value by its kind and passes it to the matching method.
+	 * @param value the value of the selector
+	 * @since 2.1.0
+	 */
+	final void add(Object value) {
+		
+		if(value instanceof Iterable) {
+			
+			for(Object element : (Iterable<?>)value) {
+				
+				this.addElement(element);
+			}
+		
+		} else {
+			
+			this.addElement(value);
+		}
+	}
+	
+	private final void addElement(Object value) {
+		
+		if(value == null) {
+			
+			this.nulls = true;
+			this.addNull();
+		
+		} else if(value instanceof Number) {
+			
+			double number = ((Number)value).doubleValue();
+			this.numbers = true;
+			
+			// NaN is never equal to, greater or smaller than anything
+			if(!Double.isNaN(number)) {
+				
+				this.addNumber(number == 0.0 ? 0.0 : number);
+			}
+		
+		} else if(FIQLLiteral.isTime(value)) {
+			
+			this.times = true;
+			this.addTime(FIQLLiteral.toTime(value));
+		
+		} else {
+			
+			this.others = true;
+			this.addOther(value.toString());
+		}
+	}
+	
+	/**
+	 * @param literal the expression
+	 * @return {@code true} if the expression can be compared with all the numbers and dates received so far without an exception
+	 * @since 2.1.0
+	 */
+	final boolean canCompare(FIQLLiteral literal) {
+		
+		return (!this.numbers || literal.number.isValid()) && (!this.times || literal.hasTime());
+	}
+	
+	/**
+	 * Receives {@code null}.
+	 * @since 2.1.0
+	 */
+	abstract void addNull();
+	
+	/**
+	 * @param number the number, neither {@code NaN} nor {@code -0.0}
+	 * @since 2.1.0
+	 */
+	abstract void addNumber(double number);
+	
+	/**
+	 * @param time the date in milliseconds
+	 * @since 2.1.0
+	 */
+	abstract void addTime(long time);
+	
+	/**
+	 * @param string the value as string
+	 * @since 2.1.0
+	 */
+	abstract void addOther(String string);
+}
@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * A summary of the values of one selector in one chunk of a {@linkplain FIQLChunkedCollection}.
+ * Keeps the smallest and the greatest number and date and a bloom filter of the strings.
+ * That is enough to know for many comparisons that none of the values in the chunk can match.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+final class FIQLZone extends FIQLValueSink {
+	
+	private static final int BITS_PER_VALUE = 8;
+	
+	private double minNumber = Double.POSITIVE_INFINITY;
+	private double maxNumber = Double.NEGATIVE_INFINITY;
+	private long minTime = Long.MAX_VALUE;
+	private long maxTime = Long.MIN_VALUE;
+	private final long[] bloom;
+	
+	/**
+	 * @param capacity the maximum number of values in the chunk
+	 * @since 2.1.0
+	 */
+	FIQLZone(int capacity) {
+		
+		this.bloom = new long[Math.max(1, capacity * FIQLZone.BITS_PER_VALUE / 64)];
+	}
+	
+	@Override
+	void addNull() {}
+	
+	@Override
+	void addNumber(double number) {
+		
+		this.minNumber = Math.min(this.minNumber, number);
+		this.maxNumber = Math.max(this.maxNumber, number);
+	}
+	
+	@Override
+	void addTime(long time) {
+		
+		this.minTime = Math.min(this.minTime, time);
+		this.maxTime = Math.max(this.maxTime, time);
+	}
+	
+	@Override
+	void addOther(String string) {
+		
+		int hash = FIQLLiteral.foldedHashCode(string);
+		
+		// Three bits, derived from one hash code as proposed by Kirsch and Mitzenmacher
+		for(int probe = 1; probe <= 3; probe++) {
+			
+			int bit = Math.floorMod(hash + probe * FIQLZone.mix(hash), this.bloom.length * 64);
+			this.bloom[bit >>> 6] |= 1L << bit;
+		}
+	}
+	
+	private final boolean mayContain(String string) {
+		
+		int hash = FIQLLiteral.foldedHashCode(string);
+		
+		for(int probe = 1; probe <= 3; probe++) {
+			
+			int bit = Math.floorMod(hash + probe * FIQLZone.mix(hash), this.bloom.length * 64);
+			
+			if((this.bloom[bit >>> 6] & (1L << bit)) == 0) {
+				
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static final int mix(int hash) {
+		
+		hash *= 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) | 1;
+	}
+	
+	/**
+	 * @param comparison a comparison of the selector of this zone map
+	 * @return {@code false} if none of the values in the chunk can match the comparison
+	 * @since 2.1.0
+	 */
+	boolean mayMatch(FIQLComparison comparison) {
+		
+		FIQLLiteral literal = comparison.literal;
+		FIQLOperator operator = comparison.operator;
+		
+		// Negated comparisons match nearly everything
+		if(operator.isNegated()) {
+			
+			return true;
+		
+		// An expression that cannot be compared with a number or date has to be evaluated, so that it throws its exception
+		} else if(!operator.isEquality()) {
+			
+			double number = literal.number.doubleValue();
+			boolean greater = operator == FIQLOperator.GREATER_THAN || operator == FIQLOperator.GREATER_THAN_OR_EQUAL_TO;
+			return !this.canCompare(literal) ||
+			       (this.numbers && (greater ? this.maxNumber >= number : this.minNumber <= number)) ||
+			       (this.times && (greater ? this.maxTime >= literal.time : this.minTime <= literal.time));
+		
+		} else if((this.nulls && literal.value.equals("null")) || (this.others && this.mayContain(literal))) {
+			
+			return true;
+		
+		} else if(literal.range == null) {
+			
+			double number = literal.number.doubleValue();
+			return !this.canCompare(literal) ||
+			       (this.numbers && this.minNumber <= number && number <= this.maxNumber) ||
+			       (this.times && this.minTime <= literal.time && literal.time <= this.maxTime);
+		
+		} else if((this.numbers || this.times) && !literal.isRange()) {
+			
+			return true;
+		}
+		
+		return (this.numbers && (!literal.numberFrom.isValid() || !literal.numberTo.isValid() || (this.minNumber <= literal.numberTo.doubleValue() && literal.numberFrom.doubleValue() <= this.maxNumber))) ||
+		       (this.times && (!literal.hasTimeRange() || (this.minTime <= literal.timeTo && literal.timeFrom <= this.maxTime)));
+	}
+	
+	private final boolean mayContain(FIQLLiteral literal) {
+		
+		// Wild cards and the contains operator cannot be looked up in a bloom filter
+		if(literal.literals == null) {
+			
+			return true;
+		}
+		
+		for(String alternative : literal.literals) {
+			
+			if(this.mayContain(alternative)) {
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
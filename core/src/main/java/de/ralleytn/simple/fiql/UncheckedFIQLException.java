@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql;
+
+/**
+ * Wraps a {@linkplain FIQLException} where no checked exceptions can be thrown, like in a {@linkplain java.util.function.Predicate}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+public class UncheckedFIQLException extends RuntimeException {
+	
+	private static final long serialVersionUID = -2903417206518392775L;
+	
+	/**
+	 * Wraps a {@linkplain FIQLException}.
+	 * @param exception {@linkplain FIQLException} to wrap
+	 * @since 2.1.0
+	 */
+	public UncheckedFIQLException(FIQLException exception) {
+		
+		super(exception);
+	}
+	
+	/**
+	 * @return the wrapped {@linkplain FIQLException}
+	 * @since 2.1.0
+	 */
+	@Override
+	public FIQLException getCause() {
+		
+		return (FIQLException)super.getCause();
+	}
+}
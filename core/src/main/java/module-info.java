@@ -1,4 +1,6 @@
 module de.ralleytn.simple.fiql {
 	
 	exports de.ralleytn.simple.fiql;
-}
\ No newline at end of file
+	
+	uses de.ralleytn.simple.fiql.FIQLAccessorProvider;
+}
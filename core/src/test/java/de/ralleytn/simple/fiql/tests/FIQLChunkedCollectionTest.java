@@ -0,0 +1,112 @@
+package de.ralleytn.simple.fiql.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.ralleytn.simple.fiql.FIQL;
+import de.ralleytn.simple.fiql.FIQLChunkedCollection;
+import de.ralleytn.simple.fiql.FIQLException;
+
+class FIQLChunkedCollectionTest {
+	
+	private static final List<Event> events() {
+		
+		List<Event> events = new ArrayList<>();
+		
+		for(int index = 0; index < 20000; index++) {
+			
+			Event event = new Event();
+			event.put("time", Instant.ofEpochMilli(index * 1000L));
+			event.put("sequence", index);
+			event.put("type", index % 100 == 0 ? null : "type" + (index / 1000));
+			events.add(event);
+		}
+		
+		return events;
+	}
+	
+	private static final FIQLChunkedCollection<Event> collection(List<Event> events) throws FIQLException {
+		
+		FIQLChunkedCollection<Event> collection = new FIQLChunkedCollection<>(1000);
+		collection.addAll(events.subList(0, 10000));
+		collection.createZoneMap("time");
+		collection.createZoneMap("type");
+		collection.addAll(events.subList(10000, events.size()));
+		collection.createZoneMap("sequence");
+		return collection;
+	}
+	
+	private static final int read(List<Event> events, FIQLChunkedCollection<Event> collection, String fiql) throws FIQLException {
+		
+		assertEquals(FIQL.eval(fiql, events), collection.filter(fiql), fiql);
+		events.forEach(event -> event.read = false);
+		collection.filter(fiql);
+		return (int)events.stream().filter(event -> event.read).count();
+	}
+	
+	@Test
+	void testFilter() throws FIQLException {
+		
+		List<Event> events = events();
+		FIQLChunkedCollection<Event> collection = collection(events);
+		
+		assertEquals(20, collection.getChunkCount());
+		
+		String[] queries = {
+			
+			"time>=L19990000",
+			"time==L5000000~L5010000",
+			"sequence<10,sequence>19990",
+			"sequence==12345",
+			"sequence==100.5~200",
+			"type==type7;sequence>7500",
+			"type=#=TYPE7|type19",
+			"type==null;sequence<2000",
+			"type!=type3;time<L1000000",
+			"type==type*5;sequence>=15999"
+		};
+		
+		for(String fiql : queries) {
+			
+			assertEquals(FIQL.eval(fiql, events), collection.filter(fiql), fiql);
+		}
+	}
+	
+	@Test
+	void testSkipChunks() throws FIQLException {
+		
+		List<Event> events = events();
+		FIQLChunkedCollection<Event> collection = collection(events);
+		
+		// Only the chunks whose zone maps may match are evaluated, which reads their events
+		assertEquals(1000, read(events, collection, "sequence==12345"));
+		assertEquals(1000, read(events, collection, "time>=L19990000"));
+		assertEquals(2000, read(events, collection, "sequence<10,sequence>19990"));
+		assertEquals(1000, read(events, collection, "type==type7;sequence>7500"));
+		assertEquals(1000, read(events, collection, "type==type7|type15|type16;sequence<12500"));
+		assertEquals(0, read(events, collection, "sequence>20000"));
+		
+		// Every chunk contains a null
+		assertEquals(20000, read(events, collection, "type==null"));
+	}
+	
+	private static final class Event extends HashMap<String, Object> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private boolean read;
+		
+		@Override
+		public Object get(Object key) {
+			
+			this.read = true;
+			return super.get(key);
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package de.ralleytn.simple.fiql.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.ralleytn.simple.fiql.FIQL;
+import de.ralleytn.simple.fiql.FIQLException;
+import de.ralleytn.simple.fiql.FIQLIndexedCollection;
+
+class FIQLIndexedCollectionTest {
+	
+	private static final List<Person> people(int count) {
+		
+		List<Person> people = new ArrayList<>();
+		
+		for(int index = 0; index < count; index++) {
+			
+			Person person = new Person();
+			person.put("id", 10000000000L + index);
+			person.put("name", "Name" + (index % 100));
+			person.put("income", index % 1000 == 0 ? null : (index * 7) % 5000);
+			person.put("tags", Arrays.asList("tag" + (index % 3), "tag" + (index % 5)));
+			people.add(person);
+		}
+		
+		return people;
+	}
+	
+	private static final void assertFilter(FIQLIndexedCollection<Person> collection, List<Person> people, String fiql) throws FIQLException {
+		
+		assertEquals(FIQL.eval(fiql, people), collection.filter(fiql), fiql);
+	}
+	
+	// The number of elements the filter evaluates, which are only those the indexes could not rule out
+	private static final int read(FIQLIndexedCollection<Person> collection, List<Person> people, String fiql) throws FIQLException {
+		
+		assertFilter(collection, people, fiql);
+		people.forEach(person -> person.read = false);
+		collection.filter(fiql);
+		return (int)people.stream().filter(person -> person.read).count();
+	}
+	
+	// The number of elements filterCached evaluates, which are only those that neither the indexes nor the cache could rule out
+	private static final int readCached(FIQLIndexedCollection<Person> collection, List<Person> people, String fiql) throws FIQLException {
+		
+		List<Person> expected = FIQL.eval(fiql, people);
+		people.forEach(person -> person.read = false);
+		assertEquals(expected, collection.filterCached(fiql), fiql);
+		return (int)people.stream().filter(person -> person.read).count();
+	}
+	
+	private static final FIQLIndexedCollection<Person> indexed(List<Person> people) throws FIQLException {
+		
+		// Half of the elements are added after the indexes were created
+		FIQLIndexedCollection<Person> collection = new FIQLIndexedCollection<>(people.subList(0, people.size() / 2));
+		collection.createHashIndex("id");
+		collection.createHashIndex("name");
+		collection.createHashIndex("tags");
+		collection.createSortedIndex("income");
+		collection.createSortedIndex("id");
+		collection.addAll(people.subList(people.size() / 2, people.size()));
+		return collection;
+	}
+	
+	@Test
+	void testHashIndex() throws FIQLException {
+		
+		List<Person> people = people(10000);
+		FIQLIndexedCollection<Person> collection = indexed(people);
+		
+		assertEquals(10000, collection.size());
+		assertEquals(1, read(collection, people, "id==10000001234"));
+		assertEquals(2, read(collection, people, "id==10000001234,id==10000009999"));
+		assertEquals(100, read(collection, people, "name==Name42"));
+		assertEquals(200, read(collection, people, "name=#=name42|NAME43"));
+		assertEquals(2000, read(collection, people, "tags==tag4"));
+		
+		// null is looked up as well, but wild cards cannot be
+		assertEquals(0, read(collection, people, "name==null"));
+		assertEquals(10000, read(collection, people, "name==Name4*"));
+	}
+	
+	@Test
+	void testSortedIndex() throws FIQLException {
+		
+		List<Person> people = people(10000);
+		FIQLIndexedCollection<Person> collection = indexed(people);
+		
+		// Exactly the matching elements are evaluated
+		for(String fiql : new String[] {"income>=4990", "income<=100", "income==100~200", "id>=10000009990"}) {
+			
+			assertEquals(collection.filter(fiql).size(), read(collection, people, fiql), fiql);
+		}
+		
+		// The bounds are always inclusive and nulls are never found
+		assertEquals(collection.filter("income>=4990").size(), read(collection, people, "income>4990"));
+		assertEquals(0, read(collection, people, "income>5000"));
+	}
+	
+	@Test
+	void testPlan() throws FIQLException {
+		
+		List<Person> people = people(10000);
+		FIQLIndexedCollection<Person> collection = indexed(people);
+		
+		// AND intersects the rows of the indexes, a comparison without an index doesn't widen them
+		assertEquals(collection.filter("name==Name42;income>=4000").size(), read(collection, people, "name==Name42;income>=4000"));
+		assertEquals(100, read(collection, people, "name==Name42;tags==[ag1]"));
+		assertEquals(0, read(collection, people, "name==Name42;name==Name43"));
+		
+		// OR unites them, but a single comparison without an index requires all elements
+		assertEquals(collection.filter("name==Name42,income>=4990").size(), read(collection, people, "name==Name42,income>=4990"));
+		assertEquals(10000, read(collection, people, "name==Name42,tags==[ag1]"));
+		
+		// Constants rule out all elements or none
+		assertEquals(1, read(collection, people, "false,id==10000000000"));
+		assertEquals(1, read(collection, people, "true;id>=10000009999"));
+		
+		// A negated comparison excludes the equal elements, which the index verifies first
+		assertEquals(10000, read(collection, people, "name!=Name42"));
+		assertFilter(collection, people, "name!=Name42;income>=4990");
+		assertFilter(collection, people, "income!=100~4900");
+		assertFilter(collection, people, "(id>10000009990,id<10000000010);tags!=tag0");
+	}
+	
+	@Test
+	void testObjects() throws FIQLException {
+		
+		FIQLIndexedCollection<TestObject> collection = new FIQLIndexedCollection<>();
+		collection.createHashIndex("LastName");
+		collection.createSortedIndex("Country");
+		
+		for(int index = 0; index < 100; index++) {
+			
+			TestObject object = new TestObject();
+			object.setFirstName("First" + index);
+			object.setLastName("Last" + (index % 10));
+			object.setCountry(index % 50);
+			collection.add(object);
+		}
+		
+		assertEquals(10, collection.filter("LastName==Last3").size());
+		assertEquals(4, collection.filter("LastName==Last3;Country<20").size());
+		assertEquals("First13", collection.filter("LastName==Last3;Country==10~20").get(0).getFirstName());
+	}
+	
+	@Test
+	void testTrigrams() throws FIQLException {
+		
+		List<Person> people = people(5000);
+		FIQLIndexedCollection<Person> collection = new FIQLIndexedCollection<>(people);
+		collection.createTrigramIndex("name");
+		collection.createTrigramIndex("tags");
+		
+		// Name4 and Name40 to Name49 contain "me4", 50 elements each
+		assertEquals(550, read(collection, people, "name==[me4]"));
+		assertEquals(550, read(collection, people, "name=#=[ME4]"));
+		assertFilter(collection, people, "name!=[me4]");
+		assertEquals(1000, read(collection, people, "tags==[ag3]"));
+		
+		// The runs between the wild cards are looked up, the rest is left to the evaluation
+		assertEquals(550, read(collection, people, "name==*me4?"));
+		assertEquals(500, collection.filter("name==*me4?").size());
+		assertEquals(600, read(collection, people, "name==N?me1*|*e99"));
+		
+		// A run shorter than a trigram can be anywhere
+		assertEquals(5000, read(collection, people, "name==[ab]"));
+		assertEquals(5000, read(collection, people, "name==*e?"));
+		assertEquals(0, read(collection, people, "name==[xyz]"));
+	}
+	
+	@Test
+	void testCached() throws FIQLException {
+		
+		List<Person> people = people(100000);
+		List<Person> added = people.subList(0, 70000);
+		FIQLIndexedCollection<Person> collection = new FIQLIndexedCollection<>(added);
+		collection.createHashIndex("name");
+		collection.createSortedIndex("income");
+		
+		// A comparison is evaluated against the elements its index cannot rule out, but only once
+		assertEquals(70000, readCached(collection, added, "tags==tag2"));
+		assertEquals(0, readCached(collection, added, "tags==tag2"));
+		assertEquals(700, readCached(collection, added, "name==Name42;tags==tag2"));
+		assertEquals(1400, readCached(collection, added, "name==Name43,name==Name44;tags==tag2"));
+		assertEquals(0, readCached(collection, added, "(name==Name43,name==Name42);tags==tag2"));
+		
+		// Unlike filter, a comparison is evaluated against every element its index cannot rule out, even if the other comparisons already did
+		assertEquals(70000, readCached(collection, added, "name==Name1;tags==tag1"));
+		
+		// The remaining comparisons are skipped once no element matches
+		assertEquals(0, readCached(collection, added, "income>5000;tags==tag4"));
+		
+		// Adding elements drops the cached results
+		long version = collection.getVersion();
+		collection.addAll(people.subList(70000, people.size()));
+		assertTrue(collection.getVersion() != version);
+		assertEquals(100000, readCached(collection, people, "tags==tag2"));
+		assertEquals(0, readCached(collection, people, "tags==tag2"));
+	}
+	
+	private static final class Person extends HashMap<String, Object> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private boolean read;
+		
+		@Override
+		public Object get(Object key) {
+			
+			this.read = true;
+			return super.get(key);
+		}
+	}
+}
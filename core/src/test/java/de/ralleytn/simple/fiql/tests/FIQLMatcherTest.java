@@ -0,0 +1,143 @@
+package de.ralleytn.simple.fiql.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.ralleytn.simple.fiql.FIQL;
+import de.ralleytn.simple.fiql.FIQLException;
+import de.ralleytn.simple.fiql.FIQLMatcher;
+import de.ralleytn.simple.fiql.FIQLQuery;
+
+class FIQLMatcherTest {
+	
+	private static final String[] COMPARISONS = {
+		
+		"name==Name%d",
+		"name=#=NAME%d|name%d",
+		"name!=Name%d",
+		"name==Name%d*",
+		"name==[me%d]",
+		"name==null",
+		"income==%d",
+		"income==%d~%d",
+		"income>%d",
+		"income<=%d",
+		"income!=%d",
+		"score>=%d.5",
+		"score<%d",
+		"tags==tag%d",
+		"tags!=tag%d",
+		"created>D2018-01-%02d",
+		"created==D2018-01-%02d",
+		"created==D2018-01-01~D2018-01-%02d",
+		"true",
+		"false"
+	};
+	
+	private static final String query(Random random, int depth) {
+		
+		if(depth == 0 || random.nextInt(3) == 0) {
+			
+			int value = random.nextInt(20) + 1;
+			return String.format(FIQLMatcherTest.COMPARISONS[random.nextInt(FIQLMatcherTest.COMPARISONS.length)], value, value + 5);
+		}
+		
+		StringBuilder query = new StringBuilder("(");
+		String connector = random.nextBoolean() ? ";" : ",";
+		
+		for(int index = random.nextInt(3) + 2; index > 0; index--) {
+			
+			query.append(FIQLMatcherTest.query(random, depth - 1)).append(index > 1 ? connector : ")");
+		}
+		
+		return query.toString();
+	}
+	
+	private static final Map<String, Object> event(Random random) {
+		
+		Map<String, Object> event = new HashMap<>();
+		int value = random.nextInt(20) + 1;
+		event.put("name", random.nextInt(10) == 0 ? null : "Name" + value);
+		event.put("income", random.nextInt(10) == 0 ? null : (Object)random.nextInt(30));
+		event.put("score", random.nextBoolean() ? (Object)(random.nextInt(300) / 10.0) : (Object)(long)random.nextInt(30));
+		event.put("tags", Arrays.asList("tag" + value, "tag" + (value + 3)));
+		event.put("created", LocalDate.of(2018, 1, random.nextInt(28) + 1));
+		return event;
+	}
+	
+	@Test
+	void testMatch() throws FIQLException {
+		
+		Random random = new Random(42);
+		FIQLMatcher<Integer> matcher = new FIQLMatcher<>();
+		List<FIQLQuery> queries = new ArrayList<>();
+		
+		for(int index = 0; index < 1000; index++) {
+			
+			FIQLQuery query = FIQL.compile(FIQLMatcherTest.query(random, 3));
+			matcher.subscribe(index, query);
+			queries.add(query);
+		}
+		
+		assertEquals(1000, matcher.size());
+		
+		for(int index = 0; index < 300; index++) {
+			
+			Map<String, Object> event = FIQLMatcherTest.event(random);
+			List<Integer> expected = new ArrayList<>();
+			
+			for(int subscriber = 0; subscriber < queries.size(); subscriber++) {
+				
+				if(queries.get(subscriber).test(event)) {
+					
+					expected.add(subscriber);
+				}
+			}
+			
+			assertEquals(expected, matcher.match(event), event.toString());
+		}
+	}
+	
+	@Test
+	void testSubscribe() throws FIQLException {
+		
+		FIQLMatcher<String> matcher = new FIQLMatcher<>();
+		matcher.subscribe("peter", "first_name==Peter");
+		matcher.subscribe("rich", "income>=1000");
+		matcher.subscribe("not peter", "first_name!=Peter");
+		
+		Map<String, Object> peter = new HashMap<>();
+		peter.put("first_name", "Peter");
+		peter.put("income", 2000);
+		
+		assertEquals(Arrays.asList("peter", "rich"), matcher.match(peter));
+		
+		matcher.subscribe("rich", "income>=5000");
+		assertTrue(matcher.unsubscribe("peter"));
+		assertFalse(matcher.unsubscribe("peter"));
+		assertNull(matcher.getQuery("peter"));
+		assertEquals(0, matcher.match(peter).size());
+		
+		peter.put("first_name", "Lois");
+		peter.put("income", 5000);
+		assertEquals(Arrays.asList("rich", "not peter"), matcher.match(peter));
+		
+		TestObject object = new TestObject();
+		object.setLastName("Griffin");
+		object.setCountry(49);
+		matcher.subscribe("griffin", "LastName==Griffin;Country==40~50");
+		assertEquals(Arrays.asList("not peter", "griffin"), matcher.match(object));
+	}
+}
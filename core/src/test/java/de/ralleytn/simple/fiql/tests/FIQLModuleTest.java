@@ -0,0 +1,106 @@
+package de.ralleytn.simple.fiql.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import de.ralleytn.simple.fiql.FIQL;
+
+class FIQLModuleTest {
+	
+	private static final String MODULE =
+		"module test.people {\n" +
+		"	requires de.ralleytn.simple.fiql;\n" +
+		"	exports test.people;\n" +
+		"	exports test.people.exported to de.ralleytn.simple.fiql;\n" +
+		"	opens test.people.opened to de.ralleytn.simple.fiql;\n" +
+		"}\n";
+	
+	private static final String PEOPLE =
+		"package test.people;\n" +
+		"public class People {\n" +
+		"	public static Object exported() { return new test.people.exported.Person(); }\n" +
+		"	public static Object opened() { return new test.people.opened.Person(); }\n" +
+		"}\n";
+	
+	private static final String PERSON =
+		"package test.people.%s;\n" +
+		"import de.ralleytn.simple.fiql.FIQLValue;\n" +
+		"public class Person {\n" +
+		"	@FIQLValue(\"first_name\") public String getFirstName() { return \"Peter\"; }\n" +
+		"	@FIQLValue(\"income\") public int getIncome() { return 1000; }\n" +
+		"}\n";
+	
+	private static final Path write(Path directory, String file, String source) throws Exception {
+		
+		Path path = directory.resolve(file);
+		Files.createDirectories(path.getParent());
+		Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static final boolean test(Predicate<?> predicate, Object value) {
+		
+		return ((Predicate<Object>)predicate).test(value);
+	}
+	
+	@Test
+	void testQualifiedExports() throws Exception {
+		
+		// The tests run on the class path, so the library is loaded a second time as a named module in its own layer
+		Path library = Paths.get(FIQL.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		assertTrue(Files.exists(library.resolve("module-info.class")), library.toString());
+		
+		Path sources = Files.createTempDirectory("fiql");
+		Path classes = Files.createTempDirectory("fiql");
+		
+		String[] arguments = {
+			
+			"--module-path", library.toString(), "-d", classes.toString(),
+			FIQLModuleTest.write(sources, "module-info.java", FIQLModuleTest.MODULE).toString(),
+			FIQLModuleTest.write(sources, "test/people/People.java", FIQLModuleTest.PEOPLE).toString(),
+			FIQLModuleTest.write(sources, "test/people/exported/Person.java", String.format(FIQLModuleTest.PERSON, "exported")).toString(),
+			FIQLModuleTest.write(sources, "test/people/opened/Person.java", String.format(FIQLModuleTest.PERSON, "opened")).toString()
+		};
+		
+		// Through reflection, because the tests are compiled in the module of the library, which does not read java.compiler
+		Object compiler = Class.forName("javax.tools.ToolProvider").getMethod("getSystemJavaCompiler").invoke(null);
+		Method run = Class.forName("javax.tools.Tool").getMethod("run", InputStream.class, OutputStream.class, OutputStream.class, String[].class);
+		assertEquals(0, run.invoke(compiler, null, null, null, arguments));
+		
+		ModuleFinder finder = ModuleFinder.of(library, classes);
+		Configuration configuration = ModuleLayer.boot().configuration().resolve(finder, ModuleFinder.of(), Collections.singleton("test.people"));
+		ModuleLayer layer = ModuleLayer.boot().defineModulesWithOneLoader(configuration, ClassLoader.getPlatformClassLoader());
+		ClassLoader loader = layer.findLoader("test.people");
+		Class<?> fiql = loader.loadClass("de.ralleytn.simple.fiql.FIQL");
+		Class<?> people = loader.loadClass("test.people.People");
+		Method eval = fiql.getMethod("eval", String.class, Object.class);
+		Method compile = fiql.getMethod("compile", String.class);
+		
+		for(String name : new String[] {"exported", "opened"}) {
+			
+			Object person = people.getMethod(name).invoke(null);
+			assertEquals(true, eval.invoke(null, "first_name==Peter;income>500", person), name);
+			assertEquals(false, eval.invoke(null, "first_name==Peter;income>5000", person), name);
+			
+			// The compiled FIQL-Query unreflects the getters the same way
+			Object query = compile.invoke(null, "first_name==Peter;income>500");
+			Predicate<?> predicate = (Predicate<?>)query.getClass().getMethod("compile", Class.class).invoke(query, person.getClass());
+			assertTrue(FIQLModuleTest.test(predicate, person), name);
+		}
+	}
+}
@@ -0,0 +1,791 @@
+package de.ralleytn.simple.fiql.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import de.ralleytn.simple.fiql.FIQL;
+import de.ralleytn.simple.fiql.FIQLAggregation;
+import de.ralleytn.simple.fiql.FIQLException;
+import de.ralleytn.simple.fiql.FIQLGroup;
+import de.ralleytn.simple.fiql.FIQLQuery;
+import de.ralleytn.simple.fiql.FIQLQueryCache;
+import de.ralleytn.simple.fiql.FIQLSort;
+import de.ralleytn.simple.fiql.FIQLValue;
+import de.ralleytn.simple.fiql.UncheckedFIQLException;
+
+class FIQLQueryTest {
+	
+	private static final Map<String, Object> person(String firstName, String lastName, int income) {
+		
+		Map<String, Object> person = new HashMap<>();
+		person.put("first_name", firstName);
+		person.put("last_name", lastName);
+		person.put("income", income);
+		person.put("tags", Arrays.asList("customer", lastName.toLowerCase()));
+		return person;
+	}
+	
+	private static final TestObject object(String firstName, String lastName, int country) {
+		
+		TestObject object = new TestObject();
+		object.setFirstName(firstName);
+		object.setLastName(lastName);
+		object.setCountry(country);
+		return object;
+	}
+	
+	@Test
+	void testCompile() throws FIQLException {
+		
+		FIQLQuery query = FIQL.compile("first_name=#=p*;income>1000");
+		
+		assertEquals("first_name=#=p*;income>1000", query.toString());
+		assertTrue(query.test(person("Peter", "Griffin", 2000)));
+		assertFalse(query.test(person("Peter", "Griffin", 500)));
+		assertFalse(query.test(person("Lois", "Griffin", 2000)));
+	}
+	
+	@Test
+	void testOperators() throws FIQLException {
+		
+		Map<String, Object> peter = person("Peter", "Griffin", 1500);
+		
+		assertTrue(FIQL.eval("first_name==Peter", peter));
+		assertFalse(FIQL.eval("first_name==peter", peter));
+		assertTrue(FIQL.eval("first_name=#=peter", peter));
+		assertTrue(FIQL.eval("first_name!=Lois", peter));
+		assertFalse(FIQL.eval("first_name!#=PETER", peter));
+		assertTrue(FIQL.eval("income>=1500", peter));
+		assertTrue(FIQL.eval("income<=1500", peter));
+		assertFalse(FIQL.eval("income>1500", peter));
+		assertTrue(FIQL.eval("income<1501", peter));
+		assertTrue(FIQL.eval("income==1000~2000", peter));
+		assertTrue(FIQL.eval("first_name==Lois|Peter", peter));
+		assertTrue(FIQL.eval("first_name==[ete]", peter));
+		assertTrue(FIQL.eval("first_name==P?t*", peter));
+		assertTrue(FIQL.eval("tags==griffin", peter));
+		assertTrue(FIQL.eval("birth_date==null", peter));
+	}
+	
+	@Test
+	void testPriority() throws FIQLException {
+		
+		Map<String, Object> peter = person("Peter", "Griffin", 1500);
+		
+		assertTrue(FIQL.eval("first_name==Lois;income>0,last_name==Griffin", peter));
+		assertFalse(FIQL.eval("first_name==Lois;(income>0,last_name==Griffin)", peter));
+		assertTrue(FIQL.eval("((first_name==Peter));(income<0,(last_name==Griffin))", peter));
+	}
+	
+	@Test
+	void testShortCircuit() throws FIQLException {
+		
+		Map<String, Object> peter = person("Peter", "Griffin", 1500);
+		
+		// the second comparison would throw an exception if it was evaluated
+		assertTrue(FIQL.eval("income>0,income>abc", peter));
+		assertFalse(FIQL.eval("income<0;income>abc", peter));
+		assertFalse(FIQL.eval("(income<0;first_name==Peter);(income>abc)", peter));
+		assertTrue(FIQL.eval("false,true", peter));
+		assertFalse(FIQL.eval("true;false", peter));
+	}
+	
+	@Test
+	void testWildcards() throws FIQLException {
+		
+		Map<String, Object> map = new HashMap<>();
+		map.put("text", "a*b?c");
+		map.put("long", String.join("", Collections.nCopies(5000, "a")));
+		
+		assertTrue(FIQL.eval("text==a\\*b\\?c", map));
+		assertFalse(FIQL.eval("text==a\\*x\\?c", map));
+		assertTrue(FIQL.eval("text==*\\?*", map));
+		assertFalse(FIQL.eval("text==a*b?c*", map));
+		assertTrue(FIQL.eval("text=#=[B?C]", map));
+		assertTrue(FIQL.eval("long==a*a*a*a*a*a*a*a*a*a*a*a*a*a*a*a", map));
+		assertFalse(FIQL.eval("long==a*a*a*a*a*a*a*a*a*a*a*a*a*a*a*b", map));
+		assertFalse(FIQL.eval("long==[*a*a*a*a*a*a*a*a*a*a*a*a*a*a*a*b]", map));
+	}
+	
+	@Test
+	void testEscape() throws FIQLException {
+		
+		Map<String, Object> map = new HashMap<>();
+		map.put("equation", "a;b,(c)");
+		
+		assertTrue(FIQL.eval("equation==a\\;b\\,\\(c\\)", map));
+		assertTrue(FIQL.eval("equation==a\\;b\\,\\(c\\);(equation==*)", map));
+	}
+	
+	@Test
+	void testFilter() throws FIQLException {
+		
+		List<TestObject> objects = new ArrayList<>();
+		objects.add(object("Peter", "Griffin", 1));
+		objects.add(object("Lois", "Griffin", 1));
+		objects.add(object("Glenn", "Quagmire", 49));
+		
+		FIQLQuery query = FIQL.compile("LastName==Griffin;Country<10");
+		
+		assertTrue(query.test((Object)objects.get(0)));
+		assertFalse(query.test((Object)objects.get(2)));
+		assertTrue(FIQL.eval("Unknown==null;Fax==null;Country==49", objects.get(2)));
+		assertEquals(objects.subList(0, 2), query.filter(objects));
+		assertEquals(objects.subList(0, 2), FIQL.eval("LastName==Griffin;Country<10", objects));
+	}
+	
+	@Test
+	void testParallelFilter() throws FIQLException, InterruptedException {
+		
+		List<Map<String, Object>> people = new ArrayList<>();
+		
+		for(int index = 0; index < 50000; index++) {
+			
+			people.add(person(index % 3 == 0 ? "Peter" : "Lois", "Griffin", index));
+		}
+		
+		FIQLQuery query = FIQL.compile("first_name==Peter;income>=1000");
+		List<Map<String, Object>> expected = query.filter(people);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		
+		try {
+			
+			assertEquals(expected, query.parallelFilter(people));
+			assertEquals(expected, query.parallelFilter(new LinkedList<>(people), executor));
+			assertEquals(query.filter(people.subList(0, 5000)), query.parallelFilter(people.subList(0, 5000), executor, 0));
+			assertThrows(FIQLException.class, () -> FIQL.compile("income>abc").parallelFilter(people, executor, 0));
+		
+		} finally {
+			
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	void testInvalid() {
+		
+		assertThrows(FIQLException.class, () -> FIQL.compile("(first_name==Peter"));
+		assertThrows(FIQLException.class, () -> FIQL.compile("first_name==Peter)"));
+		assertThrows(FIQLException.class, () -> FIQL.compile("first_name"));
+		assertThrows(FIQLException.class, () -> FIQL.eval("income>abc", person("Peter", "Griffin", 1)));
+	}
+	
+	@Test
+	void testErrorPosition() {
+		
+		assertEquals(12, assertThrows(FIQLException.class, () -> FIQL.compile("income>0;a==(b")).getPosition());
+		assertEquals(9, assertThrows(FIQLException.class, () -> FIQL.compile("income>0;;a==b")).getPosition());
+		assertEquals(13, assertThrows(FIQLException.class, () -> FIQL.compile("(a==b;(c==d)))")).getPosition());
+		assertEquals(5, assertThrows(FIQLException.class, () -> FIQL.compile("a==b,(c==d")).getPosition());
+		assertEquals(5, assertThrows(FIQLException.class, () -> FIQL.compile("a==b;c")).getPosition());
+	}
+	
+	@Test
+	void testDeepNesting() throws FIQLException {
+		
+		StringBuilder builder = new StringBuilder();
+		
+		for(int index = 0; index < 500; index++) {
+			
+			builder.append("(income>").append(index).append(';');
+		}
+		
+		builder.append("first_name==Peter");
+		
+		for(int index = 0; index < 500; index++) {
+			
+			builder.append(')');
+		}
+		
+		assertTrue(FIQL.eval(builder.toString(), person("Peter", "Griffin", 1000)));
+		assertFalse(FIQL.eval(builder.toString(), person("Peter", "Griffin", 10)));
+	}
+	
+	@Test
+	void testMaxDepth() throws FIQLException {
+		
+		// Alternating connectors can't be merged, so the tree is as deep as the parentheses
+		StringBuilder builder = new StringBuilder();
+		
+		for(int index = 0; index < FIQL.MAX_DEPTH; index++) {
+			
+			builder.append("(income>").append(index).append(index % 2 == 0 ? ';' : ',');
+		}
+		
+		String inner = "first_name==Peter";
+		StringBuilder close = new StringBuilder();
+		
+		for(int index = 0; index < FIQL.MAX_DEPTH; index++) {
+			
+			close.append(')');
+		}
+		
+		FIQLQuery query = FIQL.compile(builder + inner + close);
+		assertTrue(query.test(person("Peter", "Griffin", 2000)));
+		assertFalse(query.test(person("Peter", "Griffin", 0)));
+		
+		int position = builder.length();
+		String tooDeep = builder + "(" + inner + ")" + close;
+		assertEquals(position, assertThrows(FIQLException.class, () -> FIQL.compile(tooDeep)).getPosition());
+		
+		// Thousands of levels must not overflow the stack before the limit is checked
+		StringBuilder deeper = new StringBuilder();
+		
+		for(int index = 0; index < 100000; index++) {
+			
+			deeper.append('(');
+		}
+		
+		assertEquals(FIQL.MAX_DEPTH, assertThrows(FIQLException.class, () -> FIQL.compile(deeper + inner)).getPosition());
+	}
+	
+	@Test
+	void testDates() throws FIQLException {
+		
+		LocalDateTime dateTime = LocalDateTime.of(2017, 12, 24, 18, 30, 0);
+		Map<String, Object> values = new HashMap<>();
+		values.put("date", LocalDate.of(2017, 12, 24));
+		values.put("time", dateTime);
+		values.put("instant", Instant.ofEpochMilli(1000));
+		values.put("legacy", new Date(1000));
+		
+		assertTrue(FIQL.eval("date==D2017-12-24", values));
+		assertTrue(FIQL.eval("time==DT2017-12-24+18:30:00", values));
+		assertTrue(FIQL.eval("time>D2017-12-24;time<D2017-12-25", values));
+		assertTrue(FIQL.eval("time==D2017-12-01~D2017-12-31", values));
+		assertTrue(FIQL.eval("instant==L1000;legacy==L1000", values));
+		assertTrue(FIQL.eval("instant==DTZ1970-01-01T00:00:01%2B0000", values));
+		assertFalse(FIQL.eval("date==D2017-12-25", values));
+		
+		// Invalid dates are only reported when they are compared with a date
+		FIQLQuery query = FIQL.compile("date==Dxyz");
+		assertFalse(query.test(person("Peter", "Griffin", 1000)));
+		assertThrows(FIQLException.class, () -> query.test(values));
+		assertThrows(FIQLException.class, () -> FIQL.eval("date==2017-12-24", values));
+	}
+	
+	@Test
+	void testNumbers() throws FIQLException {
+		
+		Map<String, Object> values = new HashMap<>();
+		values.put("id", 9007199254740993L);
+		values.put("price", new BigDecimal("0.1"));
+		values.put("amount", 5);
+		values.put("ratio", Double.NaN);
+		
+		// 9007199254740993 cannot be represented as double and would be equal to 9007199254740992
+		assertTrue(FIQL.eval("id==9007199254740993", values));
+		assertFalse(FIQL.eval("id==9007199254740992", values));
+		assertTrue(FIQL.eval("id>9007199254740992", values));
+		assertTrue(FIQL.eval("id==9007199254740992~9007199254740993", values));
+		assertTrue(FIQL.eval("price==0.1;price<0.10000000000000001;price>0.09", values));
+		assertTrue(FIQL.eval("amount==5.0;amount>4.5;amount<=5;amount==1~5", values));
+		assertFalse(FIQL.eval("ratio==NaN,ratio<1,ratio>=1", values));
+		assertThrows(FIQLException.class, () -> FIQL.eval("amount==five", values));
+		assertThrows(FIQLException.class, () -> FIQL.eval("amount>five", values));
+	}
+	
+	@Test
+	void testCache() throws FIQLException {
+		
+		FIQLQueryCache cache = new FIQLQueryCache(2);
+		FIQLQuery first = cache.get("first_name==Peter");
+		FIQLQuery second = cache.get("last_name==Griffin");
+		
+		assertSame(first, cache.get("first_name==Peter"));
+		
+		// "last_name==Griffin" is the least recently used one now
+		cache.get("income>1000");
+		assertEquals(2, cache.size());
+		assertSame(first, cache.get("first_name==Peter"));
+		assertTrue(second != cache.get("last_name==Griffin"));
+		
+		assertEquals(2, cache.getHits());
+		assertEquals(4, cache.getMisses());
+		assertEquals(2, cache.getEvictions());
+		
+		assertThrows(FIQLException.class, () -> cache.get("first_name=Peter"));
+		assertEquals(2, cache.size());
+		
+		cache.setCapacity(0);
+		assertEquals(0, cache.size());
+		assertTrue(cache.get("first_name==Peter") != cache.get("first_name==Peter"));
+		
+		assertTrue(FIQL.eval("first_name==Peter", person("Peter", "Griffin", 1000)));
+		assertTrue(FIQL.getCache().size() > 0);
+	}
+	
+	@Test
+	void testAlternatives() throws FIQLException {
+		
+		StringBuilder names = new StringBuilder("Lois|Pe?er");
+		
+		for(int index = 0; index < 500; index++) {
+			
+			names.append("|Name").append(index);
+		}
+		
+		Map<String, Object> peter = person("Peter", "Griffin", 1000);
+		
+		assertTrue(FIQL.eval("first_name==" + names, peter));
+		assertTrue(FIQL.eval("first_name==" + names + "|Meg", person("Meg", "Griffin", 0)));
+		assertTrue(FIQL.eval("first_name=#=" + names, person("NAME250", "Griffin", 0)));
+		assertFalse(FIQL.eval("first_name==" + names, person("NAME250", "Griffin", 0)));
+		assertFalse(FIQL.eval("first_name==" + names, person("Name", "Griffin", 0)));
+		assertTrue(FIQL.eval("last_name==[" + names + "|iff]", peter));
+		assertTrue(FIQL.eval("last_name=#=[" + names + "|IFF]", peter));
+		assertFalse(FIQL.eval("last_name==[" + names + "|IFF]", peter));
+		assertTrue(FIQL.eval("first_name!=[" + names + "|IFF]", person("Stewie", "Griffin", 0)));
+	}
+	
+	@Test
+	void testManyKeywords() throws FIQLException {
+		
+		// More distinct characters than fit into a table row for each state of the automaton
+		StringBuilder alphabet = new StringBuilder();
+		
+		for(char character = '\u0391'; character <= '\u03a9'; character++) {
+			
+			alphabet.append(character);
+		}
+		
+		for(char character = '\u4e00'; character < '\u4e00' + 400; character++) {
+			
+			alphabet.append(character);
+		}
+		
+		Random random = new Random(42);
+		List<String> keywords = new ArrayList<>();
+		
+		for(int index = 0; index < 3000; index++) {
+			
+			keywords.add(random.ints(3, 0, alphabet.length()).mapToObj(letter -> String.valueOf(alphabet.charAt(letter))).collect(Collectors.joining()));
+		}
+		
+		FIQLQuery query = FIQL.compile("name==[" + String.join("|", keywords) + "]");
+		FIQLQuery ignoreCase = FIQL.compile("name=#=[" + String.join("|", keywords) + "]");
+		
+		for(int index = 0; index < 1000; index++) {
+			
+			String name = random.ints(8, 0, alphabet.length()).mapToObj(letter -> String.valueOf(alphabet.charAt(letter))).collect(Collectors.joining());
+			
+			if(index % 2 == 0) {
+				
+				name = name.substring(0, 4) + keywords.get(random.nextInt(keywords.size())) + name.substring(4);
+			}
+			
+			String lowerCase = name.toLowerCase();
+			boolean contained = keywords.stream().anyMatch(name::contains);
+			Map<String, Object> values = Collections.singletonMap("name", name);
+			Map<String, Object> lowerCaseValues = Collections.singletonMap("name", lowerCase);
+			
+			assertEquals(contained, query.test(values), name);
+			assertEquals(contained, ignoreCase.test(lowerCaseValues), lowerCase);
+			assertEquals(keywords.stream().anyMatch(lowerCase::contains), query.test(lowerCaseValues), lowerCase);
+		}
+	}
+	
+	@Test
+	void testCompileToMethodHandles() throws FIQLException {
+		
+		List<TestObject> objects = new ArrayList<>();
+		
+		for(int index = 0; index < 100; index++) {
+			
+			TestObject object = object("Name" + index, index % 2 == 0 ? "Griffin" : null, index - 50);
+			object.setSalutation(index % 3);
+			objects.add(object);
+		}
+		
+		String[] queries = {
+			
+			"Country==5",
+			"Country!=-3~3;Salutation>=1",
+			"Country<2.5,Country>1e300",
+			"Country==NaN,Salutation==0",
+			"LastName==null;Country>40",
+			"FirstName==Name1*;Salutation!=2",
+			"(Country>=10;Country<20),Missing==null;Country==-50"
+		};
+		
+		for(String fiql : queries) {
+			
+			FIQLQuery query = FIQL.compile(fiql);
+			Predicate<TestObject> predicate = query.compile(TestObject.class);
+			
+			// The FIQL-Query is compiled only once per class
+			assertSame(predicate, query.compile(TestObject.class));
+			
+			for(TestObject object : objects) {
+				
+				assertEquals(query.test(object), predicate.test(object), fiql);
+			}
+		}
+		
+		// Too deeply nested for a MethodHandle, so the interpreter is used
+		String nested = "Country==5";
+		
+		for(int depth = 0; depth < 100; depth++) {
+			
+			nested = "(" + nested + ",Salutation==" + depth + ")";
+		}
+		
+		Predicate<TestObject> deep = FIQL.compile(nested).compile(TestObject.class);
+		assertEquals(FIQL.compile(nested).test(objects.get(55)), deep.test(objects.get(55)));
+		assertTrue(deep.test(objects.get(55)));
+		
+		Predicate<Object> predicate = FIQL.compile("income>1000").compile(Object.class);
+		assertTrue(predicate.test(person("Peter", "Griffin", 2000)));
+		assertFalse(predicate.test(objects.get(0)));
+		assertThrows(UncheckedFIQLException.class, () -> FIQL.compile("Country==five").compile(TestObject.class).test(objects.get(0)));
+	}
+	
+	@Test
+	void testCompileDefinesNoClasses() throws Exception {
+		
+		// Through reflection, because the tests are compiled in the module of the library, which does not read java.management
+		Object classes = Class.forName("java.lang.management.ManagementFactory").getMethod("getClassLoadingMXBean").invoke(null);
+		Method loaded = Class.forName("java.lang.management.ClassLoadingMXBean").getMethod("getTotalLoadedClassCount");
+		TestObject object = object("Peter", "Griffin", 49);
+		int queries = 1000;
+		
+		FIQL.compile("Country==0;FirstName==Name,Salutation>0").compile(TestObject.class).test(object);
+		long before = (Long)loaded.invoke(classes);
+		
+		for(int index = 0; index < queries; index++) {
+			
+			FIQLQuery query = FIQL.compile("Country==" + index + ";FirstName==Name" + index + ",Salutation>" + index);
+			assertEquals(query.test(object), query.compile(TestObject.class).test(object));
+		}
+		
+		// A class per FIQL-Query could never be unloaded while the class it was compiled for is loaded
+		long defined = (Long)loaded.invoke(classes) - before;
+		assertTrue(defined < queries / 10, defined + " classes for " + queries + " FIQL-Queries");
+	}
+	
+	@Test
+	void testLazyFilter() throws FIQLException {
+		
+		FIQLQuery query = FIQL.compile("income>1000");
+		Predicate<Map<String, Object>> predicate = query.asPredicate();
+		
+		assertTrue(predicate.test(person("Peter", "Griffin", 1500)));
+		assertFalse(predicate.test(person("Lois", "Griffin", 500)));
+		
+		// Infinite sources can only be filtered lazily
+		List<Object> incomes = query.filter(Stream.iterate(0, income -> income + 250).map(income -> person("Peter", "Griffin", income)))
+			.limit(3)
+			.map(person -> person.get("income"))
+			.collect(Collectors.toList());
+		assertEquals(Arrays.asList(1250, 1500, 1750), incomes);
+		
+		Iterator<Map<String, Object>> iterator = query.filter(Stream.generate(() -> person("Peter", "Griffin", 2000)).iterator());
+		assertTrue(iterator.hasNext());
+		assertEquals(2000, iterator.next().get("income"));
+		
+		List<Map<String, Object>> persons = new ArrayList<>();
+		Iterable<Map<String, Object>> view = query.filterLazily(persons);
+		assertFalse(view.iterator().hasNext());
+		
+		persons.add(person("Peter", "Griffin", 1500));
+		persons.add(person("Lois", "Griffin", 500));
+		persons.add(person("Meg", "Griffin", 2000));
+		iterator = view.iterator();
+		assertEquals("Peter", iterator.next().get("first_name"));
+		assertEquals("Meg", iterator.next().get("first_name"));
+		assertFalse(iterator.hasNext());
+		assertThrows(NoSuchElementException.class, iterator::next);
+		
+		// Errors are only thrown when the elements are evaluated
+		iterator = FIQL.compile("income>abc").filterLazily(persons).iterator();
+		assertThrows(UncheckedFIQLException.class, iterator::hasNext);
+	}
+	
+	@Test
+	void testEarlyTermination() throws FIQLException {
+		
+		List<Map<String, Object>> persons = new ArrayList<>();
+		
+		for(int index = 0; index < 100; index++) {
+			
+			persons.add(person("Name" + index, "Griffin", index * 100));
+		}
+		
+		// Every element after this one would throw an exception if it was evaluated
+		persons.get(50).put("income", 5000);
+		
+		for(int index = 51; index < persons.size(); index++) {
+			
+			persons.get(index).put("income", new Date());
+		}
+		
+		FIQLQuery query = FIQL.compile("income>=1000");
+		List<Map<String, Object>> page = query.filter(persons, 5, 3);
+		
+		assertEquals(3, page.size());
+		assertEquals("Name15", page.get(0).get("first_name"));
+		assertEquals("Name17", page.get(2).get("first_name"));
+		assertEquals("Name10", query.findFirst(persons).get().get("first_name"));
+		assertTrue(query.anyMatch(persons));
+		assertFalse(FIQL.compile("income<0").anyMatch(persons.subList(0, 50)));
+		assertFalse(FIQL.compile("income<0").findFirst(persons.subList(0, 50)).isPresent());
+		assertEquals(40, query.count(persons.subList(0, 50)));
+		assertEquals(0, query.filter(persons, 0, 0).size());
+		assertEquals(Arrays.asList(persons.get(50)), query.filter(persons, 40, 1));
+		assertThrows(FIQLException.class, () -> query.filter(persons, 40, 2));
+		assertThrows(FIQLException.class, () -> query.count(persons));
+		assertThrows(IllegalArgumentException.class, () -> query.filter(persons, -1, 10));
+	}
+	
+	@Test
+	void testTopK() throws FIQLException, InterruptedException {
+		
+		List<Map<String, Object>> persons = new ArrayList<>();
+		
+		for(int index = 0; index < 20000; index++) {
+			
+			persons.add(person("Name" + index, index % 3 == 0 ? "Griffin" : "Swanson", (index * 7919) % 10000));
+		}
+		
+		persons.get(5).put("income", null);
+		
+		FIQLQuery query = FIQL.compile("last_name==Griffin");
+		FIQLSort sort = FIQLSort.parse("-income,first_name");
+		List<Map<String, Object>> expected = query.filter(persons);
+		expected.sort(Comparator.comparing((Map<String, Object> person) -> (Integer)person.get("income"), Comparator.reverseOrder()).thenComparing(person -> (String)person.get("first_name")));
+		
+		assertEquals(expected.subList(0, 10), query.filter(persons, sort, 10));
+		assertEquals(expected, query.filter(persons, sort, Integer.MAX_VALUE));
+		assertEquals(0, query.filter(persons, sort, 0).size());
+		
+		// null comes last, no matter the direction
+		FIQLQuery small = FIQL.compile("first_name==Name5,income<10");
+		List<Map<String, Object>> descending = small.filter(persons, FIQLSort.parse("-income"), 100);
+		List<Map<String, Object>> ascending = small.filter(persons, FIQLSort.parse("+income"), 100);
+		assertEquals("Name5", descending.get(descending.size() - 1).get("first_name"));
+		assertEquals("Name5", ascending.get(ascending.size() - 1).get("first_name"));
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		
+		try {
+			
+			assertEquals(expected.subList(0, 100), query.parallelFilter(persons, sort, 100, executor, 1000));
+		
+		} finally {
+			
+			executor.shutdown();
+		}
+		
+		// Equal elements keep their order
+		List<Map<String, Object>> griffins = FIQL.compile("income>=0").filter(persons, FIQLSort.parse("last_name"), 5);
+		assertEquals(Arrays.asList("Name0", "Name3", "Name6", "Name9", "Name12"), griffins.stream().map(person -> person.get("first_name")).collect(Collectors.toList()));
+		
+		assertEquals(Arrays.asList("income", "last_name"), FIQLSort.parse("-income,+last_name").getSelectors());
+		assertThrows(FIQLException.class, () -> FIQLSort.parse("income,,last_name"));
+		assertThrows(IllegalArgumentException.class, () -> query.filter(persons, sort, -1));
+	}
+	
+	@Test
+	void testAggregate() throws FIQLException, InterruptedException {
+		
+		List<Map<String, Object>> persons = new ArrayList<>();
+		
+		for(int index = 0; index < 20000; index++) {
+			
+			persons.add(person("Name" + index, index % 3 == 0 ? "Griffin" : (index % 3 == 1 ? "Swanson" : "Quagmire"), index % 100));
+		}
+		
+		persons.get(1).put("income", null);
+		persons.get(2).put("income", 0.5);
+		
+		FIQLQuery query = FIQL.compile("income!=99");
+		FIQLAggregation aggregation = FIQLAggregation.groupBy("last_name").measure("income");
+		List<FIQLGroup> groups = query.aggregate(persons, aggregation);
+		
+		// The groups are in the order their first elements appear in
+		assertEquals(Arrays.asList("Griffin", "Swanson", "Quagmire"), groups.stream().map(group -> group.getKey().get(0)).collect(Collectors.toList()));
+		
+		for(FIQLGroup group : groups) {
+			
+			List<Map<String, Object>> expected = FIQL.compile("income!=99;last_name==" + group.getKey().get(0)).filter(persons);
+			List<Number> incomes = expected.stream().map(person -> (Number)person.get("income")).filter(income -> income != null).collect(Collectors.toList());
+			double sum = incomes.stream().mapToDouble(Number::doubleValue).sum();
+			
+			assertEquals(expected.size(), group.getCount());
+			assertEquals(incomes.size(), group.getCount("income"));
+			assertEquals(sum, group.getSum("income").doubleValue());
+			assertEquals(sum / incomes.size(), group.getAverage("income"), 0.000001);
+		}
+		
+		// Integers stay exact, other numbers make the aggregates doubles and null is ignored
+		assertEquals(Long.valueOf(0), groups.get(0).getMin("income"));
+		assertEquals(Long.valueOf(98), groups.get(0).getMax("income"));
+		assertEquals(Double.valueOf(98), groups.get(2).getMax("income"));
+		assertEquals(6666 - 67, groups.get(1).getCount("income"));
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		
+		try {
+			
+			List<FIQLGroup> parallel = query.parallelAggregate(persons, aggregation, executor, 1000);
+			assertEquals(groups.toString(), parallel.toString());
+			
+			for(int index = 0; index < groups.size(); index++) {
+				
+				assertEquals(groups.get(index).getSum("income"), parallel.get(index).getSum("income"));
+				assertEquals(groups.get(index).getMax("income"), parallel.get(index).getMax("income"));
+			}
+		
+		} finally {
+			
+			executor.shutdown();
+		}
+		
+		// No group selectors put all filtered elements into a single group
+		List<FIQLGroup> all = FIQL.compile("last_name==Griffin").aggregate(persons, FIQLAggregation.groupBy());
+		assertEquals(1, all.size());
+		assertEquals(6667, all.get(0).getCount());
+		assertEquals(Collections.emptyList(), all.get(0).getKey());
+		
+		// The sum falls back to double when it does not fit into a long
+		List<Map<String, Object>> large = Arrays.asList(person("A", "B", 0), person("C", "B", 0));
+		large.forEach(person -> person.put("income", Long.MAX_VALUE));
+		assertEquals(2.0 * Long.MAX_VALUE, FIQL.compile("last_name==B").aggregate(large, aggregation).get(0).getSum("income"));
+		
+		assertEquals(0, query.aggregate(Collections.emptyList(), aggregation).size());
+		assertThrows(IllegalArgumentException.class, () -> groups.get(0).getSum("first_name"));
+	}
+	
+	@Test
+	void testReentrant() throws FIQLException {
+		
+		// The getter of "child" evaluates the same FIQL-Query while the evaluation of its parent is still running
+		FIQLQuery query = FIQL.compile("name==a*,child==true;name!=c*");
+		Node leaf = new Node(query, "a3", null);
+		
+		assertTrue(query.test(leaf));
+		assertTrue(query.test(new Node(query, "b2", leaf)));
+		assertTrue(query.test(new Node(query, "b1", new Node(query, "b2", leaf))));
+		assertFalse(query.test(new Node(query, "c1", new Node(query, "b2", leaf))));
+		assertFalse(query.test(new Node(query, "b1", new Node(query, "b2", null))));
+	}
+	
+	@Test
+	void testSharedContext() throws FIQLException {
+		
+		// All FIQL-Queries of a thread share one context, so no value may be left over from a FIQL-Query with other selectors
+		FIQLQuery wide = FIQL.compile("LastName==Griffin;FirstName==Peter;Country==49");
+		FIQLQuery narrow = FIQL.compile("Country==49");
+		FIQLQuery map = FIQL.compile("first_name==Peter");
+		TestObject peter = object("Peter", "Griffin", 49);
+		TestObject meg = object("Meg", "Griffin", 50);
+		
+		assertTrue(wide.test(peter));
+		assertFalse(narrow.test(meg));
+		assertFalse(map.test(person("Meg", "Griffin", 0)));
+		assertFalse(wide.test(meg));
+		assertTrue(map.test(person("Peter", "Griffin", 0)));
+		assertTrue(narrow.test(peter));
+		assertTrue(wide.test(peter));
+	}
+	
+	@Test
+	void testAllocation() throws Exception {
+		
+		// Through reflection, because the tests are compiled in the module of the library, which does not read jdk.management
+		Object threads = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+		Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+		assumeTrue(type.isInstance(threads) && (Boolean)type.getMethod("isThreadAllocatedMemoryEnabled").invoke(threads));
+		Method allocated = type.getMethod("getThreadAllocatedBytes", long.class);
+		
+		Map<String, Object> person = person("Peter", "Griffin", 2000);
+		TestObject object = object("Peter", "Griffin", 49);
+		FIQLQuery mapQuery = FIQL.compile("first_name==Pe*;income>1000,last_name=#=griffin");
+		FIQLQuery objectQuery = FIQL.compile("FirstName==Pe*;Country>10,LastName=#=griffin");
+		Long thread = Thread.currentThread().getId();
+		int evaluations = 100000;
+		
+		// The first evaluations are run by the interpreter and may be compiled in the meantime
+		for(int index = 0; index < evaluations; index++) {
+			
+			mapQuery.test(person);
+			objectQuery.test(object);
+		}
+		
+		long before = (Long)allocated.invoke(threads, thread);
+		
+		for(int index = 0; index < evaluations; index++) {
+			
+			mapQuery.test(person);
+		}
+		
+		long map = (Long)allocated.invoke(threads, thread) - before;
+		before = (Long)allocated.invoke(threads, thread);
+		
+		for(int index = 0; index < evaluations; index++) {
+			
+			objectQuery.test(object);
+		}
+		
+		long objects = (Long)allocated.invoke(threads, thread) - before;
+		
+		// Less than a byte per evaluation leaves room for the measurement itself, but not for a single object per evaluation
+		assertTrue(map < evaluations, map + " bytes for " + evaluations + " maps");
+		assertTrue(objects < evaluations, objects + " bytes for " + evaluations + " objects");
+	}
+	
+	public static class Node {
+		
+		private final FIQLQuery query;
+		private final String name;
+		private final Node child;
+		
+		private Node(FIQLQuery query, String name, Node child) {
+			
+			this.query = query;
+			this.name = name;
+			this.child = child;
+		}
+		
+		@FIQLValue("name")
+		public String getName() {
+			
+			return this.name;
+		}
+		
+		@FIQLValue("child")
+		public boolean isChildPositive() throws FIQLException {
+			
+			return this.child != null && this.query.test(this.child);
+		}
+	}
+}
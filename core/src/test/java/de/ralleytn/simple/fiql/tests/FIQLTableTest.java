@@ -0,0 +1,158 @@
+package de.ralleytn.simple.fiql.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.ralleytn.simple.fiql.FIQL;
+import de.ralleytn.simple.fiql.FIQLException;
+import de.ralleytn.simple.fiql.FIQLTable;
+
+class FIQLTableTest {
+	
+	private static final FIQLTable table() throws FIQLException {
+		
+		FIQLTable table = new FIQLTable();
+		table.createLongColumn("id");
+		table.createDoubleColumn("price");
+		table.createStringColumn("name");
+		
+		for(int index = 0; index < 5000; index++) {
+			
+			if(index == 2500) {
+				
+				table.createDateColumn("created");
+			}
+			
+			Map<String, Object> row = new HashMap<>();
+			row.put("id", (long)index);
+			row.put("price", index % 7 == 0 ? Double.NaN : index / 8.0);
+			row.put("name", index % 100 == 0 ? null : new String("Name" + (index % 300)));
+			row.put("created", Instant.ofEpochMilli(index * 60000L));
+			table.add(row);
+		}
+		
+		return table;
+	}
+	
+	// The selected rows, which have to be the same the FIQL-Query matches row by row
+	private static final List<Integer> select(FIQLTable table, String fiql) throws FIQLException {
+		
+		List<Map<String, Object>> rows = new ArrayList<>();
+		
+		for(int row = 0; row < table.size(); row++) {
+			
+			rows.add(table.getRow(row));
+		}
+		
+		assertEquals(FIQL.eval(fiql, rows), table.filter(fiql), fiql);
+		return table.select(fiql).stream().boxed().collect(Collectors.toList());
+	}
+	
+	private static final List<Integer> range(int from, int to) {
+		
+		return IntStream.range(from, to).boxed().collect(Collectors.toList());
+	}
+	
+	@Test
+	void testLongs() throws FIQLException {
+		
+		FIQLTable table = table();
+		
+		assertEquals(Arrays.asList(4711), select(table, "id==4711"));
+		assertEquals(Arrays.asList(63, 64), select(table, "id==63~64"));
+		assertEquals(Arrays.asList(0, 1, 2, 4990, 4991, 4992, 4993, 4994, 4995, 4996, 4997, 4998, 4999), select(table, "id>=4990,id<3"));
+		assertEquals(range(101, 201), select(table, "id==100.5~200"));
+		assertEquals(Collections.emptyList(), select(table, "id>4999.5"));
+	}
+	
+	@Test
+	void testDoubles() throws FIQLException {
+		
+		FIQLTable table = table();
+		
+		assertEquals(Arrays.asList(80, 81, 82), select(table, "price==10~10.25"));
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 8, 9, 11, 12, 13, 15, 16, 17, 18, 19, 20), select(table, "price<=2.5;price!=1.25"));
+		
+		// NaN is not equal to anything, not even to NaN
+		assertEquals(Collections.emptyList(), select(table, "price==NaN"));
+		assertEquals(199 - 29, select(table, "price>600,price==NaN").size());
+	}
+	
+	@Test
+	void testStrings() throws FIQLException {
+		
+		FIQLTable table = table();
+		
+		// Every row got its own instance of the string, but equal strings are stored once in the dictionary
+		assertSame(table.get(42, "name"), table.get(342, "name"));
+		assertSame(table.get(42, "name"), table.get(4842, "name"));
+		
+		assertEquals(17, select(table, "name==Name42").size());
+		assertEquals(50, select(table, "name==null").size());
+		assertEquals(50 + 17 + 160, select(table, "name==null,name==[e29]").size());
+		assertEquals(3 * 109 + 10, select(table, "name=#=name1*;id<1000").size());
+		assertEquals(40 - 6 - 2, select(table, "name!=Name7|Name8|Name9;price<5").size());
+		assertEquals(Collections.emptyList(), select(table, "name<Name1"));
+	}
+	
+	@Test
+	void testDates() throws FIQLException {
+		
+		FIQLTable table = table();
+		
+		// The column was created after 2500 rows had been added, so they have no date
+		assertNull(table.get(42, "created"));
+		assertEquals(Instant.ofEpochMilli(2500 * 60000L), table.get(2500, "created"));
+		assertEquals(range(0, 2500), select(table, "id<2500;created==null"));
+		assertEquals(range(2600, 2610), select(table, "created>=L156000000;id<2610"));
+		assertEquals(range(0, 10), select(table, "missing==null;id<10"));
+	}
+	
+	@Test
+	void testSelection() throws FIQLException {
+		
+		FIQLTable table = table();
+		
+		// A comparison is only evaluated against the rows that are still selected, so it only fails where the FIQL-Query would fail row by row
+		assertEquals(Collections.emptyList(), select(table, "id<0;price==abc"));
+		assertEquals(range(0, 5000), select(table, "id>=0,price==abc"));
+		assertThrows(FIQLException.class, () -> table.select("id<10;price==abc"));
+		assertThrows(FIQLException.class, () -> table.select("id<0,price==abc"));
+	}
+	
+	@Test
+	void testValues() throws FIQLException {
+		
+		FIQLTable table = new FIQLTable();
+		table.createLongColumn("id");
+		table.createDateColumn("created");
+		
+		Map<String, Object> row = new HashMap<>();
+		row.put("id", 1);
+		row.put("created", Instant.ofEpochMilli(1000L));
+		table.add(row);
+		
+		row.put("id", "one");
+		assertThrows(FIQLException.class, () -> table.add(row));
+		assertEquals(1, table.size());
+		assertEquals(1L, table.get(0, "id"));
+		assertEquals(Instant.ofEpochMilli(1000L), table.get(0, "created"));
+		assertThrows(IllegalArgumentException.class, () -> table.createLongColumn("id"));
+		assertThrows(FIQLException.class, () -> table.select("id==one"));
+		assertEquals(0, table.select("id==2;created==one").cardinality());
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2017 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.simple.fiql.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@code FIQLAccessorProvider} for every class with getters marked with {@code FIQLValue}, so that SimpleFIQL does not
+ * have to look them up with reflection. The getters are called directly by the generated code.
+ * The providers are registered in {@code META-INF/services/de.ralleytn.simple.fiql.FIQLAccessorProvider}, together with the ones that
+ * are already registered there from a previous compilation. In a named module, they have
+ * to be declared with {@code provides} as well.
+ * <p>
+ * Only public, non static getters without parameters are used, just like at runtime. The getters a class inherits are included,
+ * also for classes that have no annotated getters of their own.
+ * A class needs to be at least package private and, if it is nested, static.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 2.1.0
+ * @since 2.1.0
+ */
+// All classes are processed, because classes that only inherit their getters are not annotated themselves.
+@SupportedAnnotationTypes("*")
+public final class FIQLValueProcessor extends AbstractProcessor {
+	
+	private static final String ANNOTATION = "de.ralleytn.simple.fiql.FIQLValue";
+	private static final String PROVIDER = "de.ralleytn.simple.fiql.FIQLAccessorProvider";
+	private static final String SUFFIX = "_FIQLAccessors";
+	
+	private final List<String> providers = new ArrayList<>();
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment environment) {
+		
+		TypeElement annotation = this.processingEnv.getElementUtils().getTypeElement(FIQLValueProcessor.ANNOTATION);
+		
+		if(annotation != null) {
+			
+			for(Element element : environment.getElementsAnnotatedWith(annotation)) {
+				
+				if(element.getKind() != ElementKind.METHOD || !this.isGetter((ExecutableElement)element)) {
+					
+					this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "@FIQLValue is ignored on anything but public, non static getters without parameters", element);
+				}
+			}
+		}
+		
+		if(environment.processingOver()) {
+			
+			this.writeServices();
+		
+		} else {
+			
+			// Classes that only inherit their getters need accessors as well, because they are looked up by their exact class.
+			for(TypeElement type : ElementFilter.typesIn(environment.getRootElements())) {
+				
+				this.generateAll(type);
+			}
+		}
+		
+		return false;
+	}
+	
+	private final boolean isGetter(ExecutableElement method) {
+		
+		Set<Modifier> modifiers = method.getModifiers();
+		return modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.STATIC) && method.getParameters().isEmpty() &&
+			   method.getReturnType().getKind() != TypeKind.VOID;
+	}
+	
+	private final void generateAll(TypeElement type) {
+		
+		if((type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.ENUM) && !type.getModifiers().contains(Modifier.ABSTRACT)) {
+			
+			this.generate(type);
+		}
+		
+		for(TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+			
+			this.generateAll(member);
+		}
+	}
+	
+	private final void generate(TypeElement type) {
+		
+		// Like Class.getMethods(), all public members are included and overridden methods only count once.
+		Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+		
+		for(ExecutableElement method : ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(type))) {
+			
+			String selector = this.getSelector(method);
+			
+			if(selector != null && this.isGetter(method) && getters.putIfAbsent(selector, method) != null) {
+				
+				this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "The selector '" + selector + "' is used by more than one getter", method);
+			}
+		}
+		
+		if(getters.isEmpty()) {
+			
+			return;
+		
+		} else if(type.getModifiers().contains(Modifier.PRIVATE) || (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) ||
+		   type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+			
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "No accessors are generated for private, local or inner classes, their getters are looked up with reflection", type);
+			return;
+		}
+		
+		PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+		String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+		String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + FIQLValueProcessor.SUFFIX;
+		String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		String typeName = this.processingEnv.getTypeUtils().erasure(type.asType()).toString();
+		
+		if(this.providers.contains(name)) {
+			
+			return;
+		}
+		
+		try(Writer writer = this.processingEnv.getFiler().createSourceFile(name, type).openWriter()) {
+			
+			if(!packageName.isEmpty()) {
+				
+				writer.write("package " + packageName + ";\n\n");
+			}
+			
+			writer.write("@javax.annotation.processing.Generated(\"" + FIQLValueProcessor.class.getName() + "\")\n");
+			writer.write("public final class " + simpleName + " implements " + FIQLValueProcessor.PROVIDER + " {\n\n");
+			writer.write("\tprivate static final String[] SELECTORS = {");
+			int index = 0;
+			
+			for(String selector : getters.keySet()) {
+				
+				writer.write((index++ > 0 ? ", " : "") + this.processingEnv.getElementUtils().getConstantExpression(selector));
+			}
+			
+			writer.write("};\n\n");
+			writer.write("\t@Override\n\tpublic Class<?> getType() {\n\n\t\treturn " + typeName + ".class;\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic String[] getSelectors() {\n\n\t\treturn SELECTORS.clone();\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic Object get(Object target, int selector) throws Exception {\n\n");
+			writer.write("\t\t" + typeName + " value = (" + typeName + ")target;\n\n");
+			writer.write("\t\tswitch(selector) {\n\n");
+			index = 0;
+			
+			for(ExecutableElement getter : getters.values()) {
+				
+				writer.write("\t\t\tcase " + index++ + ": return value." + getter.getSimpleName() + "();\n");
+			}
+			
+			writer.write("\t\t\tdefault: throw new IndexOutOfBoundsException(\"Selector: \" + selector);\n");
+			writer.write("\t\t}\n\t}\n}\n");
+			this.providers.add(name);
+		
+		} catch(IOException exception) {
+			
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "The accessors could not be generated: " + exception.getMessage(), type);
+		}
+	}
+	
+	private final String getSelector(ExecutableElement method) {
+		
+		for(AnnotationMirror mirror : method.getAnnotationMirrors()) {
+			
+			if(((TypeElement)mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(FIQLValueProcessor.ANNOTATION)) {
+				
+				for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+					
+					if(entry.getKey().getSimpleName().contentEquals("value")) {
+						
+						return (String)entry.getValue().getValue();
+					}
+				}
+			}
+		}
+		
+		return null;
+	}
+	
+	private final void writeServices() {
+		
+		if(this.providers.isEmpty()) {
+			
+			return;
+		}
+		
+		String path = "META-INF/services/" + FIQLValueProcessor.PROVIDER;
+		Set<String> services = new LinkedHashSet<>();
+		
+		// On an incremental build only some of the classes are processed, the providers of the others are still registered.
+		try(BufferedReader reader = new BufferedReader(this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path).openReader(true))) {
+			
+			this.readServices(reader, services);
+		
+		} catch(IOException exception) {
+			
+			// There is no services file yet
+		}
+		
+		services.addAll(this.providers);
+		
+		try {
+			
+			FileObject file = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
+			
+			try(Writer writer = file.openWriter()) {
+				
+				for(String service : services) {
+					
+					writer.write(service + "\n");
+				}
+			}
+		
+		} catch(IOException exception) {
+			
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "The accessors could not be registered: " + exception.getMessage());
+		}
+	}
+	
+	private final void readServices(BufferedReader reader, Set<String> services) throws IOException {
+		
+		String line = null;
+		
+		while((line = reader.readLine()) != null) {
+			
+			int comment = line.indexOf('#');
+			String service = (comment != -1 ? line.substring(0, comment) : line).trim();
+			
+			if(!service.isEmpty()) {
+				
+				services.add(service);
+			}
+		}
+	}
+}
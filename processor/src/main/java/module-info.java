@@ -0,0 +1,7 @@
+module de.ralleytn.simple.fiql.processor {
+	
+	requires java.compiler;
+	requires static de.ralleytn.simple.fiql;
+	
+	provides javax.annotation.processing.Processor with de.ralleytn.simple.fiql.processor.FIQLValueProcessor;
+}
@@ -0,0 +1,102 @@
+package de.ralleytn.simple.fiql.processor.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+
+import de.ralleytn.simple.fiql.FIQLAccessorProvider;
+import de.ralleytn.simple.fiql.processor.FIQLValueProcessor;
+
+class FIQLValueProcessorTest {
+	
+	private static final String PERSON =
+		"package test;\n" +
+		"import de.ralleytn.simple.fiql.FIQLValue;\n" +
+		"public class Person {\n" +
+		"	@FIQLValue(\"first_name\") public String getFirstName() { return \"Peter\"; }\n" +
+		"	@FIQLValue(\"income\") public int getIncome() { return 1000; }\n" +
+		"	@FIQLValue(\"ignored\") public static String getIgnored() { return null; }\n" +
+		"	public static class Child extends Person {\n" +
+		"		@Override public String getFirstName() { return \"Stewie\"; }\n" +
+		"	}\n" +
+		"}\n";
+	
+	private static final String CAR =
+		"package test;\n" +
+		"import de.ralleytn.simple.fiql.FIQLValue;\n" +
+		"public class Car {\n" +
+		"	@FIQLValue(\"brand\") public String getBrand() { return \"Ford\"; }\n" +
+		"}\n";
+	
+	private static final FIQLAccessorProvider provider(ClassLoader loader, String name) throws ReflectiveOperationException {
+		
+		return (FIQLAccessorProvider)loader.loadClass(name).getConstructor().newInstance();
+	}
+	
+	@Test
+	void testGenerate() throws Exception {
+		
+		Path directory = Files.createTempDirectory("fiql");
+		Path source = directory.resolve("Person.java");
+		Files.write(source, FIQLValueProcessorTest.PERSON.getBytes(StandardCharsets.UTF_8));
+		
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertEquals(0, compiler.run(null, null, null, "-classpath", System.getProperty("java.class.path"), "-processor", FIQLValueProcessor.class.getName(), "-d", directory.toString(), source.toString()));
+		
+		List<String> services = Files.readAllLines(directory.resolve("META-INF/services/de.ralleytn.simple.fiql.FIQLAccessorProvider"));
+		assertEquals(Arrays.asList("test.Person_FIQLAccessors", "test.Person_Child_FIQLAccessors"), services);
+		
+		try(URLClassLoader loader = new URLClassLoader(new URL[] {directory.toUri().toURL()}, FIQLValueProcessorTest.class.getClassLoader())) {
+			
+			FIQLAccessorProvider person = provider(loader, "test.Person_FIQLAccessors");
+			FIQLAccessorProvider child = provider(loader, "test.Person_Child_FIQLAccessors");
+			Object peter = person.getType().getConstructor().newInstance();
+			
+			assertSame(loader.loadClass("test.Person"), person.getType());
+			assertArrayEquals(new String[] {"first_name", "income"}, person.getSelectors());
+			assertEquals("Peter", person.get(peter, 0));
+			assertEquals(1000, person.get(peter, 1));
+			
+			// The overriding getter is not annotated, so the child has no selector "first_name", just like at runtime.
+			assertSame(loader.loadClass("test.Person$Child"), child.getType());
+			assertArrayEquals(new String[] {"income"}, child.getSelectors());
+		}
+	}
+	
+	@Test
+	void testMergeServices() throws Exception {
+		
+		Path directory = Files.createTempDirectory("fiql");
+		Path person = directory.resolve("Person.java");
+		Path car = directory.resolve("Car.java");
+		Files.write(person, FIQLValueProcessorTest.PERSON.getBytes(StandardCharsets.UTF_8));
+		Files.write(car, FIQLValueProcessorTest.CAR.getBytes(StandardCharsets.UTF_8));
+		
+		// The second compilation only processes Car, like an incremental build would.
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		String classpath = System.getProperty("java.class.path") + File.pathSeparator + directory;
+		assertEquals(0, compiler.run(null, null, null, "-classpath", classpath, "-processor", FIQLValueProcessor.class.getName(), "-d", directory.toString(), person.toString()));
+		assertEquals(0, compiler.run(null, null, null, "-classpath", classpath, "-processor", FIQLValueProcessor.class.getName(), "-d", directory.toString(), car.toString()));
+		
+		List<String> services = Files.readAllLines(directory.resolve("META-INF/services/de.ralleytn.simple.fiql.FIQLAccessorProvider"));
+		assertEquals(Arrays.asList("test.Person_FIQLAccessors", "test.Person_Child_FIQLAccessors", "test.Car_FIQLAccessors"), services);
+		
+		// Compiling a class again does not register it twice.
+		assertEquals(0, compiler.run(null, null, null, "-classpath", classpath, "-processor", FIQLValueProcessor.class.getName(), "-d", directory.toString(), car.toString()));
+		assertEquals(services, Files.readAllLines(directory.resolve("META-INF/services/de.ralleytn.simple.fiql.FIQLAccessorProvider")));
+	}
+}